@@ -0,0 +1,100 @@
+/**
+ * 10/18/2026
+ *
+ * Runs the benchmarks with the GC profiler (so the bytes allocated per call are reported) and writes the results
+ * to a tab-separated file: benchmark, links, average time, error, unit, bytes allocated per call.
+ *
+ * Usage: java -jar target/benchmarks.jar [results file] [baseline file] [JMH include regex]
+ * If a baseline file (written by an earlier run, by default baseline.tsv) exists, the change of every benchmark
+ * is printed, so two versions of the converter can be compared. To make a new baseline, copy a results file over it.
+ *
+ */
+
+package com.agaidarov.bulgarianphonetictranscription.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public class BenchmarkMain {
+	
+	public static void main(String[] args) throws RunnerException, IOException
+	{
+		Path results = Paths.get((args.length > 0)? args[0] : "results.tsv");
+		Path baseline = Paths.get((args.length > 1)? args[1] : "baseline.tsv");
+		String include = (args.length > 2)? args[2] : PhoneticConverterBenchmark.class.getSimpleName();
+		
+		Options options = new OptionsBuilder()
+				.include(include)
+				.addProfiler(GCProfiler.class)
+				.build();
+		Collection<RunResult> runs = new Runner(options).run();
+		
+		List<String> lines = new ArrayList<>();
+		lines.add("benchmark\tlinks\tscore\terror\tunit\tbytes/op");
+		for (RunResult run : runs)
+		{
+			Result<?> primary = run.getPrimaryResult();
+			Result<?> allocated = run.getSecondaryResults().get("gc.alloc.rate.norm");
+			
+			String name = run.getParams().getBenchmark();
+			name = name.substring(name.lastIndexOf('.') + 1);
+			lines.add(name + "\t" + run.getParams().getParam("links") + "\t" + String.format(Locale.ROOT, "%.3f", primary.getScore()) + "\t" +
+					String.format(Locale.ROOT, "%.3f", primary.getScoreError()) + "\t" + primary.getScoreUnit() + "\t" +
+					((allocated == null)? "" : String.format(Locale.ROOT, "%.1f", allocated.getScore())));
+		}
+		Files.write(results, lines, StandardCharsets.UTF_8);
+		System.out.println("Results written to " + results.toAbsolutePath());
+		
+		if (Files.exists(baseline))
+			compare(lines, Files.readAllLines(baseline, StandardCharsets.UTF_8));
+		else
+			System.out.println("No baseline at " + baseline.toAbsolutePath() + " (copy " + results + " there to create one)");
+	}
+	
+	//Prints how the time and allocation of every benchmark changed since the baseline
+	private static void compare(List<String> current, List<String> baseline)
+	{
+		Map<String, String[]> before = new HashMap<>();
+		for (String line : baseline.subList(1, baseline.size()))
+		{
+			String[] columns = line.split("\t", -1);
+			before.put(columns[0] + "\t" + columns[1], columns);
+		}
+		
+		System.out.println();
+		System.out.println(String.format(Locale.ROOT, "%-20s %-6s %12s %12s %8s %12s %12s", "benchmark", "links", "baseline", "now", "change",
+				"B/op before", "B/op now"));
+		for (String line : current.subList(1, current.size()))
+		{
+			String[] now = line.split("\t", -1);
+			String[] old = before.get(now[0] + "\t" + now[1]);
+			if (old == null)
+			{
+				System.out.println(String.format(Locale.ROOT, "%-20s %-6s %12s %12s", now[0], now[1], "-", now[2]));
+				continue;
+			}
+			
+			double change = 100 * (Double.parseDouble(now[2]) / Double.parseDouble(old[2]) - 1);
+			System.out.println(String.format(Locale.ROOT, "%-20s %-6s %12s %12s %+7.1f%% %12s %12s", now[0], now[1], old[2], now[2], change,
+					old[5], now[5]));
+		}
+	}
+
+}
@@ -0,0 +1,154 @@
+/**
+ * 10/18/2026
+ *
+ * The Bulgarian text the benchmarks transcribe (corpus.txt): everyday sentences, one per line,
+ * with a stress mark after every stressed vowel of a word with more than one syllable.
+ *
+ * The words of the corpus are sorted into the groups the benchmarks need (words with one stress, words with two
+ * stresses, hyphenated words), together with the indexes of their stressed vowels.
+ * In the sentences themselves, words with two stresses only keep their first stress mark, because toPhonetic(String)
+ * doesn't read a second stress mark in the same word correctly.
+ *
+ */
+
+package com.agaidarov.bulgarianphonetictranscription.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+final class Corpus {
+	
+	private static final char GRAVE = '\u0300', ACUTE = '\u0301';
+	
+	final String[] sentences;		//with (at most one) stress mark in every word
+	final String[] unstressedSentences;
+	
+	//Words in lowercase without stress marks or punctuation, with the indexes of their stresses
+	final String[] singleStressed;
+	final int[] singleStresses;
+	final String[] doubleStressed;
+	final int[][] doubleStresses;
+	final String[] hyphenated;		//all of these have two stresses
+	final int[][] hyphenatedStresses;
+	
+	final String[] unstressedWords;		//every distinct word with more than one syllable
+	
+	
+	private Corpus(List<String> lines)
+	{
+		sentences = new String[lines.size()];
+		unstressedSentences = new String[lines.size()];
+		
+		Set<String> words = new LinkedHashSet<>();
+		for (int i = 0; i < sentences.length; i++)
+		{
+			String[] split = lines.get(i).split(" ");
+			for (int j = 0; j < split.length; j++)
+			{
+				words.add(split[j].toLowerCase().replaceAll("[^\\p{L}\\-" + GRAVE + ACUTE + "]", ""));
+				split[j] = keepFirstStress(split[j]);
+			}
+			
+			sentences[i] = String.join(" ", split);
+			unstressedSentences[i] = removeStresses(sentences[i]);
+		}
+		
+		List<String> single = new ArrayList<>(), twice = new ArrayList<>(), dashed = new ArrayList<>(), unstressed = new ArrayList<>();
+		List<int[]> singleIndexes = new ArrayList<>(), twiceIndexes = new ArrayList<>(), dashedIndexes = new ArrayList<>();
+		for (String word : words)
+		{
+			int[] stresses = getStresses(word);
+			String plain = removeStresses(word);
+			if (stresses.length == 0)
+				continue;
+			
+			unstressed.add(plain);
+			if (stresses.length == 1)
+			{
+				single.add(plain);
+				singleIndexes.add(stresses);
+			}
+			else if (plain.contains("-"))
+			{
+				dashed.add(plain);
+				dashedIndexes.add(stresses);
+			}
+			else
+			{
+				twice.add(plain);
+				twiceIndexes.add(stresses);
+			}
+		}
+		
+		singleStressed = single.toArray(new String[0]);
+		singleStresses = new int[singleIndexes.size()];
+		for (int i = 0; i < singleStresses.length; i++)
+			singleStresses[i] = singleIndexes.get(i)[0];
+		
+		doubleStressed = twice.toArray(new String[0]);
+		doubleStresses = twiceIndexes.toArray(new int[0][]);
+		hyphenated = dashed.toArray(new String[0]);
+		hyphenatedStresses = dashedIndexes.toArray(new int[0][]);
+		unstressedWords = unstressed.toArray(new String[0]);
+	}
+	
+	static Corpus load()
+	{
+		try (InputStream stream = Corpus.class.getResourceAsStream("/corpus.txt"))
+		{
+			if (stream == null)
+				throw new IllegalStateException("corpus.txt is missing from the classpath");
+			
+			List<String> lines = new ArrayList<>();
+			BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+			for (String line = reader.readLine(); line != null; line = reader.readLine())
+			{
+				if (!line.isBlank())
+					lines.add(line.trim());
+			}
+			return new Corpus(lines);
+		
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	//Indexes of the stressed vowels of word, counted without the stress marks
+	private static int[] getStresses(String word)
+	{
+		List<Integer> stresses = new ArrayList<>();
+		int marks = 0;
+		for (int i = 0; i < word.length(); i++)
+		{
+			if (word.charAt(i) == GRAVE || word.charAt(i) == ACUTE)
+			{
+				stresses.add(i - 1 - marks);
+				marks++;
+			}
+		}
+		return stresses.stream().mapToInt(Integer::intValue).toArray();
+	}
+	
+	private static String keepFirstStress(String word)
+	{
+		int first = Math.max(word.indexOf(GRAVE), word.indexOf(ACUTE));
+		if (first < 0)
+			return word;
+		
+		return word.substring(0, first + 1) + removeStresses(word.substring(first + 1));
+	}
+	
+	private static String removeStresses(String stressed)
+	{
+		return stressed.replace("" + GRAVE, "").replace("" + ACUTE, "");
+	}
+
+}
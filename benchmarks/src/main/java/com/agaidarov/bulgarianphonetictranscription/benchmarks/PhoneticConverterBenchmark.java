@@ -0,0 +1,204 @@
+/**
+ * 10/18/2026
+ *
+ * JMH benchmarks for the public methods of PhoneticConverter, over the words and sentences of the corpus.
+ *
+ * Every invocation transcribes the next word (or sentence) of its group, so the results are averages over
+ * the whole corpus rather than over one lucky word. None of the converters search the website:
+ * getStressed is measured with a StressCache that already knows the corpus.
+ *
+ */
+
+package com.agaidarov.bulgarianphonetictranscription.benchmarks;
+
+import java.nio.CharBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.agaidarov.bulgarianphonetictranscription.PhoneticConverter;
+import com.agaidarov.bulgarianphonetictranscription.StressCache;
+import com.agaidarov.bulgarianphonetictranscription.TranscriptionCache;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class PhoneticConverterBenchmark {
+	
+	@Param({"false", "true"})
+	public boolean links;
+	
+	private Corpus corpus;
+	private PhoneticConverter converter;
+	private PhoneticConverter cached;		//finds stresses in a StressCache
+	private PhoneticConverter remembering;		//remembers transcriptions in a TranscriptionCache
+	private int next = 0;
+	private final int[] bounds = new int[128];		//syllable bounds of a word, reused
+	private CharBuffer text;		//the words of singleStressed, one after another
+	private int[] starts;			//where every one of them starts in text
+	private final StringBuilder output = new StringBuilder(256);		//reused by appendedWord
+	private final short[] ids = new short[256];		//reused by phonemes
+	private final long[] features = new long[256];		//reused by features
+	
+	
+	@Setup
+	public void setUp()
+	{
+		corpus = Corpus.load();
+		converter = PhoneticConverter.builder().links(links).build();
+		
+		StressCache cache = new StressCache();
+		for (int i = 0; i < corpus.singleStressed.length; i++)
+			cache.remember(corpus.singleStressed[i], new int[] {corpus.singleStresses[i]});
+		for (int i = 0; i < corpus.doubleStressed.length; i++)
+			cache.remember(corpus.doubleStressed[i], new int[] {corpus.doubleStresses[i][0]});		//as in Corpus.sentences
+		cached = PhoneticConverter.builder().links(links).stressProvider(cache).build();
+		remembering = PhoneticConverter.builder().links(links).transcriptionCache(new TranscriptionCache()).build();
+		
+		StringBuilder words = new StringBuilder();
+		starts = new int[corpus.singleStressed.length];
+		for (int i = 0; i < starts.length; i++)
+		{
+			starts[i] = words.length();
+			words.append(corpus.singleStressed[i]).append(' ');
+		}
+		text = CharBuffer.wrap(words);
+	}
+	
+	@Benchmark
+	public String singleWord()
+	{
+		int i = next(corpus.singleStressed.length);
+		return converter.toPhonetic(corpus.singleStressed[i], corpus.singleStresses[i]);
+	}
+	
+	//Same words as singleWord, read out of a CharBuffer without making a String of them
+	@Benchmark
+	public String bufferedWord()
+	{
+		int i = next(corpus.singleStressed.length);
+		return converter.toPhonetic(text, starts[i], corpus.singleStressed[i].length(), corpus.singleStresses[i]);
+	}
+	
+	//Same again, appended to a reused StringBuilder, so no String is made at all
+	@Benchmark
+	public int appendedWord()
+	{
+		int i = next(corpus.singleStressed.length);
+		output.setLength(0);
+		return converter.toPhonetic(text, starts[i], corpus.singleStressed[i].length(), corpus.singleStresses[i], output);
+	}
+	
+	//Same words as singleWord, as phoneme IDs in a reused array
+	@Benchmark
+	public int phonemes()
+	{
+		int i = next(corpus.singleStressed.length);
+		return converter.toPhonemes(corpus.singleStressed[i], corpus.singleStresses[i], ids, 0);
+	}
+	
+	//Same words as singleWord, as articulatory features in a reused array
+	@Benchmark
+	public int features()
+	{
+		int i = next(corpus.singleStressed.length);
+		return converter.toFeatures(corpus.singleStressed[i], corpus.singleStresses[i], features, 0);
+	}
+	
+	//Same words as singleWord, but after the first round every word is found in the TranscriptionCache
+	@Benchmark
+	public String rememberedWord()
+	{
+		int i = next(corpus.singleStressed.length);
+		return remembering.toPhonetic(corpus.singleStressed[i], corpus.singleStresses[i]);
+	}
+	
+	@Benchmark
+	public String doubleStress()
+	{
+		int i = next(corpus.doubleStressed.length);
+		return converter.toPhonetic(corpus.doubleStressed[i], corpus.doubleStresses[i][0], corpus.doubleStresses[i][1], false);
+	}
+	
+	@Benchmark
+	public String hyphenated()
+	{
+		int i = next(corpus.hyphenated.length);
+		return converter.toPhonetic(corpus.hyphenated[i], corpus.hyphenatedStresses[i][0], corpus.hyphenatedStresses[i][1], true);
+	}
+	
+	//Every possible stress of a word, since the converter can't find it
+	@Benchmark
+	public String[] allVariants()
+	{
+		return converter.toPhonetic(corpus.unstressedWords[next(corpus.unstressedWords.length)]);
+	}
+	
+	//Only the first of those variants, which is all most callers use
+	@Benchmark
+	public String firstVariant()
+	{
+		return converter.toPhoneticVariants(corpus.unstressedWords[next(corpus.unstressedWords.length)]).findFirst().get();
+	}
+	
+	//A sentence with stress marks, so clitics and sandhi are the only extra work
+	@Benchmark
+	public String[] passage()
+	{
+		return converter.toPhonetic(corpus.sentences[next(corpus.sentences.length)]);
+	}
+	
+	//A sentence without stress marks, whose stresses are found in the cache
+	@Benchmark
+	public String[] cachedPassage()
+	{
+		return cached.toPhonetic(corpus.unstressedSentences[next(corpus.unstressedSentences.length)]);
+	}
+	
+	@Benchmark
+	public String getStressed()
+	{
+		return cached.getStressed(corpus.unstressedSentences[next(corpus.unstressedSentences.length)]);
+	}
+	
+	@Benchmark
+	public String[] getSyllables()
+	{
+		return converter.getSyllables(corpus.unstressedWords[next(corpus.unstressedWords.length)]);
+	}
+	
+	//The same without making a String per syllable
+	@Benchmark
+	public int getSyllableBounds()
+	{
+		return converter.getSyllableBounds(corpus.unstressedWords[next(corpus.unstressedWords.length)], bounds);
+	}
+	
+	@Benchmark
+	public String convertLetter()
+	{
+		String word = corpus.unstressedWords[next(corpus.unstressedWords.length)];
+		return converter.convertLetter(word.charAt(0), (next & 1) == 0);
+	}
+	
+	private int next(int length)
+	{
+		if (++next >= length)
+			next = 0;
+		return next;
+	}
+
+}
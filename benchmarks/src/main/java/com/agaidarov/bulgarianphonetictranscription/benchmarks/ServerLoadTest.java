@@ -0,0 +1,178 @@
+/**
+ * 10/18/2026
+ *
+ * A load test of TranscriptionServer: clients POST the sentences of the corpus to /passage, one at a time
+ * or in batches, over kept-alive connections, at several levels of concurrency. For every level it prints
+ * the requests per second and the median (p50) and 99th percentile (p99) latency of a request.
+ *
+ * Usage: java -cp target/benchmarks.jar com.agaidarov.bulgarianphonetictranscription.benchmarks.ServerLoadTest
+ *            [seconds per level (default 10)] [batch size (default 1)] [server URL]
+ * Without a URL, a server is started in the same JVM (with the converter's defaults) on a free port of localhost.
+ * Every level is preceded by a warm-up of a few seconds that isn't measured.
+ *
+ */
+
+package com.agaidarov.bulgarianphonetictranscription.benchmarks;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.agaidarov.bulgarianphonetictranscription.PhoneticConverter;
+import com.agaidarov.bulgarianphonetictranscription.TranscriptionServer;
+
+public class ServerLoadTest {
+	
+	private static final int[] CONCURRENCY = {1, 4, 16, 64};
+	private static final long WARM_UP_NANOS = 3_000_000_000L;
+	
+	
+	public static void main(String[] args) throws IOException, InterruptedException
+	{
+		long seconds = (args.length > 0)? Long.parseLong(args[0]) : 10;
+		int batch = (args.length > 1)? Integer.parseInt(args[1]) : 1;
+		
+		TranscriptionServer server = null;
+		URI uri;
+		if (args.length > 2)
+			uri = URI.create(args[2]).resolve("/passage");
+		else
+		{
+			server = new TranscriptionServer(PhoneticConverter.builder().build(), new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+			server.start();
+			uri = URI.create("http://localhost:" + server.getAddress().getPort() + "/passage");
+		}
+		
+		String[] bodies = requestBodies(Corpus.load().sentences, batch);
+		HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+		
+		System.out.println("POST " + uri + ", " + batch + " sentence(s) per request, " + seconds + " s per level");
+		System.out.println(String.format(Locale.ROOT, "%-12s %12s %12s %12s %10s", "concurrency", "requests/s", "p50 (ms)", "p99 (ms)",
+				"errors"));
+		for (int concurrency : CONCURRENCY)
+		{
+			run(client, uri, bodies, concurrency, WARM_UP_NANOS);
+			Level level = run(client, uri, bodies, concurrency, seconds * 1_000_000_000L);
+			System.out.println(String.format(Locale.ROOT, "%-12d %12.0f %12.2f %12.2f %10d", concurrency, level.perSecond(),
+					level.percentile(50) / 1e6, level.percentile(99) / 1e6, level.errors));
+		}
+		
+		if (server != null)
+			server.stop(0);
+	}
+	
+	//The JSON bodies of the requests: the sentences of the corpus, batch at a time
+	private static String[] requestBodies(String[] sentences, int batch)
+	{
+		List<String> bodies = new ArrayList<>();
+		for (int start = 0; start < sentences.length; start += batch)
+		{
+			StringBuilder body = new StringBuilder((batch == 1)? "{\"text\":" : "{\"texts\":[");
+			for (int i = start; i < Math.min(start + batch, sentences.length); i++)
+			{
+				if (i > start)
+					body.append(',');
+				body.append('"').append(sentences[i].replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+			}
+			bodies.add(body.append((batch == 1)? "}" : "]}").toString());
+		}
+		return bodies.toArray(new String[0]);
+	}
+	
+	//Sends requests from concurrency threads (each waits for its response before the next request) for nanos
+	private static Level run(HttpClient client, URI uri, String[] bodies, int concurrency, long nanos) throws InterruptedException
+	{
+		long[][] latencies = new long[concurrency][];
+		int[] counts = new int[concurrency];
+		AtomicLong errors = new AtomicLong();
+		long start = System.nanoTime(), end = start + nanos;
+		
+		Thread[] threads = new Thread[concurrency];
+		for (int t = 0; t < concurrency; t++)
+		{
+			int thread = t;
+			threads[t] = new Thread(() -> {
+				long[] times = new long[1024];
+				int count = 0;
+				for (int i = thread; System.nanoTime() < end; i++)
+				{
+					HttpRequest request = HttpRequest.newBuilder(uri)
+							.header("Content-Type", "application/json")
+							.POST(HttpRequest.BodyPublishers.ofString(bodies[i % bodies.length]))
+							.build();
+					
+					long sent = System.nanoTime();
+					try {
+						HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+						if (response.statusCode() != 200)
+							errors.incrementAndGet();
+					} catch (IOException e) {
+						errors.incrementAndGet();
+					} catch (InterruptedException e) {
+						return;
+					}
+					
+					if (count == times.length)
+						times = Arrays.copyOf(times, 2 * count);
+					times[count++] = System.nanoTime() - sent;
+				}
+				latencies[thread] = times;
+				counts[thread] = count;
+			}, "load-" + t);
+			threads[t].start();
+		}
+		for (Thread thread : threads)
+			thread.join();
+		
+		int total = 0;
+		for (int count : counts)
+			total += count;
+		long[] all = new long[total];
+		int filled = 0;
+		for (int t = 0; t < concurrency; t++)
+		{
+			System.arraycopy(latencies[t], 0, all, filled, counts[t]);
+			filled += counts[t];
+		}
+		Arrays.sort(all);
+		return new Level(all, System.nanoTime() - start, errors.get());
+	}
+	
+	
+	//The results of one level of concurrency
+	private static class Level {
+		
+		final long[] latencies;		//sorted, in nanoseconds
+		final long nanos;
+		final long errors;
+		
+		Level(long[] latencies, long nanos, long errors)
+		{
+			this.latencies = latencies;
+			this.nanos = nanos;
+			this.errors = errors;
+		}
+		
+		double perSecond()
+		{
+			return latencies.length / (nanos / 1e9);
+		}
+		
+		long percentile(int percent)
+		{
+			if (latencies.length == 0)
+				return 0;
+			return latencies[Math.min(latencies.length - 1, (int) Math.ceil(percent / 100.0 * latencies.length) - 1)];
+		}
+	}
+
+}
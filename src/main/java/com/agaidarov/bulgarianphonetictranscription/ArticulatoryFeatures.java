@@ -0,0 +1,153 @@
+/**
+ * 10/18/2026
+ *
+ * The articulatory features of the phonemes of PhonemeInventory, packed into a long per phoneme
+ * (see PhoneticConverter.toFeatures), so acoustic models get them without looking up IPA Strings.
+ *
+ * Bits of a feature vector (the layout never changes; new features only take bits that are still free):
+ *   0-7    the phoneme ID
+ *   8-15   flags: VOWEL, CONSONANT, VOICED, SONORANT, STRESSED, REDUCED, ROUNDED, VELARIZED
+ *   16-23  the ID of the voiced or voiceless counterpart of an obstruent (UNKNOWN if it doesn't have one)
+ *   24-27  place of a consonant, 28-31 its manner
+ *   32-35  height of a vowel, 36-39 its backness
+ *
+ * Voicing and the counterparts come from the voiced/voiceless pairs of CharClasses, and REDUCED marks the vowels
+ * IpaTable writes for an unstressed letter instead of the stressed one (e.g. 'ɐ' for 'а'). STRESSED is only ever
+ * set by the converter, on the vowel of the stressed letter.
+ *
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+public final class ArticulatoryFeatures {
+	
+	public static final long VOWEL = 1L << 8, CONSONANT = 1L << 9, VOICED = 1L << 10, SONORANT = 1L << 11,
+			STRESSED = 1L << 12, REDUCED = 1L << 13, ROUNDED = 1L << 14, VELARIZED = 1L << 15;
+	
+	public static final int NO_PLACE = 0, BILABIAL = 1, LABIODENTAL = 2, ALVEOLAR = 3, POSTALVEOLAR = 4, PALATAL = 5, VELAR = 6,
+			LABIOVELAR = 7;
+	public static final int NO_MANNER = 0, PLOSIVE = 1, FRICATIVE = 2, AFFRICATE = 3, NASAL = 4, LATERAL = 5, TRILL = 6,
+			APPROXIMANT = 7;
+	public static final int NO_HEIGHT = 0, CLOSE = 1, CLOSE_MID = 2, OPEN_MID = 3, NEAR_OPEN = 4, OPEN = 5;
+	public static final int NO_BACKNESS = 0, FRONT = 1, CENTRAL = 2, BACK = 3;
+	
+	private static final int COUNTERPART_SHIFT = 16, PLACE_SHIFT = 24, MANNER_SHIFT = 28, HEIGHT_SHIFT = 32, BACKNESS_SHIFT = 36;
+	
+	//symbol, place and manner of every consonant
+	private static final Object[][] CONSONANTS = {
+			{"p", BILABIAL, PLOSIVE}, {"b", BILABIAL, PLOSIVE}, {"t", ALVEOLAR, PLOSIVE}, {"d", ALVEOLAR, PLOSIVE},
+			{"k", VELAR, PLOSIVE}, {"g", VELAR, PLOSIVE},
+			{"f", LABIODENTAL, FRICATIVE}, {"v", LABIODENTAL, FRICATIVE}, {"s", ALVEOLAR, FRICATIVE}, {"z", ALVEOLAR, FRICATIVE},
+			{"ʃ", POSTALVEOLAR, FRICATIVE}, {"ʒ", POSTALVEOLAR, FRICATIVE}, {"x", VELAR, FRICATIVE},
+			{"t͡s", ALVEOLAR, AFFRICATE}, {"d͡z", ALVEOLAR, AFFRICATE}, {"t͡ʃ", POSTALVEOLAR, AFFRICATE}, {"d͡ʒ", POSTALVEOLAR, AFFRICATE},
+			{"m", BILABIAL, NASAL}, {"n", ALVEOLAR, NASAL}, {"ŋ", VELAR, NASAL},
+			{"l", ALVEOLAR, LATERAL}, {"ɫ", ALVEOLAR, LATERAL}, {"r", ALVEOLAR, TRILL},
+			{"j", PALATAL, APPROXIMANT}, {"w", LABIOVELAR, APPROXIMANT}
+	};
+	
+	//symbol, height, backness and whether the vowel is rounded
+	private static final Object[][] VOWELS = {
+			{"a", OPEN, CENTRAL, false}, {"ɐ", NEAR_OPEN, CENTRAL, false}, {"ɛ", OPEN_MID, FRONT, false}, {"i", CLOSE, FRONT, false},
+			{"ɔ", OPEN_MID, BACK, true}, {"o", CLOSE_MID, BACK, true}, {"u", CLOSE, BACK, true}, {"ɤ", CLOSE_MID, BACK, false}
+	};
+	
+	private static final long[] FEATURES = new long[PhonemeInventory.size()];
+	
+	static {
+		for (int id = 0; id < FEATURES.length; id++)
+			FEATURES[id] = id;
+		
+		for (Object[] vowel : VOWELS)
+		{
+			int id = PhonemeInventory.getId((String) vowel[0]);
+			FEATURES[id] |= VOWEL | VOICED | (long) (int) vowel[1] << HEIGHT_SHIFT | (long) (int) vowel[2] << BACKNESS_SHIFT
+					| (((boolean) vowel[3])? ROUNDED : 0);
+		}
+		
+		for (Object[] consonant : CONSONANTS)
+		{
+			int id = PhonemeInventory.getId((String) consonant[0]), manner = (int) consonant[2];
+			FEATURES[id] |= CONSONANT | (long) (int) consonant[1] << PLACE_SHIFT | (long) manner << MANNER_SHIFT;
+			if (manner >= NASAL)
+				FEATURES[id] |= VOICED | SONORANT;
+		}
+		FEATURES[PhonemeInventory.getId("ɫ")] |= VELARIZED;
+		
+		IpaTable ipa = IpaTable.of(true);
+		
+		//The obstruents pair up as their letters do, and 'ч' and 'ц' are voiced to "дж" and "дз"
+		for (char letter = 'а'; letter <= 'я'; letter++)
+		{
+			if (CharClasses.isVoiced(letter))
+				pair(getId(ipa, letter, false), getId(ipa, CharClasses.devoice(letter), false));
+		}
+		pair(getId(ipa, 'j', false), getId(ipa, 'ч', false));		//'j' is "дж"
+		pair(PhonemeInventory.getId("d͡z"), getId(ipa, 'ц', false));
+		
+		//A vowel that an unstressed letter is written with instead of the vowel of the stressed letter is reduced
+		for (char letter = 'а'; letter <= 'я'; letter++)
+		{
+			if (!CharClasses.isVowel(letter))
+				continue;
+			
+			int stressed = getId(ipa, letter, true), unstressed = getId(ipa, letter, false);
+			if (stressed != unstressed)
+				FEATURES[unstressed] |= REDUCED;
+		}
+	}
+	
+	
+	private ArticulatoryFeatures()
+	{
+	}
+	
+	//The features of a phoneme of PhonemeInventory (0 if id isn't one), without STRESSED
+	public static long of(int id)
+	{
+		return (id >= 0 && id < FEATURES.length)? FEATURES[id] : 0;
+	}
+	
+	public static int getPhoneme(long features)
+	{
+		return (int) (features & 0xff);
+	}
+	
+	public static int getCounterpart(long features)
+	{
+		return (int) (features >>> COUNTERPART_SHIFT & 0xff);
+	}
+	
+	public static int getPlace(long features)
+	{
+		return (int) (features >>> PLACE_SHIFT & 0xf);
+	}
+	
+	public static int getManner(long features)
+	{
+		return (int) (features >>> MANNER_SHIFT & 0xf);
+	}
+	
+	public static int getHeight(long features)
+	{
+		return (int) (features >>> HEIGHT_SHIFT & 0xf);
+	}
+	
+	public static int getBackness(long features)
+	{
+		return (int) (features >>> BACKNESS_SHIFT & 0xf);
+	}
+	
+	//The ID of the last phoneme letter is transcribed to (e.g. the vowel of 'я', which is "ja")
+	private static int getId(IpaTable ipa, char letter, boolean stressed)
+	{
+		short[] ids = PhonemeInventory.ofLetter(ipa.get(letter, stressed));
+		return ids[ids.length - 1];
+	}
+	
+	private static void pair(int voiced, int voiceless)
+	{
+		FEATURES[voiced] |= VOICED | (long) voiceless << COUNTERPART_SHIFT;
+		FEATURES[voiceless] |= (long) voiced << COUNTERPART_SHIFT;
+	}
+
+}
@@ -0,0 +1,221 @@
+/**
+ * 10/18/2026
+ *
+ * A StressProvider that looks up words with another provider in the background, returning CompletableFutures.
+ *
+ * Lookups of the same word that happen at the same time are coalesced: only the first one asks the provider,
+ * and the others wait for its answer (e.g. many threads transcribing the same new word make one request to the website).
+ * This also holds for the ordinary getStresses methods, which ask the provider on the calling thread.
+ *
+ * By default, lookups run on virtual threads if the Java version has them, and on a pool of daemon threads otherwise.
+ *
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+public class AsyncStressProvider implements StressProvider {
+	
+	private static final Executor DEFAULT_EXECUTOR = newExecutor("stress-lookup");
+	
+	private final StressProvider provider;
+	private final Executor executor;
+	
+	//Words being looked up right now
+	private final ConcurrentHashMap<String, CompletableFuture<int[]>> inFlight = new ConcurrentHashMap<>();
+	
+	
+	public AsyncStressProvider(StressProvider provider)
+	{
+		this(provider, DEFAULT_EXECUTOR);
+	}
+	
+	//executor: where the lookups of getStressesAsync run
+	public AsyncStressProvider(StressProvider provider, Executor executor)
+	{
+		this.provider = provider;
+		this.executor = executor;
+	}
+	
+	/*
+	 * Returns the stresses of word when they are found (see StressProvider.getStresses).
+	 * The future can be cancelled or given a timeout without affecting other callers waiting for the same word.
+	 */
+	public CompletableFuture<int[]> getStressesAsync(String word)
+	{
+		return getStressesAsync(List.of(word)).thenApply(found -> found.get(word));
+	}
+	
+	/*
+	 * Returns the stresses of all the words the provider knows, when they are found.
+	 * Words that nobody is looking up yet are given to the provider all at once.
+	 */
+	public CompletableFuture<Map<String, int[]>> getStressesAsync(Collection<String> words)
+	{
+		Map<String, CompletableFuture<int[]>> futures = new HashMap<>();
+		Map<String, CompletableFuture<int[]>> claimed = claim(words, futures);
+		
+		if (!claimed.isEmpty())
+		{
+			try {
+				executor.execute(() -> lookUp(claimed));
+			} catch (RuntimeException e) {		//e.g. the executor was shut down
+				fail(claimed, e);
+				throw e;
+			}
+		}
+		
+		return collect(futures);
+	}
+	
+	@Override
+	public int[] getStresses(String word)
+	{
+		return getStresses(List.of(word)).get(word);
+	}
+	
+	@Override
+	public Map<String, int[]> getStresses(Collection<String> words)
+	{
+		Map<String, CompletableFuture<int[]>> futures = new HashMap<>();
+		lookUp(claim(words, futures));
+		
+		try {
+			return collect(futures).join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw e;
+		}
+	}
+	
+	@Override
+	public void remember(String word, int[] stresses)
+	{
+		provider.remember(word, stresses);
+	}
+	
+	@Override
+	public StressSource getSource()
+	{
+		return provider.getSource();
+	}
+	
+	@Override
+	public boolean isExact()
+	{
+		return provider.isExact();
+	}
+	
+	@Override
+	public String getName()
+	{
+		return provider.getName();
+	}
+	
+	Executor getExecutor()
+	{
+		return executor;
+	}
+	
+	
+	/*
+	 * Puts a future for every word into futures, either the one of a lookup that is already in flight
+	 * or a new one, and returns the new ones (which the caller has to complete by calling lookUp)
+	 */
+	private Map<String, CompletableFuture<int[]>> claim(Collection<String> words, Map<String, CompletableFuture<int[]>> futures)
+	{
+		Map<String, CompletableFuture<int[]>> claimed = new HashMap<>();
+		for (String word : new LinkedHashSet<>(words))
+		{
+			CompletableFuture<int[]> future = new CompletableFuture<>();
+			CompletableFuture<int[]> existing = inFlight.putIfAbsent(word, future);
+			if (existing == null)
+			{
+				claimed.put(word, future);
+				futures.put(word, future);
+			}
+			else
+				futures.put(word, existing);
+		}
+		return claimed;
+	}
+	
+	//Looks up the claimed words and completes their futures (with null for the words the provider doesn't know)
+	private void lookUp(Map<String, CompletableFuture<int[]>> claimed)
+	{
+		if (claimed.isEmpty())
+			return;
+		
+		Map<String, int[]> found;
+		try {
+			found = provider.getStresses(claimed.keySet());
+		} catch (RuntimeException | Error e) {
+			fail(claimed, e);
+			throw e;
+		}
+		
+		for (Map.Entry<String, CompletableFuture<int[]>> entry : claimed.entrySet())
+		{
+			entry.getValue().complete(found.get(entry.getKey()));
+			inFlight.remove(entry.getKey(), entry.getValue());
+		}
+	}
+	
+	private void fail(Map<String, CompletableFuture<int[]>> claimed, Throwable cause)
+	{
+		for (Map.Entry<String, CompletableFuture<int[]>> entry : claimed.entrySet())
+		{
+			entry.getValue().completeExceptionally(cause);
+			inFlight.remove(entry.getKey(), entry.getValue());
+		}
+	}
+	
+	//Returns a new future with the answers for all the words (the futures themselves may be shared with other callers)
+	private static CompletableFuture<Map<String, int[]>> collect(Map<String, CompletableFuture<int[]>> futures)
+	{
+		List<CompletableFuture<int[]>> all = new ArrayList<>(futures.values());
+		return CompletableFuture.allOf(all.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+			Map<String, int[]> found = new HashMap<>();
+			for (Map.Entry<String, CompletableFuture<int[]>> entry : futures.entrySet())
+			{
+				int[] stresses = entry.getValue().join();
+				if (stresses != null)
+					found.put(entry.getKey(), stresses);
+			}
+			return found;
+		});
+	}
+	
+	/*
+	 * Virtual threads (Executors.newVirtualThreadPerTaskExecutor) only exist since Java 21 (and as a preview before),
+	 * so they are looked up by reflection, and daemon threads (named threadName) are used if they aren't available
+	 */
+	static ExecutorService newExecutor(String threadName)
+	{
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			ThreadFactory daemons = task -> {
+				Thread thread = new Thread(task, threadName);
+				thread.setDaemon(true);
+				return thread;
+			};
+			return Executors.newCachedThreadPool(daemons);
+		}
+	}
+
+}
@@ -0,0 +1,180 @@
+/**
+ * 10/18/2026
+ *
+ * A concurrent map with a limit on both the number of entries and their (estimated) size in bytes.
+ *
+ * Eviction uses the CLOCK algorithm, an approximation of least-recently-used: every hit only sets a flag on
+ * the entry, and when the cache is full, entries are taken from the front of a queue; flagged entries get a
+ * "second chance" (the flag is cleared and they go to the back), the others are removed. Lookups therefore
+ * never take a lock, which matters because almost every lookup is a hit.
+ *
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntBiFunction;
+
+class BoundedCache<K, V> {
+	
+	private final int maxEntries;
+	private final long maxBytes;
+	private final ToIntBiFunction<K, V> weigher;		//estimated size of an entry in bytes
+	
+	private final ConcurrentHashMap<K, Node<V>> map = new ConcurrentHashMap<>();
+	private final ConcurrentLinkedQueue<K> clock = new ConcurrentLinkedQueue<>();		//keys in eviction order
+	private final ReentrantLock evictionLock = new ReentrantLock();
+	private final AtomicLong bytes = new AtomicLong();
+	
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	
+	
+	BoundedCache(int maxEntries, long maxBytes, ToIntBiFunction<K, V> weigher)
+	{
+		if (maxEntries < 0 || maxBytes < 0)
+			throw new IllegalArgumentException("cache limits cannot be negative");
+		
+		this.maxEntries = maxEntries;
+		this.maxBytes = maxBytes;
+		this.weigher = weigher;
+	}
+	
+	//Returns the value stored for key, or null if there isn't one
+	V get(K key)
+	{
+		Node<V> node = map.get(key);
+		if (node == null)
+		{
+			misses.increment();
+			return null;
+		}
+		
+		node.referenced = true;
+		hits.increment();
+		return node.value;
+	}
+	
+	void put(K key, V value)
+	{
+		if (maxEntries == 0)
+			return;
+		
+		Node<V> node = new Node<>(value, weigher.applyAsInt(key, value));
+		Node<V> old = map.put(key, node);
+		
+		if (old == null)
+		{
+			clock.add(key);
+			bytes.addAndGet(node.weight);
+		}
+		else
+			bytes.addAndGet(node.weight - old.weight);
+		
+		if (isFull())
+			evict();
+	}
+	
+	void clear()
+	{
+		evictionLock.lock();
+		try {
+			map.clear();
+			clock.clear();
+			bytes.set(0);
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+	
+	//Removes entries until the cache is within its limits again
+	private void evict()
+	{
+		//Only one thread needs to evict at a time; the others can go on.
+		//Checked again after unlocking, in case entries were added just as the evicting thread finished
+		while (isFull() && evictionLock.tryLock())
+		{
+			try {
+				//Entries hit by other threads in the meantime can't keep getting second chances forever,
+				//so after passing over every entry twice, entries are removed regardless of their flag
+				//(map.size() instead of clock.size(), which counts the whole queue)
+				int secondChances = 2 * map.size();
+				while (isFull())
+				{
+					K key = clock.poll();
+					if (key == null)
+						break;
+					
+					Node<V> node = map.get(key);
+					if (node == null)
+						continue;
+					
+					if (node.referenced && secondChances-- > 0)
+					{
+						node.referenced = false;
+						clock.add(key);
+					}
+					else if (map.remove(key, node))
+					{
+						bytes.addAndGet(-node.weight);
+						evictions.increment();
+					}
+					else
+						clock.add(key);		//the value was replaced in the meantime, so the key stays
+				}
+			} finally {
+				evictionLock.unlock();
+			}
+		}
+	}
+	
+	private boolean isFull()
+	{
+		return map.size() > maxEntries || bytes.get() > maxBytes;
+	}
+	
+	int size()
+	{
+		return map.size();
+	}
+	
+	long bytes()
+	{
+		return bytes.get();
+	}
+	
+	long hits()
+	{
+		return hits.sum();
+	}
+	
+	long misses()
+	{
+		return misses.sum();
+	}
+	
+	long evictions()
+	{
+		return evictions.sum();
+	}
+	
+	
+	private static class Node<V> {
+		
+		final V value;
+		final int weight;
+		volatile boolean referenced = false;
+		
+		Node(V value, int weight)
+		{
+			this.value = value;
+			this.weight = weight;
+		}
+	}
+
+}
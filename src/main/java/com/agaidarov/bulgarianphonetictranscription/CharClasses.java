@@ -0,0 +1,132 @@
+/**
+ * 10/18/2026
+ *
+ * This class classifies letters (vowel, voiced or voiceless obstruent, sonorant) with a table over the Cyrillic block,
+ * so that checking a letter is a single array lookup instead of a search through an array of letters or Strings.
+ *
+ * Obstruents form pairs of a voiced and a voiceless consonant (д/т, з/с, б/п, г/к, в/ф, ж/ш); 'ч' and 'ц' are voiced
+ * to "дж" and "дз", which aren't single letters, and 'х' doesn't have a counterpart.
+ *
+ * It also lowercases letters with a table, so text can be lowercased a letter at a time as it is read
+ * (e.g. straight out of a CharBuffer) instead of copying it into a String and calling toLowerCase.
+ *
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+final class CharClasses {
+	
+	static final int VOWEL = 1, VOICED = 2, VOICELESS = 4, SONORANT = 8;
+	static final char UNFOLDED = '\uffff';		//see toLowerCase
+	
+	//Same order as PhoneticConverter.voiced and PhoneticConverter.voiceless, so letters in a pair share an index
+	private static final String VOICED_LETTERS = "дзбгвж";
+	private static final String VOICELESS_LETTERS = "тспкфшчцх";
+	
+	//'ю' and 'я' are included for the purpose of splitting into syllables and for stresses
+	private static final String VOWELS = "аиеояъую";
+	private static final String SONORANTS = "йлмнрь";
+	
+	private static final int SIZE = 0x500;		//up to the end of the Cyrillic block
+	private static final byte[] CLASSES = new byte[SIZE];
+	private static final byte[] INDEXES = new byte[SIZE];		//index of an obstruent in VOICED_LETTERS or VOICELESS_LETTERS
+	private static final char[] PAIRS = new char[SIZE];		//the other letter of an obstruent's pair (0 if there isn't one)
+	private static final char[] LOWER = new char[SIZE];
+	
+	static {
+		for (char letter = 0; letter < SIZE; letter++)
+			LOWER[letter] = isCyrillic(letter)? Character.toLowerCase(letter) : foldOutside(letter);
+		
+		for (int i = 0; i < VOWELS.length(); i++)
+			CLASSES[VOWELS.charAt(i)] |= VOWEL;
+		
+		for (int i = 0; i < SONORANTS.length(); i++)
+			CLASSES[SONORANTS.charAt(i)] |= SONORANT;
+		
+		for (int i = 0; i < VOICED_LETTERS.length(); i++)
+		{
+			char voiced = VOICED_LETTERS.charAt(i), voiceless = VOICELESS_LETTERS.charAt(i);
+			CLASSES[voiced] |= VOICED;
+			INDEXES[voiced] = (byte) i;
+			PAIRS[voiced] = voiceless;
+			PAIRS[voiceless] = voiced;
+		}
+		
+		for (int i = 0; i < VOICELESS_LETTERS.length(); i++)
+		{
+			CLASSES[VOICELESS_LETTERS.charAt(i)] |= VOICELESS;
+			INDEXES[VOICELESS_LETTERS.charAt(i)] = (byte) i;
+		}
+	}
+	
+	
+	private CharClasses()
+	{
+	}
+	
+	static boolean isVowel(char letter)
+	{
+		return letter < SIZE && (CLASSES[letter] & VOWEL) != 0;
+	}
+	
+	static boolean isVoiced(char letter)
+	{
+		return letter < SIZE && (CLASSES[letter] & VOICED) != 0;
+	}
+	
+	static boolean isVoiceless(char letter)
+	{
+		return letter < SIZE && (CLASSES[letter] & VOICELESS) != 0;
+	}
+	
+	static boolean isObstruent(char letter)
+	{
+		return letter < SIZE && (CLASSES[letter] & (VOICED | VOICELESS)) != 0;
+	}
+	
+	static boolean isSonorant(char letter)
+	{
+		return letter < SIZE && (CLASSES[letter] & SONORANT) != 0;
+	}
+	
+	//Index of letter in PhoneticConverter.voiced, or -1 if it isn't a voiced obstruent
+	static int voicedIndex(char letter)
+	{
+		return isVoiced(letter)? INDEXES[letter] : -1;
+	}
+	
+	//Index of letter in PhoneticConverter.voiceless, or -1 if it isn't a voiceless obstruent
+	static int voicelessIndex(char letter)
+	{
+		return isVoiceless(letter)? INDEXES[letter] : -1;
+	}
+	
+	//Returns the voiceless counterpart of a voiced obstruent; any other letter is returned unchanged
+	static char devoice(char letter)
+	{
+		return isVoiced(letter)? PAIRS[letter] : letter;
+	}
+	
+	/*
+	 * Returns the lowercase of letter, the same as String.toLowerCase would make it, or UNFOLDED if the word has to be
+	 * lowercased by String.toLowerCase: an uppercase letter outside the Cyrillic block may have a lowercase form
+	 * that depends on the locale (e.g. 'I' in Turkish) or is longer than one letter.
+	 */
+	static char toLowerCase(char letter)
+	{
+		return (letter < SIZE)? LOWER[letter] : foldOutside(letter);
+	}
+	
+	private static boolean isCyrillic(char letter)
+	{
+		return letter >= 'Ѐ' && letter <= 'ӿ';
+	}
+	
+	private static char foldOutside(char letter)
+	{
+		if (Character.isUpperCase(letter) || Character.isTitleCase(letter))
+			return UNFOLDED;
+		return Character.toLowerCase(letter);
+	}
+
+}
@@ -0,0 +1,549 @@
+/**
+ * 10/18/2026
+ *
+ * The command line: transcribes files (or standard input) line by line, or as JSON Lines records, into IPA.
+ *
+ *   java -cp <classpath> com.agaidarov.bulgarianphonetictranscription.Cli [options] [file ...]
+ *
+ * Plain text is transcribed the same way as PhoneticConverter.toPhonetic(Reader, Writer) (every line is a passage),
+ * on several threads with CorpusTranscriber. In the other formats every line is a record, transcribed on its own.
+ * Warnings are printed on standard error, so they don't end up in the output. Run with --help for the options.
+ * Main is still the demo of the library.
+ *
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class Cli {
+	
+	private static final String USAGE =
+			"Usage: Cli [options] [file ...]\n" +
+			"Transcribes Bulgarian text into IPA. Reads the files in order (standard input if there are none, or for \"-\").\n" +
+			"\n" +
+			"  -o, --output FILE     write to FILE instead of standard output\n" +
+			"  --links               include links (tie bars) in affricates\n" +
+			"  --stress SOURCE       where stresses of words without stress marks come from:\n" +
+			"                        none (default), rules (guessed from word endings) or web (slovored.com)\n" +
+			"  --lexicon DIRECTORY   also look up stresses in a StressLexicon (words found on the web are added to it)\n" +
+			"  --threads N           number of threads (default: number of processors)\n" +
+			"  --format FORMAT       output: text (the IPA of every line; default), tsv (line, tab, IPA)\n" +
+			"                        or jsonl ({\"text\": line, \"ipa\": IPA}; default for --jsonl)\n" +
+			"  --jsonl               input is JSON Lines: transcribes a field of every record and adds \"ipa\" to it\n" +
+			"  --field NAME          the field --jsonl transcribes (default \"text\")\n" +
+			"  --cache N             remember the transcriptions of up to N words (default " +
+					TranscriptionCache.DEFAULT_MAX_ENTRIES + ", 0 turns it off)\n" +
+			"  --progress            report progress on standard error\n" +
+			"  --daemon SOCKET       stay running and transcribe what clients send to the Unix domain socket SOCKET\n" +
+			"  --connect SOCKET      send the input to the daemon at SOCKET instead of transcribing it here\n" +
+			"                        (only --format, --jsonl, --field, -o and the files apply; the daemon's options are used)\n" +
+			"  --http [HOST:]PORT    stay running as an HTTP server (see TranscriptionServer) on PORT of HOST (default localhost)\n" +
+			"  -h, --help            print this message\n";
+	
+	private static final int BUFFER = 1 << 16;
+	
+	static final PrintStream errors = new PrintStream(new FileOutputStream(FileDescriptor.err), true, StandardCharsets.UTF_8);
+	
+	//Options
+	private boolean links = false;
+	private String stress = "none";
+	private Path lexicon = null;
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private String format = null;		//text, or jsonl for --jsonl
+	private boolean jsonl = false;
+	private String field = "text";
+	private int cacheWords = TranscriptionCache.DEFAULT_MAX_ENTRIES;
+	private boolean progress = false;
+	private Path output = null;
+	private final List<String> inputs = new ArrayList<>();
+	private Path daemon = null;
+	private Path connect = null;
+	private InetSocketAddress http = null;
+	
+	private PhoneticConverter converter;
+	private ExecutorService executor;
+	private Progress reporter;
+	
+	
+	public static void main(String[] args)
+	{
+		System.exit(new Cli().run(args));
+	}
+	
+	//Returns the exit status: 0 if everything was transcribed, 1 if something failed, 2 if the arguments are wrong
+	int run(String[] args)
+	{
+		try {
+			if (!parse(args))
+				return 0;
+		} catch (IllegalArgumentException e) {
+			errors.println("Cli: " + e.getMessage());
+			errors.print(USAGE);
+			return 2;
+		}
+		
+		if (connect != null)
+			return new TranscriptionDaemon(this).connect(connect, requestOptions(), inputs, output);
+		
+		//Output goes straight to standard output, so the converter's warnings (printed to System.out) can go to standard error
+		PrintStream out = System.out;
+		System.setOut(errors);
+		
+		StressLexicon stressLexicon = null;
+		try (Writer writer = openOutput())
+		{
+			if (lexicon != null)
+				stressLexicon = StressLexicon.open(lexicon);
+			converter = buildConverter(stressLexicon);
+			if (threads > 1)
+				executor = Executors.newFixedThreadPool(threads, runnable -> {
+					Thread thread = new Thread(runnable, "transcriber");
+					thread.setDaemon(true);
+					return thread;
+				});
+			reporter = progress? new Progress() : null;
+			
+			if (daemon != null)
+			{
+				new TranscriptionDaemon(this).serve(daemon);		//until the process is stopped
+				return 0;
+			}
+			if (http != null)
+			{
+				serveHttp();
+				return 0;
+			}
+			
+			for (String input : inputs)
+			{
+				try (Reader reader = openInput(input))
+				{
+					transcribe(reader, writer);
+				}
+			}
+			writer.flush();
+			
+			if (reporter != null)
+				reporter.finish();
+			return 0;
+		} catch (IOException | UncheckedIOException e) {
+			errors.println("Cli: " + e.getMessage());
+			return 1;
+		} catch (IllegalArgumentException e) {		//a bad record
+			errors.println("Cli: " + e.getMessage());
+			return 1;
+		} catch (RuntimeException e) {		//anything else the converter throws still ends the run with a message
+			errors.println("Cli: couldn't transcribe the input: " + e);
+			return 1;
+		} finally {
+			System.setOut(out);
+			if (executor != null)
+				executor.shutdownNow();
+			if (stressLexicon != null)
+			{
+				try {
+					stressLexicon.close();
+				} catch (IOException e) {
+					errors.println("Cli: couldn't close the lexicon: " + e.getMessage());
+				}
+			}
+		}
+	}
+	
+	//Reads args into the options; returns false if only the usage had to be printed
+	private boolean parse(String[] args)
+	{
+		for (int i = 0; i < args.length; i++)
+		{
+			String arg = args[i];
+			switch (arg) {
+				case "-h":
+				case "--help":
+					System.out.print(USAGE);
+					return false;
+				case "-o":
+				case "--output":
+					output = Paths.get(value(args, ++i, arg));
+					break;
+				case "--links":
+					links = true;
+					break;
+				case "--stress":
+					stress = value(args, ++i, arg);
+					if (!stress.equals("none") && !stress.equals("rules") && !stress.equals("web"))
+						throw new IllegalArgumentException("unknown stress source: " + stress);
+					break;
+				case "--lexicon":
+					lexicon = Paths.get(value(args, ++i, arg));
+					break;
+				case "--threads":
+					threads = number(value(args, ++i, arg), arg);
+					if (threads < 1)
+						throw new IllegalArgumentException("--threads must be at least 1");
+					break;
+				case "--format":
+					format = value(args, ++i, arg);
+					if (!format.equals("text") && !format.equals("tsv") && !format.equals("jsonl"))
+						throw new IllegalArgumentException("unknown format: " + format);
+					break;
+				case "--jsonl":
+					jsonl = true;
+					break;
+				case "--field":
+					field = value(args, ++i, arg);
+					break;
+				case "--cache":
+					cacheWords = number(value(args, ++i, arg), arg);
+					if (cacheWords < 0)
+						throw new IllegalArgumentException("--cache cannot be negative");
+					break;
+				case "--progress":
+					progress = true;
+					break;
+				case "--daemon":
+					daemon = Paths.get(value(args, ++i, arg));
+					break;
+				case "--connect":
+					connect = Paths.get(value(args, ++i, arg));
+					break;
+				case "--http":
+					String address = value(args, ++i, arg);
+					int colon = address.lastIndexOf(':');
+					int port = number(address.substring(colon + 1), arg);
+					if (port < 0 || port > 65535)
+						throw new IllegalArgumentException("--http needs a port from 0 to 65535");
+					http = (colon < 0)? new InetSocketAddress(InetAddress.getLoopbackAddress(), port) :
+							new InetSocketAddress(address.substring(0, colon), port);
+					break;
+				default:
+					if (arg.startsWith("-") && !arg.equals("-"))
+						throw new IllegalArgumentException("unknown option: " + arg);
+					inputs.add(arg);
+			}
+		}
+		
+		if (format == null)
+			format = jsonl? "jsonl" : "text";
+		if (inputs.isEmpty())
+			inputs.add("-");
+		if ((daemon != null? 1 : 0) + (connect != null? 1 : 0) + (http != null? 1 : 0) > 1)
+			throw new IllegalArgumentException("only one of --daemon, --connect and --http can be used");
+		return true;
+	}
+	
+	//The options that apply to a single request to a daemon (see TranscriptionDaemon)
+	private List<String> requestOptions()
+	{
+		List<String> options = new ArrayList<>(List.of("--format", format, "--field", field));
+		if (jsonl)
+			options.add("--jsonl");
+		return options;
+	}
+	
+	//Returns a Cli for one request to this daemon: it shares the converter and threads, and takes only the request's options
+	Cli forRequest(List<String> options)
+	{
+		Cli request = new Cli();
+		for (int i = 0; i < options.size(); i++)
+		{
+			String option = options.get(i);
+			if (!option.equals("--format") && !option.equals("--field") && !option.equals("--jsonl"))
+				throw new IllegalArgumentException("option can't be sent to a daemon: " + option);
+			if (!option.equals("--jsonl"))
+				i++;
+		}
+		request.parse(options.toArray(new String[0]));
+		
+		request.converter = converter;
+		request.executor = executor;
+		request.threads = threads;
+		return request;
+	}
+	
+	//Serves HTTP requests until the process is stopped
+	private void serveHttp() throws IOException
+	{
+		TranscriptionServer server = new TranscriptionServer(converter, http);
+		server.start();
+		errors.println("Cli: listening on http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort());
+		try {
+			Thread.currentThread().join();
+		} catch (InterruptedException e) {
+			server.stop(0);
+		}
+	}
+	
+	private static String value(String[] args, int i, String option)
+	{
+		if (i >= args.length)
+			throw new IllegalArgumentException(option + " needs a value");
+		return args[i];
+	}
+	
+	private static int number(String value, String option)
+	{
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(option + " needs a number, not " + value);
+		}
+	}
+	
+	private PhoneticConverter buildConverter(StressLexicon stressLexicon)
+	{
+		PhoneticConverter.Builder builder = PhoneticConverter.builder().links(links);
+		if (cacheWords > 0)
+			builder.transcriptionCache(new TranscriptionCache(cacheWords, TranscriptionCache.DEFAULT_MAX_BYTES));
+		
+		if (stress.equals("rules"))
+		{
+			List<StressProvider> providers = new ArrayList<>();
+			providers.add(new StressCache());
+			if (stressLexicon != null)
+				providers.add(stressLexicon);
+			providers.add(new RuleBasedStressProvider());
+			builder.stressProvider(new StressChain(providers));
+		}
+		else
+			builder.searchWebsite(stress.equals("web")).stressLexicon(stressLexicon);
+		
+		return builder.build();
+	}
+	
+	
+	private Writer openOutput() throws IOException
+	{
+		if (output == null)
+			return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8), BUFFER);
+		return Files.newBufferedWriter(output, StandardCharsets.UTF_8);
+	}
+	
+	private Reader openInput(String input) throws IOException
+	{
+		Reader reader;
+		if (input.equals("-"))
+			reader = new InputStreamReader(new FileInputStream(FileDescriptor.in), StandardCharsets.UTF_8);
+		else
+			reader = Files.newBufferedReader(Paths.get(input), StandardCharsets.UTF_8);
+		
+		return (reporter != null)? reporter.count(reader) : reader;
+	}
+	
+	
+	//Transcribes input to output in the format of this Cli
+	void transcribe(Reader input, Writer output) throws IOException
+	{
+		if (format.equals("text") && !jsonl)
+			transcribeText(input, output);
+		else
+			transcribeRecords(new BufferedReader(input, BUFFER), output);
+		output.flush();
+	}
+	
+	//The converter the options describe (built once per Cli)
+	PhoneticConverter getConverter()
+	{
+		return converter;
+	}
+	
+	boolean isLinks()
+	{
+		return links;
+	}
+	
+	//Plain text to plain text: the lines of input are transcribed as passages
+	private void transcribeText(Reader input, Writer output) throws IOException
+	{
+		if (executor == null)
+			converter.toPhonetic(input, output);
+		else
+			new CorpusTranscriber(converter, executor, threads, CorpusTranscriber.DEFAULT_CHUNK_WORDS).transcribe(input, output);
+	}
+	
+	//Every line is a record, transcribed on its own (several at a time) and written in order
+	private void transcribeRecords(BufferedReader input, Writer output) throws IOException
+	{
+		Deque<CompletableFuture<String>> records = new ArrayDeque<>();
+		int maxRecords = 64 * threads;		//records are short, so more of them are read ahead than chunks
+		long lineNumber = 0;
+		
+		String line;
+		while ((line = input.readLine()) != null)
+		{
+			String record = line;
+			long number = ++lineNumber;
+			if (executor == null)
+			{
+				write(output, transcribeRecord(record, number));
+				continue;
+			}
+			
+			while (records.size() >= maxRecords)
+				write(output, join(records.removeFirst()));
+			records.addLast(CompletableFuture.supplyAsync(() -> transcribeRecord(record, number), executor));
+		}
+		
+		while (!records.isEmpty())
+			write(output, join(records.removeFirst()));
+	}
+	
+	private String transcribeRecord(String record, long lineNumber)
+	{
+		String text = record;
+		if (jsonl)
+		{
+			if (record.isBlank())
+				return record;
+			try {
+				text = Json.getString(record, field);
+			} catch (IllegalArgumentException e) {
+				throw new IllegalArgumentException("line " + lineNumber + ": " + e.getMessage());
+			}
+			if (text == null)
+				return record;		//records without the field are copied as they are
+		}
+		
+		String ipa;
+		try {
+			ipa = transcribeLine(text);
+		} catch (RuntimeException e) {		//a record the converter can't transcribe is a bad record too
+			throw new IllegalArgumentException("line " + lineNumber + ": couldn't transcribe it: " + e, e);
+		}
+		
+		switch (format) {
+			case "tsv":
+				return text + '\t' + ipa;
+			case "jsonl":
+				if (jsonl)
+					return Json.addString(record, "ipa", ipa);
+				StringBuilder json = new StringBuilder("{\"text\":");
+				Json.appendString(json, text);
+				json.append(",\"ipa\":");
+				Json.appendString(json, ipa);
+				return json.append('}').toString();
+			default:
+				return ipa;
+		}
+	}
+	
+	//Transcribes text the same way as a line in transcribeText
+	private String transcribeLine(String text)
+	{
+		StringWriter output = new StringWriter(2 * text.length());
+		try {
+			converter.toPhonetic(new StringReader(text), output);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);		//doesn't happen with Strings
+		}
+		return output.toString();
+	}
+	
+	private static void write(Writer output, String record) throws IOException
+	{
+		output.write(record);
+		output.write('\n');
+	}
+	
+	//Waits for a record; if transcribing it failed, the exception is thrown as it was
+	private static String join(CompletableFuture<String> record)
+	{
+		try {
+			return record.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw e;
+		}
+	}
+	
+	
+	//Counts what is read and reports it on standard error, at most once a second
+	private static class Progress {
+		
+		private final long start = System.nanoTime();
+		private long characters = 0, lines = 0, lastReport = start;
+		
+		Reader count(Reader reader)
+		{
+			return new FilterReader(reader) {
+				@Override
+				public int read() throws IOException
+				{
+					int letter = super.read();
+					if (letter >= 0)
+						counted(letter == '\n'? 1 : 0, 1);
+					return letter;
+				}
+				
+				@Override
+				public int read(char[] buffer, int offset, int length) throws IOException
+				{
+					int read = super.read(buffer, offset, length);
+					int lineBreaks = 0;
+					for (int i = offset; i < offset + read; i++)
+					{
+						if (buffer[i] == '\n')
+							lineBreaks++;
+					}
+					if (read > 0)
+						counted(lineBreaks, read);
+					return read;
+				}
+			};
+		}
+		
+		private synchronized void counted(int lineBreaks, int read)
+		{
+			lines += lineBreaks;
+			characters += read;
+			
+			long now = System.nanoTime();
+			if (now - lastReport >= 1_000_000_000L)
+			{
+				lastReport = now;
+				report(now);
+			}
+		}
+		
+		synchronized void finish()
+		{
+			report(System.nanoTime());
+		}
+		
+		private void report(long now)
+		{
+			double seconds = Math.max((now - start) / 1e9, 1e-9);
+			errors.printf("%,d lines, %,d characters read in %.1f s (%,.0f lines/s)%n", lines, characters, seconds, lines / seconds);
+		}
+	}
+
+}
@@ -0,0 +1,152 @@
+/**
+ * 10/18/2026
+ *
+ * This class remembers what every consonant cluster becomes after PhoneticConverter.analyzeCluster
+ * (removal of 'т'/'д', assimilation, "щ"), so that phonotation is a table lookup per cluster.
+ *
+ * The result only depends on the cluster itself, and Bulgarian clusters are short, so every cluster of up to
+ * EAGER consonants is worked out when the class is loaded and stored in an array indexed by its letters.
+ * Longer clusters (or clusters with other characters) are worked out the first time they are seen and kept
+ * in a bounded cache.
+ *
+ * ClusterTableVerifier checks that the table gives the same clusters as the rules.
+ *
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+import java.util.function.ObjIntConsumer;
+
+final class ClusterTable {
+	
+	//Every letter that isn't a vowel; a cluster of these letters is a number in base (CONSONANTS.length() + 1)
+	static final String CONSONANTS = "бвгджзйклмнпрстфхцчшщь";
+	static final int EAGER = 3;		//clusters up to this length are in the table
+	
+	private static final int BASE = CONSONANTS.length() + 1;
+	private static final int LETTERS = 0x500;		//up to the end of the Cyrillic block
+	private static final byte[] CODES = new byte[LETTERS];		//1 + index in CONSONANTS (0 if not a consonant)
+	private static final String[] TABLE;
+	
+	static final int STATES;		//size of TABLE; the key of a cluster is also its state in Transducer
+	
+	private static final int MAX_REMEMBERED = 10_000;
+	private static final BoundedCache<String, String> remembered =
+			new BoundedCache<>(MAX_REMEMBERED, Long.MAX_VALUE, (cluster, rewritten) -> 0);
+	
+	static {
+		for (int i = 0; i < CONSONANTS.length(); i++)
+			CODES[CONSONANTS.charAt(i)] = (byte) (i + 1);
+		
+		int size = 1;
+		for (int i = 0; i < EAGER; i++)
+			size *= BASE;
+		TABLE = new String[size];
+		STATES = size;
+		
+		//Slots whose key has a 0 digit stay empty, since no letter has code 0
+		forEachCluster((cluster, key) -> TABLE[key] = PhoneticConverter.analyzeCluster(cluster).intern());
+	}
+	
+	
+	private ClusterTable()
+	{
+	}
+	
+	//Calls action with every cluster in the table and its key
+	static void forEachCluster(ObjIntConsumer<String> action)
+	{
+		forEachCluster("", 0, action);
+	}
+	
+	private static void forEachCluster(String cluster, int key, ObjIntConsumer<String> action)
+	{
+		action.accept(cluster, key);
+		if (cluster.length() == EAGER)
+			return;
+		
+		for (int i = 0; i < CONSONANTS.length(); i++)
+			forEachCluster(cluster + CONSONANTS.charAt(i), key * BASE + i + 1, action);
+	}
+	
+	/*
+	 * Returns the key of the cluster with key key and length length, followed by letter,
+	 * or -1 if letter isn't in CONSONANTS or the longer cluster isn't in the table
+	 */
+	static int next(int key, int length, char letter)
+	{
+		int code = code(letter);
+		if (code == 0 || length >= EAGER)
+			return -1;
+		return key * BASE + code;
+	}
+	
+	//Returns the cluster letters[start..end) the way it is pronounced
+	static String rewrite(char[] letters, int start, int end)
+	{
+		if (end - start <= EAGER)
+		{
+			int key = key(letters, start, end);
+			if (key >= 0)
+				return TABLE[key];
+		}
+		
+		return remember(new String(letters, start, end - start));
+	}
+	
+	static String rewrite(String cluster)
+	{
+		if (cluster.length() <= EAGER)
+		{
+			int key = key(cluster);
+			if (key >= 0)
+				return TABLE[key];
+		}
+		
+		return remember(cluster);
+	}
+	
+	//Index of letters[start..end) in TABLE, or -1 if one of them isn't in CONSONANTS
+	private static int key(char[] letters, int start, int end)
+	{
+		int key = 0, code;
+		for (int i = start; i < end; i++)
+		{
+			code = code(letters[i]);
+			if (code == 0)
+				return -1;
+			key = key * BASE + code;
+		}
+		return key;
+	}
+	
+	private static int key(String cluster)
+	{
+		int key = 0, code;
+		for (int i = 0; i < cluster.length(); i++)
+		{
+			code = code(cluster.charAt(i));
+			if (code == 0)
+				return -1;
+			key = key * BASE + code;
+		}
+		return key;
+	}
+	
+	private static int code(char letter)
+	{
+		return (letter < LETTERS)? CODES[letter] : 0;
+	}
+	
+	private static String remember(String cluster)
+	{
+		String rewritten = remembered.get(cluster);
+		if (rewritten == null)
+		{
+			rewritten = PhoneticConverter.analyzeCluster(cluster);
+			remembered.put(cluster, rewritten);
+		}
+		return rewritten;
+	}
+
+}
@@ -0,0 +1,61 @@
+/**
+ * 10/18/2026
+ *
+ * A tool that checks ClusterTable against the rules it is made from (PhoneticConverter.analyzeCluster).
+ *
+ * Every cluster of up to 5 consonants (or as many as the first argument says) is rewritten both ways,
+ * and the clusters that differ are printed. Run it after changing analyzeCluster or assimilate:
+ *   java -cp target/classes com.agaidarov.bulgarianphonetictranscription.ClusterTableVerifier [max length]
+ *
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+public class ClusterTableVerifier {
+	
+	private static final int MAX_PRINTED = 20;
+	
+	private static long checked = 0, mismatches = 0;
+	
+	
+	public static void main(String[] args)
+	{
+		int maxLength = (args.length > 0)? Integer.parseInt(args[0]) : 5;
+		
+		long start = System.nanoTime();
+		char[] cluster = new char[maxLength];
+		for (int length = 0; length <= maxLength; length++)
+			check(cluster, 0, length);
+		
+		System.out.println("Checked " + checked + " clusters of up to " + maxLength + " consonants in " +
+				(System.nanoTime() - start) / 1_000_000 + " ms: " + mismatches + " mismatches");
+		if (mismatches > 0)
+			System.exit(1);
+	}
+	
+	//Goes through every way of filling cluster[filled..length) with consonants
+	private static void check(char[] cluster, int filled, int length)
+	{
+		if (filled == length)
+		{
+			String expected = PhoneticConverter.analyzeCluster(new String(cluster, 0, length));
+			String fromArray = ClusterTable.rewrite(cluster, 0, length);
+			String fromString = ClusterTable.rewrite(new String(cluster, 0, length));
+			
+			checked++;
+			if (!expected.equals(fromArray) || !expected.equals(fromString))
+			{
+				if (mismatches++ < MAX_PRINTED)
+					System.out.println(new String(cluster, 0, length) + ": rules give " + expected + ", table gives " + fromArray);
+			}
+			return;
+		}
+		
+		for (int i = 0; i < ClusterTable.CONSONANTS.length(); i++)
+		{
+			cluster[filled] = ClusterTable.CONSONANTS.charAt(i);
+			check(cluster, filled + 1, length);
+		}
+	}
+
+}
@@ -0,0 +1,190 @@
+/**
+ * 10/18/2026
+ *
+ * This class transcribes large texts (corpora) on several threads, with the same result as
+ * PhoneticConverter.toPhonetic(Reader, Writer) on one thread.
+ *
+ * The text is read in chunks of about chunkWords words, which are transcribed in parallel and written out in order.
+ * A chunk only ends where sandhi can't cross: at a line break, after a word ending in punctuation (e.g. the end of
+ * a sentence), or between two words that aren't clitics (sandhi only happens next to a clitic).
+ * A chunk that starts in the middle of a line is transcribed as the rest of that line (a passage, even if it is
+ * a single word), so a clitic at its start isn't stressed as if it were a word on its own.
+ * So every word is transcribed the same way as if the whole text was one chunk. Only stress lookups are grouped
+ * differently (by chunk).
+ *
+ * All threads share the converter. It is safe to do so, and each thread still gets its own TranscriptionEngine.
+ * At most a few chunks per thread are kept in memory, so texts of any length can be transcribed.
+ *
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+public class CorpusTranscriber {
+	
+	public static final int DEFAULT_CHUNK_WORDS = 2048;
+	
+	private final PhoneticConverter converter;
+	private final Executor executor;
+	private final int chunkWords;
+	private final int maxChunks;		//chunks being transcribed or waiting to be written
+	
+	
+	//Transcribes on the common ForkJoinPool
+	public CorpusTranscriber(PhoneticConverter converter)
+	{
+		this(converter, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism(), DEFAULT_CHUNK_WORDS);
+	}
+	
+	/*
+	 * executor: where chunks are transcribed
+	 * threads: how many threads executor has (more chunks than that are read ahead, to keep them busy)
+	 * chunkWords: how many words a chunk has before it is ended at the next place sandhi can't cross
+	 */
+	public CorpusTranscriber(PhoneticConverter converter, Executor executor, int threads, int chunkWords)
+	{
+		if (threads < 1 || chunkWords < 1)
+			throw new IllegalArgumentException("threads and chunkWords must be positive");
+		
+		this.converter = converter;
+		this.executor = executor;
+		this.chunkWords = chunkWords;
+		maxChunks = 4 * threads;
+	}
+	
+	/*
+	 * Transcribes input to output, the same way as PhoneticConverter.toPhonetic(Reader, Writer).
+	 * Neither input nor output is closed.
+	 */
+	public void transcribe(Reader input, Writer output) throws IOException
+	{
+		WordReader words = new WordReader(input);
+		Deque<CompletableFuture<String>> chunks = new ArrayDeque<>();
+		StringBuilder chunk = new StringBuilder();
+		int count = 0;
+		boolean continued = false;		//if true, chunk continues a line that an earlier chunk started
+		
+		String word = words.next();
+		appendLineBreaks(chunk, words.lineBreaks());
+		String nextWord;
+		while (word != null)
+		{
+			chunk.append(word);
+			count++;
+			
+			nextWord = words.next();
+			if (nextWord == null)
+			{
+				appendLineBreaks(chunk, words.lineBreaks());
+				break;
+			}
+			
+			if (words.lineBreaks() > 0)
+			{
+				appendLineBreaks(chunk, words.lineBreaks());
+				if (count >= chunkWords)
+				{
+					submit(chunk.toString(), continued, chunks, output);
+					chunk.setLength(0);
+					count = 0;
+					continued = false;
+				}
+			}
+			else if (count >= chunkWords && canSplit(word, nextWord))
+			{
+				submit(chunk.toString(), continued, chunks, output);
+				chunk.setLength(0);
+				count = 0;
+				continued = true;
+			}
+			else
+				chunk.append(' ');
+			
+			word = nextWord;
+		}
+		
+		if (chunk.length() > 0)
+			submit(chunk.toString(), continued, chunks, output);
+		while (!chunks.isEmpty())
+			output.write(join(chunks.removeFirst()));
+		output.flush();
+	}
+	
+	//Transcribes text, the same way as transcribe(Reader, Writer)
+	public String transcribe(String text)
+	{
+		StringWriter output = new StringWriter();
+		try {
+			transcribe(new StringReader(text), output);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);		//doesn't happen with Strings
+		}
+		return output.toString();
+	}
+	
+	
+	//Returns true if nextWord can't change how word is pronounced (they are on the same line)
+	private boolean canSplit(String word, String nextWord)
+	{
+		if (!Character.isLetter(word.charAt(word.length() - 1)))
+			return true;
+		
+		return !converter.isClitic(word.toLowerCase()) && !converter.isClitic(nextWord.toLowerCase());
+	}
+	
+	/*
+	 * Starts transcribing text (continued: if true, text is the rest of a line started by the chunk before it).
+	 * If too many chunks are waiting, the oldest ones are written first.
+	 */
+	private void submit(String text, boolean continued, Deque<CompletableFuture<String>> chunks, Writer output) throws IOException
+	{
+		while (chunks.size() >= maxChunks)
+			output.write(join(chunks.removeFirst()));
+		
+		chunks.addLast(CompletableFuture.supplyAsync(() -> transcribeChunk(text, continued), executor));
+	}
+	
+	private String transcribeChunk(String text, boolean continued)
+	{
+		StringWriter output = new StringWriter(text.length() * 2);
+		try {
+			converter.toPhonetic(new StringReader(text), output, continued);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);		//doesn't happen with Strings
+		}
+		return output.toString();
+	}
+	
+	//Waits for a chunk; if transcribing it failed, the exception is thrown as it was
+	private static String join(CompletableFuture<String> chunk)
+	{
+		try {
+			return chunk.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			if (e.getCause() instanceof Error)
+				throw (Error) e.getCause();
+			throw e;
+		}
+	}
+	
+	private static void appendLineBreaks(StringBuilder chunk, int lineBreaks)
+	{
+		for (int i = 0; i < lineBreaks; i++)
+			chunk.append('\n');
+	}
+
+}
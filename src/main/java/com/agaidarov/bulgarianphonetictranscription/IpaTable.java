@@ -0,0 +1,212 @@
+/**
+ * 10/18/2026
+ * 
+ * This class holds what every letter is transcribed to in IPA, for one setting of links (an "output profile").
+ * 
+ * The transcriptions are worked out once, when the class is loaded, from the rules in transcribe
+ * and stored in a table indexed by the letter and whether it is stressed. Transcribing a letter is then
+ * a single array lookup, and appending it to a StringBuilder doesn't create any Strings.
+ * 
+ * Letters outside the table (past the Cyrillic block) are transcribed to themselves, like letters
+ * that were already transcribed (e.g. 'w').
+ * 
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+import java.io.IOException;
+
+final class IpaTable {
+	
+	//Covers Latin, IPA, combining marks and the Cyrillic block
+	private static final int LETTERS = 0x500;
+	
+	private static final IpaTable LINKS = new IpaTable(true);
+	private static final IpaTable NO_LINKS = new IpaTable(false);
+	
+	private final String[] table = new String[2 * LETTERS];		//index: 2 * letter + (1 if stressed)
+	private final short[][] phonemes = new short[2 * LETTERS][];	//the same as IDs of PhonemeInventory
+	
+	
+	private IpaTable(boolean links)
+	{
+		for (char letter = 0; letter < LETTERS; letter++)
+		{
+			table[2 * letter] = transcribe(letter, false, links).intern();
+			table[2 * letter + 1] = transcribe(letter, true, links).intern();
+			phonemes[2 * letter] = PhonemeInventory.ofLetter(table[2 * letter]);
+			phonemes[2 * letter + 1] = PhonemeInventory.ofLetter(table[2 * letter + 1]);
+		}
+	}
+	
+	static IpaTable of(boolean links)
+	{
+		return links? LINKS : NO_LINKS;
+	}
+	
+	//Returns the IPA equivalent of letter (for 'л' and 'н', stressed selects "l" and "ŋ"; see PhoneticConverter.convertLetter)
+	String get(char letter, boolean stressed)
+	{
+		if (letter >= LETTERS)
+			return String.valueOf(letter);
+		
+		return table[2 * letter + (stressed? 1 : 0)];
+	}
+	
+	void append(char letter, boolean stressed, StringBuilder output)
+	{
+		if (letter >= LETTERS)
+			output.append(letter);
+		else
+			output.append(table[2 * letter + (stressed? 1 : 0)]);
+	}
+	
+	void append(char letter, boolean stressed, Appendable output) throws IOException
+	{
+		if (letter >= LETTERS)
+			output.append(letter);
+		else
+			output.append(table[2 * letter + (stressed? 1 : 0)]);
+	}
+	
+	
+	//Writes the phoneme IDs of letter into ids from start; returns how many were written (at most 2)
+	int appendPhonemes(char letter, boolean stressed, short[] ids, int start)
+	{
+		if (letter >= LETTERS)
+		{
+			ids[start] = PhonemeInventory.getId(String.valueOf(letter));
+			return 1;
+		}
+		
+		short[] letterIds = phonemes[2 * letter + (stressed? 1 : 0)];
+		System.arraycopy(letterIds, 0, ids, start, letterIds.length);
+		return letterIds.length;
+	}
+	
+	
+	//The rules the tables are made from (this used to be PhoneticConverter.convertLetter)
+	private static String transcribe(char letter, boolean stressed, boolean links)
+	{
+		switch (letter) {
+			case 'а':
+				if (stressed)
+					return "a";
+				return "ɐ";
+				
+			case 'б':
+				return "b";
+				
+			case 'в':
+				return "v";
+				
+			case 'г':
+				return "g";
+				
+			case 'д':		//"дж" and "дз" are already transcribed to "d͡ʒ" and "d͡z"
+				return "d";
+				
+			case 'е':
+				return "ɛ";
+				
+			case 'ж':
+				return "ʒ";
+				
+			case 'з':
+				return "z";
+				
+			case 'и':
+				return "i";
+				
+			case 'й':
+				return "j";
+				
+			case 'к':
+				return "k";
+				
+			case 'л':		//'л' --> "l" (stressed = true) or "ɫ" (stressed = false)
+				if (stressed)
+					return "l";
+				return "ɫ";
+				
+			case 'м':
+				return "m";
+				
+			case 'н':		//'н' --> "ŋ" (stressed = true) or "n" (stressed = false)
+				if (stressed)
+					return "ŋ";
+				return "n";
+				
+			case 'о':
+				if (stressed)
+					return "ɔ";
+				return "o";
+				
+			case 'п':
+				return "p";
+				
+			case 'р':
+				return "r";
+				
+			case 'с':
+				return "s";
+				
+			case 'т':
+				return "t";
+				
+			case 'у':		//'у' is already transcribed to 'w' in English loan words
+				if (stressed)
+					return "u";
+				return "o";
+				
+			case 'ф':
+				return "f";
+				
+			case 'х':
+				return "x";
+				
+			case 'ц':
+				if (links)
+					return "t͡s";
+				return "ts";
+				
+			case 'ч':
+				if (links)
+					return "t͡ʃ";
+				return "tʃ";
+				
+			case 'ш':
+				return "ʃ";
+				
+			case 'щ':
+				return "ʃt";
+				
+			case 'ъ':
+				if (stressed)
+					return "ɤ";
+				return "ɐ";
+				
+			case 'ь':
+				return "j";
+				
+			case 'ю':
+				if (stressed)
+					return "ju";
+				return "jo";
+				
+			case 'я':
+				if (stressed)
+					return "ja";
+				return "jɐ";
+			
+			case 'j':		//Previously transcribed "дж" to 'j'
+				if (links)
+					return "d͡ʒ";
+				return "dʒ";
+		}
+		
+		//If letter was already transcribed
+		return "" + letter;		//makes letter a String
+	}
+
+}
@@ -0,0 +1,312 @@
+/**
+ * 10/18/2026
+ *
+ * The little JSON the command line (Cli) and TranscriptionServer need, so that the library doesn't need
+ * a JSON dependency: reading a string (or array of strings) field of an object, and adding one to it.
+ *
+ * The rest of a record is never parsed into objects; it is only skipped over and copied as it is,
+ * so fields the caller doesn't know about are kept exactly as they were.
+ *
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class Json {
+	
+	private Json()
+	{
+	}
+	
+	/*
+	 * Returns the value of the string field key of the JSON object in record, or null if it doesn't have that field
+	 * (or its value isn't a string). Throws IllegalArgumentException if record isn't a JSON object.
+	 */
+	static String getString(String record, String key)
+	{
+		int[] position = {skipWhitespace(record, 0)};
+		expect(record, position, '{');
+		if (peek(record, position) == '}')
+			return null;
+		
+		while (true)
+		{
+			String name = readString(record, position);
+			expect(record, position, ':');
+			
+			if (name.equals(key) && peek(record, position) == '"')
+				return readString(record, position);
+			skipValue(record, position);
+			
+			if (peek(record, position) == '}')
+				return null;
+			expect(record, position, ',');
+		}
+	}
+	
+	/*
+	 * Returns the strings in the array field key of the JSON object in record, or null if it doesn't have that field
+	 * (or its value isn't an array). Throws IllegalArgumentException if record isn't a JSON object
+	 * or the array has something other than strings in it.
+	 */
+	static List<String> getStrings(String record, String key)
+	{
+		int[] position = {skipWhitespace(record, 0)};
+		expect(record, position, '{');
+		if (peek(record, position) == '}')
+			return null;
+		
+		while (true)
+		{
+			String name = readString(record, position);
+			expect(record, position, ':');
+			
+			if (name.equals(key) && peek(record, position) == '[')
+			{
+				List<String> strings = new ArrayList<>();
+				expect(record, position, '[');
+				if (peek(record, position) == ']')
+					return strings;
+				while (true)
+				{
+					strings.add(readString(record, position));
+					if (peek(record, position) == ']')
+						return strings;
+					expect(record, position, ',');
+				}
+			}
+			skipValue(record, position);
+			
+			if (peek(record, position) == '}')
+				return null;
+			expect(record, position, ',');
+		}
+	}
+	
+	/*
+	 * Returns record (a JSON object) with the string field key added at the end. If record already has the field,
+	 * its value is replaced where it is instead, so records that are transcribed again don't end up with the key twice.
+	 */
+	static String addString(String record, String key, String value)
+	{
+		String replaced = replaceString(record, key, value);
+		if (replaced != null)
+			return replaced;
+		
+		int end = record.lastIndexOf('}');
+		if (end < 0)
+			throw new IllegalArgumentException("not a JSON object: " + record);
+		
+		int last = end - 1;
+		while (last >= 0 && Character.isWhitespace(record.charAt(last)))
+			last--;
+		
+		StringBuilder output = new StringBuilder(record.length() + key.length() + 2 * value.length() + 8);
+		output.append(record, 0, end);
+		if (record.charAt(last) != '{')
+			output.append(',');
+		appendString(output, key);
+		output.append(':');
+		appendString(output, value);
+		output.append(record, end, record.length());
+		return output.toString();
+	}
+	
+	//Returns record with the value of every field key replaced by value (as a string), or null if it doesn't have that field
+	private static String replaceString(String record, String key, String value)
+	{
+		int[] position = {skipWhitespace(record, 0)};
+		expect(record, position, '{');
+		if (peek(record, position) == '}')
+			return null;
+		
+		StringBuilder output = null;
+		int copied = 0;		//record[0..copied) is in output
+		while (true)
+		{
+			String name = readString(record, position);
+			expect(record, position, ':');
+			
+			int start = position[0];
+			skipValue(record, position);
+			if (name.equals(key))
+			{
+				int end = position[0];		//skipValue also skips the whitespace after the value
+				while (end > start && Character.isWhitespace(record.charAt(end - 1)))
+					end--;
+				
+				if (output == null)
+					output = new StringBuilder(record.length() + 2 * value.length());
+				output.append(record, copied, start);
+				appendString(output, value);
+				copied = end;
+			}
+			
+			if (peek(record, position) == '}')
+				break;
+			expect(record, position, ',');
+		}
+		
+		return (output == null)? null : output.append(record, copied, record.length()).toString();
+	}
+	
+	//Appends text to output as a JSON string (in quotes, with escapes)
+	static void appendString(StringBuilder output, String text)
+	{
+		output.append('"');
+		char letter;
+		for (int i = 0; i < text.length(); i++)
+		{
+			letter = text.charAt(i);
+			switch (letter) {
+				case '"':
+					output.append("\\\"");
+					break;
+				case '\\':
+					output.append("\\\\");
+					break;
+				case '\n':
+					output.append("\\n");
+					break;
+				case '\r':
+					output.append("\\r");
+					break;
+				case '\t':
+					output.append("\\t");
+					break;
+				default:
+					if (letter < ' ')
+						output.append(String.format("\\u%04x", (int) letter));
+					else
+						output.append(letter);		//UTF-8 output, so Cyrillic and IPA don't need escapes
+			}
+		}
+		output.append('"');
+	}
+	
+	
+	//Reads the string at position[0] (which must start with '"') and moves past it
+	private static String readString(String json, int[] position)
+	{
+		if (peek(json, position) != '"')
+			throw new IllegalArgumentException("expected a string at " + position[0] + " in " + json);
+		
+		StringBuilder text = new StringBuilder();
+		int i = position[0] + 1;		//whitespace inside the string is kept
+		char letter;
+		while (true)
+		{
+			if (i >= json.length())
+				throw new IllegalArgumentException("unterminated string in " + json);
+			
+			letter = json.charAt(i++);
+			if (letter == '"')
+				break;
+			if (letter != '\\')
+			{
+				text.append(letter);
+				continue;
+			}
+			
+			if (i >= json.length())
+				throw new IllegalArgumentException("unterminated string in " + json);
+			letter = json.charAt(i++);
+			switch (letter) {
+				case 'b':
+					text.append('\b');
+					break;
+				case 'f':
+					text.append('\f');
+					break;
+				case 'n':
+					text.append('\n');
+					break;
+				case 'r':
+					text.append('\r');
+					break;
+				case 't':
+					text.append('\t');
+					break;
+				case 'u':
+					if (i + 4 > json.length())
+						throw new IllegalArgumentException("bad \\u escape in " + json);
+					try {
+						text.append((char) Integer.parseInt(json.substring(i, i + 4), 16));
+					} catch (NumberFormatException e) {
+						throw new IllegalArgumentException("bad \\u escape in " + json);
+					}
+					i += 4;
+					break;
+				default:		//'"', '\\' and '/'
+					text.append(letter);
+			}
+		}
+		
+		position[0] = skipWhitespace(json, i);
+		return text.toString();
+	}
+	
+	//Moves past the value at position[0]: a string, a number, true/false/null, or a whole object or array
+	private static void skipValue(String json, int[] position)
+	{
+		char first = peek(json, position);
+		if (first == '"')
+		{
+			readString(json, position);
+			return;
+		}
+		
+		int i = position[0], depth = 0;
+		char letter;
+		while (i < json.length())
+		{
+			letter = json.charAt(i);
+			if (letter == '"')
+			{
+				position[0] = i;
+				readString(json, position);
+				i = position[0];
+				continue;
+			}
+			
+			if (letter == '{' || letter == '[')
+				depth++;
+			else if (letter == '}' || letter == ']')
+			{
+				if (depth == 0)
+					break;		//end of the object that contains the value
+				depth--;
+			}
+			else if (letter == ',' && depth == 0)
+				break;
+			
+			i++;
+		}
+		
+		position[0] = skipWhitespace(json, i);
+	}
+	
+	private static char peek(String json, int[] position)
+	{
+		if (position[0] >= json.length())
+			throw new IllegalArgumentException("unexpected end of " + json);
+		return json.charAt(position[0]);
+	}
+	
+	private static void expect(String json, int[] position, char expected)
+	{
+		if (peek(json, position) != expected)
+			throw new IllegalArgumentException("expected '" + expected + "' at " + position[0] + " in " + json);
+		position[0] = skipWhitespace(json, position[0] + 1);
+	}
+	
+	private static int skipWhitespace(String json, int i)
+	{
+		while (i < json.length() && Character.isWhitespace(json.charAt(i)))
+			i++;
+		return i;
+	}
+
+}
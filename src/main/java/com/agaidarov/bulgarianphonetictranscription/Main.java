@@ -73,9 +73,10 @@ public class Main {
 		String[] fromCity = converter2.toPhonetic("от град");
 		System.out.println(fromCity[0]);
 		
-		//If the user doesn't want this to happen, they may set clitics to an empty array
-		converter2.setClitics(new String[0]);
-		fromCity = converter2.toPhonetic("от град");
+		//If the user doesn't want this to happen, they may build a converter with an empty array of clitics
+		//A converter never changes after it's built, so one instance can be shared by many threads
+		PhoneticConverter noClitics = PhoneticConverter.builder().searchWebsite(true).clitics().build();
+		fromCity = noClitics.toPhonetic("от град");
 		System.out.println(fromCity[0]);
 		
 		
@@ -98,6 +99,10 @@ public class Main {
 		//This method parses the website and returns the stressed version of "optimistic"
 		String stressed = converter2.getStressed("оптимистичен");
 		System.out.println(stressed);
+		
+		//Where stresses come from can be chosen: this converter never goes online and guesses stresses from word endings instead
+		PhoneticConverter offline = PhoneticConverter.builder().stressProvider(new RuleBasedStressProvider()).build();
+		System.out.println(offline.getStressed("информация"));
 	}
 
 }
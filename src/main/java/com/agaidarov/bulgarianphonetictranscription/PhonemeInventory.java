@@ -0,0 +1,170 @@
+/**
+ * 10/18/2026
+ *
+ * The phonemes (and markers) that a transcription is made of, each with a fixed ID, for pipelines that want
+ * numbers instead of IPA Strings (see PhoneticConverter.toPhonemes).
+ *
+ * The inventory covers everything IpaTable can produce: the vowels (stressed and reduced), the consonants
+ * with 'ŋ' and 'ɫ', the affricates (one phoneme each, whether or not links are drawn) and 'w' of loan words,
+ * plus the stress marks, a syllable break, a word break and '-'. Any other character (e.g. punctuation) is UNKNOWN.
+ * The syllable and word breaks aren't made by the converter; they are there for callers that join or split words.
+ *
+ * IDs never change: new phonemes are only ever added at the end. The inventory is also written to
+ * phonemes.tsv next to this class (id, symbol, kind and description on every line), which main regenerates.
+ *
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public final class PhonemeInventory {
+	
+	public static final short UNKNOWN = 0, PRIMARY_STRESS = 1, SECONDARY_STRESS = 2, SYLLABLE_BREAK = 3, WORD_BREAK = 4, HYPHEN = 5;
+	
+	//symbol, kind, description; the index is the ID
+	private static final String[][] PHONEMES = {
+			{"", "marker", "unknown (any other character)"},
+			{"ˈ", "marker", "primary stress"},
+			{"ˌ", "marker", "secondary stress"},
+			{".", "marker", "syllable break"},
+			{" ", "marker", "word break"},
+			{"-", "marker", "hyphen"},
+			{"a", "vowel", "open central unrounded"},
+			{"ɐ", "vowel", "near-open central (reduced а, ъ)"},
+			{"ɛ", "vowel", "open-mid front unrounded"},
+			{"i", "vowel", "close front unrounded"},
+			{"ɔ", "vowel", "open-mid back rounded"},
+			{"o", "vowel", "close-mid back rounded (reduced о, у)"},
+			{"u", "vowel", "close back rounded"},
+			{"ɤ", "vowel", "close-mid back unrounded"},
+			{"p", "consonant", "voiceless bilabial plosive"},
+			{"b", "consonant", "voiced bilabial plosive"},
+			{"t", "consonant", "voiceless alveolar plosive"},
+			{"d", "consonant", "voiced alveolar plosive"},
+			{"k", "consonant", "voiceless velar plosive"},
+			{"g", "consonant", "voiced velar plosive"},
+			{"f", "consonant", "voiceless labiodental fricative"},
+			{"v", "consonant", "voiced labiodental fricative"},
+			{"s", "consonant", "voiceless alveolar fricative"},
+			{"z", "consonant", "voiced alveolar fricative"},
+			{"ʃ", "consonant", "voiceless postalveolar fricative"},
+			{"ʒ", "consonant", "voiced postalveolar fricative"},
+			{"x", "consonant", "voiceless velar fricative"},
+			{"t͡s", "consonant", "voiceless alveolar affricate"},
+			{"d͡z", "consonant", "voiced alveolar affricate"},
+			{"t͡ʃ", "consonant", "voiceless postalveolar affricate"},
+			{"d͡ʒ", "consonant", "voiced postalveolar affricate"},
+			{"m", "consonant", "bilabial nasal"},
+			{"n", "consonant", "alveolar nasal"},
+			{"ŋ", "consonant", "velar nasal"},
+			{"l", "consonant", "alveolar lateral approximant"},
+			{"ɫ", "consonant", "velarized alveolar lateral approximant"},
+			{"r", "consonant", "alveolar trill"},
+			{"j", "consonant", "palatal approximant"},
+			{"w", "consonant", "labio-velar approximant"}
+	};
+	
+	//The affricates as IpaTable writes them without links ("дз" isn't a letter, so TranscriptionEngine.phonemes takes care of "dz")
+	private static final String[][] ALIASES = {{"ts", "t͡s"}, {"tʃ", "t͡ʃ"}, {"dʒ", "d͡ʒ"}};
+	
+	private static final Map<String, Short> IDS = new HashMap<>();
+	
+	static {
+		for (short id = 0; id < PHONEMES.length; id++)
+			IDS.put(PHONEMES[id][0], id);
+		for (String[] alias : ALIASES)
+			IDS.put(alias[0], IDS.get(alias[1]));
+	}
+	
+	
+	private PhonemeInventory()
+	{
+	}
+	
+	//Number of IDs (they are 0 to size() - 1)
+	public static int size()
+	{
+		return PHONEMES.length;
+	}
+	
+	//The IPA of a phoneme (with links for affricates); "" for UNKNOWN
+	public static String getSymbol(int id)
+	{
+		return PHONEMES[id][0];
+	}
+	
+	//"vowel", "consonant" or "marker"
+	public static String getKind(int id)
+	{
+		return PHONEMES[id][1];
+	}
+	
+	public static String getDescription(int id)
+	{
+		return PHONEMES[id][2];
+	}
+	
+	//Returns the ID of symbol, or UNKNOWN if it isn't in the inventory
+	public static short getId(String symbol)
+	{
+		return IDS.getOrDefault(symbol, UNKNOWN);
+	}
+	
+	/*
+	 * The IDs of the IPA of a single letter (as IpaTable transcribes it), e.g. "jɐ" for 'я' is j and ɐ,
+	 * and "ts" for 'ц' is one affricate. This isn't meant for whole transcriptions, in which "ts" may also be 'т' and 'с'.
+	 */
+	static short[] ofLetter(String ipa)
+	{
+		if (IDS.containsKey(ipa))
+			return new short[] {IDS.get(ipa)};
+		
+		short[] ids = new short[ipa.length()];
+		int count = 0;
+		for (int i = 0; i < ipa.length(); i++)
+		{
+			//A tie bar only ever joins the two letters of an affricate
+			if (i + 2 < ipa.length() && ipa.charAt(i + 1) == '͡')
+			{
+				ids[count++] = getId(ipa.substring(i, i + 3));
+				i += 2;
+			}
+			else
+				ids[count++] = getId(String.valueOf(ipa.charAt(i)));
+		}
+		return Arrays.copyOf(ids, count);
+	}
+	
+	//Writes the inventory as tab-separated lines: id, symbol, kind, description
+	static void write(Writer output) throws IOException
+	{
+		output.write("id\tsymbol\tkind\tdescription\n");
+		for (int id = 0; id < PHONEMES.length; id++)
+			output.write(id + "\t" + PHONEMES[id][0] + "\t" + PHONEMES[id][1] + "\t" + PHONEMES[id][2] + "\n");
+	}
+	
+	//Writes phonemes.tsv into a directory (by default src/main/resources/<this package>)
+	public static void main(String[] args) throws IOException
+	{
+		Path directory = Paths.get((args.length > 0)? args[0] :
+			"src/main/resources/" + PhonemeInventory.class.getPackageName().replace('.', '/'));
+		Files.createDirectories(directory);
+		
+		Path file = directory.resolve("phonemes.tsv");
+		try (Writer output = Files.newBufferedWriter(file, StandardCharsets.UTF_8))
+		{
+			write(output);
+		}
+		System.out.println("Wrote " + file + " (" + PHONEMES.length + " phonemes)");
+	}
+
+}
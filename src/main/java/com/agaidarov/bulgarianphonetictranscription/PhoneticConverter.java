@@ -15,39 +15,75 @@
 package com.agaidarov.bulgarianphonetictranscription;
 
 import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-import org.jsoup.Jsoup;
-import org.jsoup.select.Elements;
-
+/*
+ * A PhoneticConverter never changes while transcribing: everything that depends on the call being made
+ * (sandhi, devoicing, dashes) travels in a TranscriptionContext. A single instance can therefore be shared
+ * by any number of threads, as long as the deprecated setters aren't used.
+ */
 public class PhoneticConverter {
 
-	private boolean links;
-	private boolean searchWebsite;
+	private final boolean links;
+	private final IpaTable ipa;		//what every letter is transcribed to (depends on links)
 	
-	//If true, then multiple words are being transcribed at once and must take into account clitics and sandhi
-	private boolean passage;
+	//Where the stresses of words without stress marks are found (null if they aren't looked up)
+	private final StressProvider stressProvider;
+	private final AsyncStressProvider asyncStresses;		//stressProvider, for toPhoneticAsync
 	
-	private boolean devoice;	//if true, word-final devoicing of obstruents occurs; if false, then sandhi is overriding that
-	private boolean dashed;		//if true, the word being transcribed has a '-' 
+	//Each thread gets its own engine, since the engine reuses its buffers between words
+	private final ThreadLocal<TranscriptionEngine> engine;
+	
+	//Transcriptions of single words that were already made (null if they aren't remembered)
+	private final TranscriptionCache transcriptionCache;
 	
 	//In English loan words that start with an 'у', it is transcribed to 'w'.
 	//If the word has one of these prefixes, replace 'y' with 'w'
-	private String[] loanWords = {"уи", "уеб", "уейлс", "уест", "уо"};
+	static final String[] DEFAULT_LOAN_WORDS = {"уи", "уеб", "уейлс", "уест", "уо"};
+	private volatile String[] loanWords;
 	
 	//Obstruents form 8 minimal pairs, dividing them into voiced and voiceless consonants
-	private String[] voiced = {"д", "з", "б", "г", "в", "ж", "дж", "дз"};
-	private String[] voiceless = {"т", "с", "п", "к", "ф", "ш", "ч", "ц", "х"};		//'x' doesn't have a counterpart
+	private static final String[] voiced = {"д", "з", "б", "г", "в", "ж", "дж", "дз"};
+	private static final String[] voiceless = {"т", "с", "п", "к", "ф", "ш", "ч", "ц", "х"};		//'x' doesn't have a counterpart
+	
+	static final char STRESS_MARK = "а̀".charAt(1);		//the mark used by the website
+	
 	
 	//Clictics are short words that don't have a stress when pronounced together with other, 
 	//longer words (e.g. "спи' му се"). There can be multiple clictics next to each other
-	private String[] clitics = {"му", "те", "ти", "ги", "им", "си", "се", "го", "я", "и", 
+	static final String[] DEFAULT_CLITICS = {"му", "те", "ти", "ги", "им", "си", "се", "го", "я", "и", 
 			"съм", "е", "сме", "сте", "са", "бях", "бе", "ме", "ми", "й", "ни", "ви", "хем",
 			"без", "в", "вдън", "во", "връз", "всред", "във", "въз", "не", "я", "че", "ту",
 			"до", "за", "зад", "из", "край", "към", "на", "над", "низ", "о", "от", "под", "пред",
 			"през", "при", "с", "след", "сред", "със", "у", "чрез", "а", "ако", "ала", "ама", 
 			"ами", "да", "дето", "и", "или", "като", "ни", "нито", "но", "па", "пък", "та", "то", "ща"};
+	private volatile String[] clitics;		//sorted, so that Arrays.binarySearch can be used later
+	
+	//When text is streamed, stresses are looked up for this many words at a time
+	static final int STREAM_BATCH = 512;
 
 	
 	/*
@@ -59,14 +95,37 @@ public class PhoneticConverter {
 	 */
 	public PhoneticConverter(boolean links, boolean searchWebsite) 
 	{
-		this.links = links;
-		this.searchWebsite = searchWebsite;
+		this(new Builder().links(links).searchWebsite(searchWebsite));
+	}
+	
+	private PhoneticConverter(Builder builder)
+	{
+		links = builder.links;
+		ipa = IpaTable.of(links);
+		stressProvider = builder.getStressProvider();
+		if (stressProvider instanceof AsyncStressProvider)
+			asyncStresses = (AsyncStressProvider) stressProvider;
+		else
+			asyncStresses = (stressProvider != null)? new AsyncStressProvider(stressProvider) : null;
 		
-		Arrays.parallelSort(clitics);	//sorts clitics, so that Arrays.binarySearch can be used later
+		clitics = builder.clitics.clone();
+		Arrays.sort(clitics);
+		loanWords = builder.loanWords.clone();
 		
-		passage = false;
-		devoice = true;
-		dashed = false;
+		engine = ThreadLocal.withInitial(() -> new TranscriptionEngine(links));
+		transcriptionCache = builder.transcriptionCache;
+	}
+	
+	//Returns a Builder for a converter with the default clitics and loan words, without links and without searching websites
+	public static Builder builder()
+	{
+		return new Builder();
+	}
+	
+	//Every public call starts with a fresh context
+	private TranscriptionContext newContext()
+	{
+		return new TranscriptionContext(clitics, loanWords);
 	}
 	
 	/* 
@@ -76,11 +135,108 @@ public class PhoneticConverter {
 	 * Returns the phonetic transcription of the word written in the International Phonetic Alphabet (IPA)
 	 */
 	public String toPhonetic(String cyrillic, int stressedIndex)
+	{
+		return toPhonetic(cyrillic, stressedIndex, newContext());
+	}
+	
+	/*
+	 * Same as toPhonetic(cyrillic, stressedIndex) for the word text[offset..offset + length), e.g. a token in a CharBuffer
+	 * over a memory-mapped file. stressedIndex is counted from offset. The word is lowercased as it is read, so it isn't
+	 * copied into a String (except for the key of the transcription cache, if there is one). Words with a space or a '-'
+	 * and stresses that aren't vowels take the String way.
+	 */
+	public String toPhonetic(CharSequence text, int offset, int length, int stressedIndex)
+	{
+		Objects.checkFromIndexSize(offset, length, text.length());
+		TranscriptionContext context = newContext();
+		if (!isPlainWord(text, offset, length, stressedIndex))
+			return toPhonetic(text.subSequence(offset, offset + length).toString(), stressedIndex, context);
+		
+		TranscriptionCache.Key key = getKey(text, offset, length, stressedIndex, context);
+		String transcribed = (key == null)? null : transcriptionCache.get(key);
+		if (transcribed == null)
+		{
+			transcribed = engine.get().transcribe(text, offset, length, stressedIndex, context.loanWords, context.devoice, context.dashed);
+			if (key != null)
+				transcriptionCache.put(key, transcribed);
+		}
+		
+		return transcribed;
+	}
+	
+	/*
+	 * Appends the transcription toPhonetic(text, offset, length, stressedIndex) returns to output, and returns its length
+	 * (the number of chars appended). Without a transcription cache, a word that takes no String way isn't copied into
+	 * a String on the way in or out, so a caller that reuses one output per thread makes no garbage per word.
+	 */
+	public int toPhonetic(CharSequence text, int offset, int length, int stressedIndex, Appendable output) throws IOException
+	{
+		Objects.checkFromIndexSize(offset, length, text.length());
+		TranscriptionContext context = newContext();
+		
+		String transcribed = null;
+		if (!isPlainWord(text, offset, length, stressedIndex))
+			transcribed = toPhonetic(text.subSequence(offset, offset + length).toString(), stressedIndex, context);
+		else
+		{
+			TranscriptionCache.Key key = getKey(text, offset, length, stressedIndex, context);
+			if (key == null)
+				return engine.get().transcribe(text, offset, length, stressedIndex, context.loanWords, context.devoice, context.dashed,
+						output);
+			
+			transcribed = transcriptionCache.get(key);
+			if (transcribed == null)
+			{
+				transcribed = engine.get().transcribe(text, offset, length, stressedIndex, context.loanWords, context.devoice,
+						context.dashed);
+				transcriptionCache.put(key, transcribed);
+			}
+		}
+		
+		output.append(transcribed);
+		return transcribed.length();
+	}
+	
+	public int toPhonetic(CharSequence text, int offset, int length, int stressedIndex, StringBuilder output)
+	{
+		try {
+			return toPhonetic(text, offset, length, stressedIndex, (Appendable) output);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);		//doesn't happen with a StringBuilder
+		}
+	}
+	
+	//If false, the word text[offset..offset + length) has a space or a '-', or a stress that isn't a vowel, and takes the String way
+	private static boolean isPlainWord(CharSequence text, int offset, int length, int stressedIndex)
+	{
+		if (stressedIndex != -1 && (stressedIndex < 0 || stressedIndex >= length
+				|| !CharClasses.isVowel(text.charAt(offset + stressedIndex))))
+			return false;
+		
+		for (int i = offset; i < offset + length; i++)
+		{
+			if (text.charAt(i) == ' ' || text.charAt(i) == '-')
+				return false;
+		}
+		return true;
+	}
+	
+	//The key of a plain word in the transcription cache, or null if there is no cache (or nothing to transcribe)
+	private TranscriptionCache.Key getKey(CharSequence text, int offset, int length, int stressedIndex, TranscriptionContext context)
+	{
+		if (transcriptionCache == null || length == 0)
+			return null;
+		
+		return new TranscriptionCache.Key(toLowerCase(text, offset, length), stressedIndex, -1, false, links, context.devoice,
+				context.dashed, context.loanWords);
+	}
+	
+	private String toPhonetic(String cyrillic, int stressedIndex, TranscriptionContext context)
 	{
 		if (cyrillic.contains(" "))
 		{
 			System.out.println("WARNING: the argument \"cyrillic\" takes a SINGLE word");
-			return toPhonetic(cyrillic)[0];
+			return toPhonetic(cyrillic, context)[0];
 		}		
 		
 		if (stressedIndex != -1)	//allows exceptions for short words without a stress (e.g. "в", "с")
@@ -89,143 +245,64 @@ public class PhoneticConverter {
 			//If not, print warning and run the other toPhonetic method and return the first variant
 			try {
 				char vowel = cyrillic.charAt(stressedIndex);
-				boolean check = isVowel(vowel);
+				boolean check = CharClasses.isVowel(vowel);
 				
 				if (!check)
 				{
-					if (!passage)		//Happens every once in a while with stresses gotten from website
+					if (!context.passage)		//Happens every once in a while with stresses gotten from website
 						System.out.println("WARNING: " + stressedIndex + " is not an index of a vowel in word " + cyrillic);
-					return toPhonetic(cyrillic)[0];
+					return toPhonetic(cyrillic, context)[0];
 				}
 			} catch (IndexOutOfBoundsException e) {
 				System.out.println("WARNING: index " + stressedIndex + " is out of bounds for word " + cyrillic);
-				return toPhonetic(cyrillic)[0];
+				return toPhonetic(cyrillic, context)[0];
 			}
 		}
 		
 		//Shouldn't really happen in this method (okay in the toPhonetic with 4 arguments)
-		if (cyrillic.contains("-"))		//e.g. "по-добре"
+		if (cyrillic.contains("-"))		//e.g. "по-добре", but also a dash between words ("думи - думи") or "по-"
 		{
-			String[] parts = cyrillic.split("-");
+			String[] parts = cyrillic.split("-", -1);
 			
 			//Either part before or after '-' has a stress, so assuming the other isn't stressed
 			if (stressedIndex < parts[0].length())		//part before '-' is stressed
-				return toPhonetic(parts[0], stressedIndex) + "-" + toPhonetic(parts[1], -1);
+				return toPhoneticPart(parts[0], stressedIndex, context) + "-" + toPhoneticPart(parts[1], -1, context);
 			
 			//Part after '-' is stressed
 			stressedIndex -= parts[0].length() + 1;
-			return toPhonetic(parts[0], -1) + "-" + toPhonetic(parts[1], stressedIndex);
-		}
-		
-		cyrillic = cyrillic.toLowerCase();
-		cyrillic = phonotation(cyrillic);		//rewrites the word the way it is pronounced
-		
-		//For English loan words, replace 'y' with 'w' here
-		if (cyrillic.charAt(0) == 'у')
-		{
-			for (int i = 0; i < loanWords.length; i++)
-			{
-				if (cyrillic.startsWith(loanWords[i]))		//if they have the same root/prefix
-				{
-					cyrillic = "w" + cyrillic.substring(1);
-					i = loanWords.length;
-				}
-			}
-		}
-				
-		//Temporarily transcribe "дж" as 'j' (so that the two letters can't be split into separate syllables)
-		while (cyrillic.contains("дж"))
-		{
-			int rareIndex = cyrillic.indexOf("дж");
-			cyrillic = cyrillic.substring(0, rareIndex) + "j" + cyrillic.substring(rareIndex + 2);
-			
-			//Changing length of cyrillic, so need to update stressedIndex
-			if (stressedIndex > rareIndex)		//if "дж" was before stressed vowel
-				stressedIndex--;
-		}
-			
-		//The "d͡z" sound occurs only at the start of borrowed words. 
-		//Otherwise, it is usually the 'д' and 'з' sounds separately, as in "подземен"
-		if (cyrillic.startsWith("дз") && links)
-		{
-			cyrillic = "d͡z" + cyrillic.substring(2);
-			stressedIndex++;
+			return toPhoneticPart(parts[0], -1, context) + "-" + toPhoneticPart(parts[1], stressedIndex, context);
 		}
 		
-		int length = 0, insertionIndex = -1;		//used to determine where to put stress mark
-		if (stressedIndex != -1)	//if cyrillic has a stress
+		//Lowercasing, phonotation, "дж"/"дз" folding, stress mark insertion and IPA emission all happen in the engine
+		TranscriptionCache.Key key = null;
+		String transcribed = null;
+		if (transcriptionCache != null && !cyrillic.isEmpty())
 		{
-			//Stress mark (ˈ) is inserted before the syllable that contains the stressed vowel
-			//However, no stress mark is needed if cyrillic has only 1 vowel, unless it is dashed ("по", "най")
-			
-			int vowelCount = 0;
-			for (int i = 0; i < cyrillic.length(); i++)
-			{
-				if (isVowel(cyrillic.charAt(i)))
-					vowelCount++;
-			}
-			
-			if (vowelCount > 1 || dashed)
-			{
-				String[] syllables = getSyllables(cyrillic);
-				
-				for (String syllable : syllables)
-				{
-					if (length + syllable.length() >= stressedIndex)
-					{
-						insertionIndex = length;
-						break;
-					}
-					else
-						length += syllable.length();
-				}
-			}
+			key = new TranscriptionCache.Key(cyrillic.toLowerCase(), stressedIndex, -1, false, links, context.devoice, context.dashed,
+					context.loanWords);
+			transcribed = transcriptionCache.get(key);
 		}
 		
-		//Keep track of letter after current letter, because it affects how 'л' and 'н' are transcribed
-		char nextLetter, letter;
-		boolean nonvelarized;	//'л' --> 'l' before vowels 'и' or 'е', 'ɫ' everywhere else
-		boolean curved;		//'н' --> 'ŋ' if preceding 'к' or 'г', 'n' everywhere else
-		boolean stressed;	//catch-all for nonvelarized, curved, and stressedIndex == i
-		
-		//Transcribe cyrillic into IPA
-		String transcribed = "";
-		for (int i = 0; i < cyrillic.length(); i++)
+		if (transcribed == null)
 		{
-			if (i == insertionIndex)
-				transcribed += "ˈ";		//inserts the stress mark
-			
-			letter = cyrillic.charAt(i);
-			stressed = (i == stressedIndex);
-			
-			if (letter == 'л' || letter == 'н')
-			{
-				//Get next letter
-				if (i < cyrillic.length() - 1)	//if not last letter
-					nextLetter = cyrillic.charAt(i + 1);
-				else
-					nextLetter = 0;
-				
-				//Determine how 'л'/'н' is transcribed
-				nonvelarized = false;
-				curved = false;			
-				
-				if ((letter == 'л' && nextLetter == 'и') || (letter == 'л' && nextLetter == 'е'))
-					nonvelarized = true;
-				if ((letter == 'н' && nextLetter == 'к') || (letter == 'н' && nextLetter == 'г'))
-					curved = true;
-				
-				stressed = (nonvelarized || curved);
-			}
-			
-			transcribed += convertLetter(letter, stressed);		//transcribe letter
+			transcribed = engine.get().transcribe(cyrillic, stressedIndex, context.loanWords, context.devoice, context.dashed);
+			if (key != null)
+				transcriptionCache.put(key, transcribed);
 		}
 		
-		dashed = false;
+		context.dashed = false;
 		
 		return transcribed;
 	}
 	
+	//A part of a word with '-' (empty on either side of a lone dash), which the engine can't be given if it's empty
+	private String toPhoneticPart(String part, int stressedIndex, TranscriptionContext context)
+	{
+		if (part.isEmpty())
+			return "";
+		return toPhonetic(part, stressedIndex, context);
+	}
+	
 	/*
 	 * This is a copy of toPhonetic with 2 extra arguments describing the second stress in a Bulgarian word
 	 * Use this method for words with 2 stresses (e.g. "прабаба", "по-добре", "светлосин")
@@ -234,11 +311,16 @@ public class PhoneticConverter {
 	 * primary: true if the second stress is primary (transcribed as 'ˈ'); false if it's secondary ('ˌ')
 	 */
 	public String toPhonetic(String cyrillic, int stressedIndex, int secondStress, boolean primary)
+	{
+		return toPhonetic(cyrillic, stressedIndex, secondStress, primary, newContext());
+	}
+	
+	private String toPhonetic(String cyrillic, int stressedIndex, int secondStress, boolean primary, TranscriptionContext context)
 	{
 		if (cyrillic.contains(" "))
 		{
 			System.out.println("WARNING: the argument \"cyrillic\" takes a SINGLE word");
-			return toPhonetic(cyrillic)[0];
+			return toPhonetic(cyrillic, context)[0];
 		}
 		
 		//Check if both stress indexes are pointing to vowels
@@ -246,24 +328,24 @@ public class PhoneticConverter {
 		try {
 			vowel1 = cyrillic.charAt(stressedIndex);
 			vowel2 = cyrillic.charAt(secondStress);		//second vowel 
-			boolean check1 = isVowel(vowel1), check2 = isVowel(vowel2);
+			boolean check1 = CharClasses.isVowel(vowel1), check2 = CharClasses.isVowel(vowel2);
 			
 			if (!check1 || !check2)		//if one or both indexes aren't pointing to a vowel
 			{
 				int badIndex = check1? secondStress : stressedIndex;
 				System.out.println("WARNING: " + badIndex + " is not an index of a vowel in word " + cyrillic);
-				return toPhonetic(cyrillic)[0];
+				return toPhonetic(cyrillic, context)[0];
 			}
 		} catch (IndexOutOfBoundsException e) {
 			
 			int badIndex = (vowel1 == 0)? stressedIndex : secondStress;
 			System.out.println("WARNING: index " + badIndex + " is out of bounds for word " + cyrillic);
-			return toPhonetic(cyrillic)[0];
+			return toPhonetic(cyrillic, context)[0];
 		}
 		
 		if (cyrillic.contains("-"))		//e.g. "по-добре"
 		{
-			dashed = true;
+			context.dashed = true;
 			
 			//Find which index is larger and which is smaller
 			int larger = secondStress, smaller = stressedIndex;
@@ -274,162 +356,345 @@ public class PhoneticConverter {
 				smaller = secondStress;
 			}
 			
-			String[] parts = cyrillic.split("-");
+			String[] parts = cyrillic.split("-", -1);
 			
 			//See in which parts of cyrillic the stresses lie and call toPhonetic again accordingly
 			if (smaller < parts[0].length() && larger > parts[0].length())	//both parts of the word are stressed
-				return toPhonetic(parts[0], smaller) + "-" + toPhonetic(parts[1], larger - parts[0].length() - 1);
+				return toPhonetic(parts[0], smaller, context) + "-" + toPhonetic(parts[1], larger - parts[0].length() - 1, context);
 			else if (smaller < parts[0].length())		//if both stresses fall before '-'
-				return toPhonetic(parts[1], stressedIndex, secondStress, primary) + "-" + toPhonetic(parts[0], -1);
+				return toPhonetic(parts[1], stressedIndex, secondStress, primary, context) + "-" + toPhoneticPart(parts[0], -1, context);
 			else		//if both stresses fall after '-'
 			{
 				stressedIndex -= parts[0].length() + 1;
 				secondStress -= parts[0].length() + 1;
-				return toPhonetic(parts[0], -1) + "-" + toPhonetic(parts[1], stressedIndex, secondStress, primary);
+				return toPhoneticPart(parts[0], -1, context) + "-" + toPhonetic(parts[1], stressedIndex, secondStress, primary, context);
 			}
 		}
 		
-		cyrillic = cyrillic.toLowerCase();
-		cyrillic = phonotation(cyrillic);
+		TranscriptionCache.Key key = null;
+		if (transcriptionCache != null)
+		{
+			key = new TranscriptionCache.Key(cyrillic.toLowerCase(), stressedIndex, secondStress, primary, links, context.devoice, false,
+					context.loanWords);
+			String transcribed = transcriptionCache.get(key);
+			if (transcribed != null)
+				return transcribed;
+		}
+		
+		//Lowercasing, phonotation, folding, both stress marks and IPA emission happen in the engine, as for one stress
+		String transcribed = engine.get().transcribe(cyrillic, stressedIndex, secondStress, primary, context.loanWords, context.devoice);
+		if (key != null)
+			transcriptionCache.put(key, transcribed);
+		return transcribed;
+	}
+	
+	
+	/*If the user doesn't specify where the stress is, there may be several possible
+	  phonetic transcriptions, as most vowels are transcribed differently depending on whether
+	  or not they are stressed.
+	 
+	  This method will first check if the argument cyrillic already contains stress marks.
+	  If it doesn't, it will try to search the website "https://slovored.com/accent", which gives 
+	  the stresses of words. In both cases, the output array will have length 1 (since the stresses will be known).
+	  Otherwise, the output array will have length equal to the number of syllables of the word.
+	  
+	  cyrillic: Bulgarian word(s) written in the Cyrillic alphabet (can be a longer String 
+	  containing many words separated by spaces)
+	 */
+	public String[] toPhonetic(String cyrillic)
+	{
+		return toPhonetic(cyrillic, newContext());
+	}
+	
+	/*
+	 * Transcribes cyrillic (a word or a passage) the same way as toPhonetic(cyrillic), with the first transcription of a word
+	 * whose stress isn't known, and keeps which part of the transcription belongs to which token of cyrillic,
+	 * which vowels each token was stressed on, and where those stresses came from (see TranscriptionResult).
+	 */
+	public TranscriptionResult toPhoneticResult(String cyrillic)
+	{
+		TranscriptionContext context = newContext();
+		context.sources = new HashMap<>();
 		
-		if (cyrillic.charAt(0) == 'у')
+		//Tokens are split at every space, like cyrillic.split(" ") (which leaves out empty tokens at the end)
+		int[] textBounds = new int[16];
+		int count = 0, start = 0;
+		for (int i = 0; i <= cyrillic.length(); i++)
 		{
-			for (int i = 0; i < loanWords.length; i++)
+			if (i == cyrillic.length() || cyrillic.charAt(i) == ' ')
 			{
-				if (cyrillic.startsWith(loanWords[i]))
-				{
-					cyrillic = "w" + cyrillic.substring(1);
-					i = loanWords.length;
-				}
+				if (2 * count == textBounds.length)
+					textBounds = Arrays.copyOf(textBounds, 2 * textBounds.length);
+				textBounds[2 * count] = start;
+				textBounds[2 * count + 1] = i;
+				count++;
+				start = i + 1;
 			}
 		}
-				
-		while (cyrillic.contains("дж"))
+		boolean passage = (count > 1);
+		while (passage && count > 0 && textBounds[2 * count - 2] == textBounds[2 * count - 1])
+			count--;
+		
+		String[] words = new String[count];
+		for (int i = 0; i < count; i++)
+			words[i] = cyrillic.substring(textBounds[2 * i], textBounds[2 * i + 1]).toLowerCase();
+		
+		int[] ipaBounds = new int[2 * count];
+		int[][] stresses = new int[count][];
+		StressSource[] sources = new StressSource[count];
+		StringBuilder transcribed = new StringBuilder(2 * cyrillic.length());
+		
+		if (!passage)
 		{
-			int rareIndex = cyrillic.indexOf("дж");
-			cyrillic = cyrillic.substring(0, rareIndex) + "j" + cyrillic.substring(rareIndex + 2);
-			
-			//Changing length of cyrillic, so need to update indexes of stressed vowels
-			if (stressedIndex > rareIndex)
-				stressedIndex--;
-			if (secondStress > rareIndex)
-				secondStress--;
+			transcribed.append(variants(words[0], context).next());
+			ipaBounds[1] = transcribed.length();
+			stresses[0] = context.stresses;
+			sources[0] = context.source;
+			return new TranscriptionResult(cyrillic, transcribed.toString(), textBounds, ipaBounds, stresses, sources);
 		}
-			
-		if (cyrillic.startsWith("дз") && links)
+		
+		//The same as the passage in toPhonetic(cyrillic, context), keeping where every word ends up
+		context.passage = true;
+		StressSource[] looked = new StressSource[count];		//sources of the stress marks added to words here
+		if (stressProvider != null && context.lookUp && cyrillic.indexOf(STRESS_MARK) < 0)
 		{
-			cyrillic = "d͡z" + cyrillic.substring(2);
-			stressedIndex++;
-			secondStress++;
+			String[] stressed = stressWords(words, stressProvider.getStresses(getCores(words), context.sources));
+			for (int i = 0; i < count; i++)
+			{
+				if (stressed[i] != words[i])
+					looked[i] = context.sources.get(getCore(words[i]));
+			}
+			words = stressed;
 		}
 		
-		//Stress mark ('ˈ'/'ˌ') is inserted before the syllable that contains the stressed vowel
-		int length = 0, insertionIndex1 = -1, insertionIndex2 = -1;		//used to determine where to put stress marks
-		String[] syllables = getSyllables(cyrillic);
-		
-		for (String syllable : syllables)
+		String word;
+		for (int i = 0; i < count; i++)
 		{
-			length += syllable.length();
-
-			if (insertionIndex1 == -1 && length > stressedIndex)
-				insertionIndex1 = length - syllable.length();
-			else if (insertionIndex2 == -1 && length > secondStress)
-				insertionIndex2 = length - syllable.length();
+			word = sandhi(words[i], (i < count - 1)? words[i + 1] : "", context);
+			context.source = StressSource.NONE;
+			context.stresses = new int[0];
+			
+			ipaBounds[2 * i] = transcribed.length();
+			transcribed.append(toPhonetic(word, context)[0]);
+			ipaBounds[2 * i + 1] = transcribed.length();
+			transcribed.append(' ');
+			context.devoice = true;
+			
+			stresses[i] = context.stresses;
+			sources[i] = (context.source == StressSource.MARK && looked[i] != null)? looked[i] : context.source;
 		}
 		
-		char nextLetter, letter;
-		boolean nonvelarized;
-		boolean curved;
-		boolean stressed;
+		//toPhonetic trims the passage, which may also take something off the first or the last transcription
+		String transcription = transcribed.toString().trim();
+		int trimmed = 0;
+		while (trimmed < transcribed.length() && transcribed.charAt(trimmed) <= ' ')
+			trimmed++;
+		for (int i = 0; i < ipaBounds.length; i++)
+			ipaBounds[i] = Math.max(0, Math.min(transcription.length(), ipaBounds[i] - trimmed));
 		
-		String transcribed = "";
-		for (int i = 0; i < cyrillic.length(); i++)
+		return new TranscriptionResult(cyrillic, transcription, textBounds, ipaBounds, stresses, sources);
+	}
+	
+	/*
+	 * Same as toPhonetic(cyrillic) for text[offset..offset + length). The text is lowercased as it is copied out
+	 * of text, so it is copied only once.
+	 */
+	public String[] toPhonetic(CharSequence text, int offset, int length)
+	{
+		Objects.checkFromIndexSize(offset, length, text.length());
+		return toPhonetic(toLowerCase(text, offset, length), newContext());		//toLowerCase of a lowercase String doesn't copy it
+	}
+	
+	/*
+	 * Appends the first of the transcriptions toPhonetic(text, offset, length) returns to output (the only one for a passage
+	 * or a word whose stress is known), and returns its length. The other variants of a word aren't made at all.
+	 */
+	public int toPhonetic(CharSequence text, int offset, int length, Appendable output) throws IOException
+	{
+		Objects.checkFromIndexSize(offset, length, text.length());
+		TranscriptionContext context = newContext();
+		String lowercase = toLowerCase(text, offset, length);
+		
+		String transcribed = lowercase.contains(" ")? toPhonetic(lowercase, context)[0] : variants(lowercase, context).next();
+		output.append(transcribed);
+		return transcribed.length();
+	}
+	
+	public int toPhonetic(CharSequence text, int offset, int length, StringBuilder output)
+	{
+		try {
+			return toPhonetic(text, offset, length, (Appendable) output);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);		//doesn't happen with a StringBuilder
+		}
+	}
+	
+	/*
+	  Returns the same transcriptions as toPhonetic(cyrillic), in the same order, but each one is only made when
+	  the stream gets to it. When the stress of a word isn't known, the parts of its transcription that don't depend
+	  on the stress (phonotation, syllables, consonants) are worked out once, and every variant only re-renders
+	  the stressed vowel and the stress mark. So toPhoneticVariants(word).findFirst() costs about one transcription.
+	  
+	  Stresses are still looked up (e.g. on the website) when this method is called, not when the stream is used.
+	 */
+	public Stream<String> toPhoneticVariants(String cyrillic)
+	{
+		TranscriptionContext context = newContext();
+		String lowercase = cyrillic.toLowerCase();
+		if (lowercase.contains(" "))
+			return Stream.of(toPhonetic(lowercase, context));
+		
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(variants(lowercase, context),
+				Spliterator.ORDERED | Spliterator.NONNULL), false);
+	}
+	
+	/*
+	  Same as toPhonetic(cyrillic), but the stresses are looked up in the background, so the calling thread
+	  isn't blocked while e.g. the website is loading. Threads looking up the same word at the same time share one lookup.
+	  
+	  If the stresses aren't found within timeout (or the lookup fails), the words are transcribed as if no stresses
+	  could be found, so a single word gives all its possible transcriptions. The lookup still finishes in the background,
+	  and the stresses are remembered for next time.
+	 */
+	public CompletableFuture<String[]> toPhoneticAsync(String cyrillic, long timeout, TimeUnit unit)
+	{
+		if (asyncStresses == null)
+			return CompletableFuture.completedFuture(toPhonetic(cyrillic));
+		
+		String[] words = cyrillic.toLowerCase().split(" ");
+		return asyncStresses.getStressesAsync(getCores(words))
+				.exceptionally(e -> Collections.emptyMap())
+				.completeOnTimeout(Collections.emptyMap(), timeout, unit)
+				.thenApplyAsync(found -> {
+					TranscriptionContext context = newContext();
+					context.lookUp = false;		//everything that could be found was
+					return toPhonetic(String.join(" ", stressWords(words, found)), context);
+				}, asyncStresses.getExecutor());
+	}
+	
+	/*
+	  Transcribes text of any length (e.g. a whole book) from input to output as it is read, keeping only
+	  a few hundred words in memory.
+	  
+	  Every line is transcribed like a passage given to toPhonetic(cyrillic): clitics and sandhi between each word
+	  and the next one, and stresses looked up for words without stress marks. A line of a single word is transcribed
+	  like that word on its own (the first of its transcriptions), so it isn't taken for a clitic. The stresses are looked up STREAM_BATCH
+	  words at a time, and a batch that already has stress marks is left as it is. In output, the words of a line are
+	  separated by single spaces and lines by '\n'. Neither input nor output is closed.
+	 */
+	public void toPhonetic(Reader input, Writer output) throws IOException
+	{
+		toPhonetic(input, output, false);
+	}
+	
+	/*
+	  Same as toPhonetic(Reader, Writer), but if continued is true, input is the rest of a line whose start was
+	  transcribed by an earlier call (see CorpusTranscriber): its first line is a passage even if it has one word,
+	  and it is written after a space.
+	 */
+	void toPhonetic(Reader input, Writer output, boolean continued) throws IOException
+	{
+		WordReader words = new WordReader(input);
+		TranscriptionContext context = newContext();
+		
+		List<String> line = new ArrayList<>();		//words of the current line that haven't been transcribed
+		int stressed = 0;		//the words in line before this index have had their stresses looked up
+		boolean started = continued;		//if true, part of the current line has already been written
+		String word;
+		while ((word = words.next()) != null)
 		{
-			//Insert stress mark if at insertion index
-			if (i == insertionIndex1)
-				transcribed += "ˈ";
-			else if (i == insertionIndex2)
+			if (words.lineBreaks() > 0)		//the current line is over
 			{
-				if (primary)
-					transcribed += "ˈ";
-				else
-					transcribed += "ˌ";		//secondary stress
+				stressBatch(line, stressed, context);
+				writeWords(line, line.size(), started, output, context);
+				for (int i = 0; i < words.lineBreaks(); i++)
+					output.write('\n');
+				
+				line.clear();
+				stressed = 0;
+				started = false;
 			}
 			
-			letter = cyrillic.charAt(i);
-			stressed = (i == stressedIndex) || (i == secondStress);
-			
-			if (letter == 'л' || letter == 'н')
+			line.add(word.toLowerCase());
+			if (line.size() > STREAM_BATCH)
 			{
-				if (i < cyrillic.length() - 1)
-					nextLetter = cyrillic.charAt(i + 1);
-				else
-					nextLetter = 0;
-				
-				nonvelarized = false;
-				curved = false;			
-				
-				if ((letter == 'л' && nextLetter == 'и') || (letter == 'л' && nextLetter == 'е'))
-					nonvelarized = true;
-				if ((letter == 'н' && nextLetter == 'к') || (letter == 'н' && nextLetter == 'г'))
-					curved = true;
+				//The last word waits for the word after it (sandhi)
+				stressBatch(line, stressed, context);
+				writeWords(line, line.size() - 1, started, output, context);
 				
-				stressed = (nonvelarized || curved);
+				line.subList(0, line.size() - 1).clear();
+				stressed = 1;
+				started = true;
 			}
-			
-			transcribed += convertLetter(letter, stressed);
 		}
 		
-		return transcribed;
+		stressBatch(line, stressed, context);
+		writeWords(line, line.size(), started, output, context);
+		for (int i = 0; i < words.lineBreaks(); i++)
+			output.write('\n');
+		output.flush();
 	}
 	
+	//Same as toPhonetic(Reader, Writer), for text read from a channel (e.g. a FileChannel) in charset
+	public void toPhonetic(ReadableByteChannel input, Charset charset, Writer output) throws IOException
+	{
+		toPhonetic(Channels.newReader(input, charset), output);
+	}
 	
-	/*If the user doesn't specify where the stress is, there may be several possible
-	  phonetic transcriptions, as most vowels are transcribed differently depending on whether
-	  or not they are stressed.
-	 
-	  This method will first check if the argument cyrillic already contains stress marks.
-	  If it doesn't, it will try to search the website "https://slovored.com/accent", which gives 
-	  the stresses of words. In both cases, the output array will have length 1 (since the stresses will be known).
-	  Otherwise, the output array will have length equal to the number of syllables of the word.
-	  
-	  cyrillic: Bulgarian word(s) written in the Cyrillic alphabet (can be a longer String 
-	  containing many words separated by spaces)
-	 */
-	public String[] toPhonetic(String cyrillic)
+	//Adds stress marks to line[from..], as toPhonetic(cyrillic) does for a passage, unless they already have some
+	private void stressBatch(List<String> line, int from, TranscriptionContext context)
 	{
-		cyrillic = cyrillic.toLowerCase();
+		if (stressProvider == null || !context.lookUp || from >= line.size())
+			return;
 		
-		String transcription;
+		List<String> batch = line.subList(from, line.size());
+		for (String word : batch)
+		{
+			if (word.indexOf(STRESS_MARK) >= 0)
+				return;
+		}
+		
+		String[] stressed = stressWords(batch.toArray(new String[0]));
+		for (int i = 0; i < stressed.length; i++)
+			batch.set(i, stressed[i]);
+	}
+	
+	//Writes the transcriptions of the first count words in line, each after sandhi with the word after it
+	private void writeWords(List<String> line, int count, boolean started, Writer output, TranscriptionContext context) throws IOException
+	{
+		context.passage = started || line.size() > 1;		//as in toPhonetic(cyrillic), which only has a passage with a space
+		
+		String nextWord;
+		for (int i = 0; i < count; i++)
+		{
+			nextWord = (i < line.size() - 1)? line.get(i + 1) : "";
+			if (started || i > 0)
+				output.write(' ');
+			
+			output.write(toPhonetic(sandhi(line.get(i), nextWord, context), context)[0]);
+			context.devoice = true;
+		}
+	}
+	
+	private String[] toPhonetic(String cyrillic, TranscriptionContext context)
+	{
+		cyrillic = cyrillic.toLowerCase();
 		
 		if (cyrillic.contains(" "))		//if input is more than one word
 		{			
-			passage = true;
+			context.passage = true;
 			
-			//Get the stress of every word all at once by putting the whole string into readWebsite
+			//Get the stress of every word all at once
 			char mark = "а̀".charAt(1);
-			if (searchWebsite && !cyrillic.contains("" + mark))		//makes sure cyrillic doesn't have stresses already
-			{
-				//The website cannot handle these symbols
-				cyrillic = cyrillic.replace('—', '+');
-				cyrillic = cyrillic.replace('„', '+');
-				cyrillic = cyrillic.replace('“', '+');
-				
-				cyrillic = readWebsite(cyrillic.replace(' ', '+'));		//the URL has '+' instead of ' '
-			}
+			if (stressProvider != null && context.lookUp && !cyrillic.contains("" + mark))		//makes sure cyrillic doesn't have stresses already
+				cyrillic = String.join(" ", stressWords(cyrillic.split(" ")));
 			
 			String[] words = cyrillic.split(" ");
 			
-			char[] sonorants = {'м', 'н', 'л', 'р', 'й', 'ь'};		//used for sandhi
-			Arrays.sort(sonorants);
-			
-			transcription = "";
+			StringBuilder transcribed = new StringBuilder();
 			
 			//Sandhi: the pronunciation of a word might change depending on the following word
-			String word, nextWord, cluster = "", newCluster;
-			int letterIndex;
-			char first, last;
-			boolean v;
+			String word, nextWord;
 			for (int i = 0; i < words.length; i++)
 			{
 				word = words[i];
@@ -438,84 +703,39 @@ public class PhoneticConverter {
 				else
 					nextWord = "";
 				
-				if ((Arrays.binarySearch(clitics, word) >= 0 || Arrays.binarySearch(clitics, nextWord) >= 0) 
-						&& nextWord.length() > 0)
-				{
-					letterIndex = word.length() - 1;
-					last = word.charAt(letterIndex);	//last letter of first word
-					first = nextWord.charAt(0);		//first letter of second word
-					
-					//Prepositions ending in a voiced consonant don't get devoiced if next word starts with a vowel
-					v = (word.equals("в") || word.equals("във"));	//"в" and "във" are exceptions
-					if (getObstruentIndex(voiced, "" + last) >= 0 && isVowel(first) && Arrays.binarySearch(clitics, word) >= 0 && !v)
-						devoice = false;
-					
-					//"във" doesn't get devoiced at the end of the word if the next one starts with 'в'
-					if (word.equals("във") && first == 'в')
-						devoice = false;
-					
-					//Next word cannot start with a vowel, sonorant, or 'в'
-					if (!isVowel(first) && Arrays.binarySearch(sonorants, first) < 0 && first != 'в')
-					{
-						//Perform sandhi here by calling assimilate. The cluster will be the consonants at the
-						//end of one word and those at the start of the next word
-						
-						//Add consonants at the end of word to cluster
-						while (getObstruentIndex(voiceless, "" + last) >= 0 || getObstruentIndex(voiced, "" + last) >= 0)
-						{
-							cluster = last + cluster;
-							
-							letterIndex--;
-							if (letterIndex >= 0)
-								last = word.charAt(letterIndex);
-							else
-								last = 0;
-						}
-						
-						letterIndex = 0;
-						
-						//Add consonants at the start of next word to cluster
-						while (cluster.length() > 0 && (getObstruentIndex(voiceless, "" + first) >= 0 || 
-								getObstruentIndex(voiced, "" + first) >= 0))	
-						{
-							cluster += first;
-							
-							letterIndex++;
-							first = nextWord.charAt(letterIndex);
-							
-							devoice = false;
-						}
-						
-						newCluster = assimilate(cluster);
-						
-						//letterIndex now becomes the index in cluster where the two words are split by a space (assuming cluster doesn't get longer)
-						letterIndex = cluster.length() - letterIndex;
-						
-						//If 'ч' was voiced to "дж" (couldn't find examples of 'ц' --> "дз") and 'ч' was in first word, then index must be increased
-						//to accomodate for extra letter
-						if (newCluster.length() > cluster.length() && cluster.indexOf('ч') <= letterIndex)		
-							letterIndex++;
-						
-						//Replace end of word with beginning of the new cluster
-						if (!devoice)
-							word = word.substring(0, word.length() - letterIndex) + newCluster.substring(0, letterIndex);
-						
-						cluster = "";
-					}
-				}
-
-				transcription += toPhonetic(word)[0] + " ";	//appends the first transcription for each word
-				//System.out.println(transcription);
-				devoice = true;
+				word = sandhi(word, nextWord, context);
+				transcribed.append(toPhonetic(word, context)[0]).append(' ');	//appends the first transcription for each word
+				context.devoice = true;
 			}
 			
-			passage = false;
+			context.passage = false;
 			
 			//Return only 1 transcription "option" (too many possibilities otherwise)
-			String[] output = {transcription.trim()};
+			String[] output = {transcribed.toString().trim()};
 			return output;
 		}
 		
+		Iterator<String> variants = variants(cyrillic, context);
+		List<String> transcriptions = new ArrayList<>();
+		while (variants.hasNext())
+		{
+			transcriptions.add(variants.next());
+			
+			if (context.passage)	//if cyrillic is in a passage, only 1st transcription option is used
+				break;
+		}
+		
+		return transcriptions.toArray(new String[0]);
+	}
+	
+	/*
+	 * Returns the transcriptions of the single word cyrillic (already lowercase) that toPhonetic(cyrillic) returns.
+	 * If the stress isn't known, there is one per vowel, and each is only made when the iterator gets to it.
+	 */
+	private Iterator<String> variants(String cyrillic, TranscriptionContext context)
+	{
+		String transcription;
+		
 		//Search cyrillic for stress mark
 		int[] stresses = getStressIndex(cyrillic);
 		if (stresses.length > 0)
@@ -526,10 +746,16 @@ public class PhoneticConverter {
 				cyrillic = cyrillic.substring(0, stresses[0]) + cyrillic.substring(stresses[0] + 1);
 				int stressedIndex = stresses[0] - 1;
 				
-				if (passage && (Arrays.binarySearch(clitics, cyrillic) >= 0))
-					transcription = toPhonetic(cyrillic, -1);	//if cyrillic is a clitic in a passage, it has no stress
+				if (context.passage && (Arrays.binarySearch(context.clitics, cyrillic) >= 0))
+				{
+					context.record(StressSource.NONE, -1, -1);
+					transcription = toPhonetic(cyrillic, -1, context);	//if cyrillic is a clitic in a passage, it has no stress
+				}
 				else
-					transcription = toPhonetic(cyrillic, stressedIndex);
+				{
+					context.record(StressSource.MARK, stressedIndex, -1);
+					transcription = toPhonetic(cyrillic, stressedIndex, context);
+				}
 			}
 			else	//cyrillic has 2 stresses
 			{
@@ -541,181 +767,316 @@ public class PhoneticConverter {
 				int stressedIndex = stresses[0] - 1;
 				int secondStress = stresses[1] - 1;
 				
-				transcription = toPhonetic(cyrillic, stressedIndex, secondStress, true);
+				context.record(StressSource.MARK, stressedIndex, secondStress);
+				transcription = toPhonetic(cyrillic, stressedIndex, secondStress, true, context);
 			}
 			
 			//Stress is known, so only 1 possible transcription (the correct one)
-			String[] output = {transcription};
-			return output;
+			return List.of(transcription).iterator();
 		}
 		
 		//Find where the vowels are in word
-		ArrayList<Integer> vowelIndexes = new ArrayList<>();
+		int vowelCount = 0;
+		int[] vowelIndexes = new int[cyrillic.length()];
 		for (int i = 0; i < cyrillic.length(); i++)
 		{
-			if (isVowel(cyrillic.charAt(i)))
-				vowelIndexes.add(i);
+			if (CharClasses.isVowel(cyrillic.charAt(i)))
+				vowelIndexes[vowelCount++] = i;
 		}
 		
-		//No stress marks found, so search website
-		if (searchWebsite && vowelIndexes.size() > 1)
+		//No stress marks found, so ask the stress provider (e.g. search website)
+		if (stressProvider != null && context.lookUp && vowelCount > 1)
 		{
-			String stressed = readWebsite(cyrillic);
-			
-			//If the website has trouble finding a stress, readWebsite will output cyrillic without stresses (its input)
-			char mark = "а̀".charAt(1);
-			if (stressed.contains("" + mark))		//makes sure the word was stressed
+			//If the provider doesn't know the word or it can't be stressed, the stresses are null or empty
+			int[] found = (context.sources == null)? stressProvider.getStresses(cyrillic)
+					: stressProvider.getStresses(List.of(cyrillic), context.sources).get(cyrillic);
+			if (found != null && found.length > 0 && areVowels(cyrillic, found))
 			{
-				//Check that stress index is pointing to a vowel
-				stresses = getStressIndex(stressed);
-				if (vowelIndexes.contains(stresses[0] - 1))
-					return toPhonetic(stressed);
+				Iterator<String> stressed = variants(addStresses(cyrillic, found), context);
+				if (context.sources != null)
+					context.source = context.sources.get(cyrillic);		//not MARK, as the marks were only added here
+				return stressed;
 			}
 		}
 		
 		//In the cases of one-letter words (e.g. "в", "с") or clitics in a passage, cyrillic has no stress
-		if ((passage && (Arrays.binarySearch(clitics, cyrillic) >= 0)) || !devoice || vowelIndexes.size() == 0)
+		if ((context.passage && (Arrays.binarySearch(context.clitics, cyrillic) >= 0)) || !context.devoice || vowelCount == 0)
 		{
-			String[] output = {toPhonetic(cyrillic, -1)};
-			return output;
+			context.record(StressSource.NONE, -1, -1);
+			return List.of(toPhonetic(cyrillic, -1, context)).iterator();
 		}
 		
-		//Make an array containing transcriptions for all possible stress locations
-		String[] transcriptions = new String[vowelIndexes.size()];
-		for (int i = 0; i < vowelIndexes.size(); i++)
-		{
-			//Gets the transcription for one possible stress index
-			transcriptions[i] = toPhonetic(cyrillic, vowelIndexes.get(i));
+		//One transcription for every possible stress location
+		context.record(StressSource.GUESS, vowelIndexes[0], -1);
+		return new Variants(cyrillic, Arrays.copyOf(vowelIndexes, vowelCount), context);
+	}
+	
+	
+	/*
+	 * Sandhi between word and nextWord, the word after it in a passage ("" if word is the last one):
+	 * returns word with its last consonants assimilated to the start of nextWord, and turns off word-final devoicing
+	 * in context if the two are pronounced together. Word-final devoicing must be turned back on after word is transcribed.
+	 */
+	private static String sandhi(String word, String nextWord, TranscriptionContext context)
+	{
+		String cluster = "", newCluster;
+		int letterIndex;
+		char first, last;
+		boolean v;
+		
+		if ((Arrays.binarySearch(context.clitics, word) >= 0 || Arrays.binarySearch(context.clitics, nextWord) >= 0) 
+				&& nextWord.length() > 0)
+		{
+			letterIndex = word.length() - 1;
+			last = word.charAt(letterIndex);	//last letter of first word
+			first = nextWord.charAt(0);		//first letter of second word
 			
-			if (passage)	//if cyrillic is in a passage, only 1st transcription option is used
-				break;
+			//Prepositions ending in a voiced consonant don't get devoiced if next word starts with a vowel
+			v = (word.equals("в") || word.equals("във"));	//"в" and "във" are exceptions
+			if (CharClasses.isVoiced(last) && CharClasses.isVowel(first) && Arrays.binarySearch(context.clitics, word) >= 0 && !v)
+				context.devoice = false;
+			
+			//"във" doesn't get devoiced at the end of the word if the next one starts with 'в'
+			if (word.equals("във") && first == 'в')
+				context.devoice = false;
+			
+			//Next word cannot start with a vowel, sonorant, or 'в'
+			if (!CharClasses.isVowel(first) && !CharClasses.isSonorant(first) && first != 'в')
+			{
+				//Perform sandhi here by calling assimilate. The cluster will be the consonants at the
+				//end of one word and those at the start of the next word
+				
+				//Add consonants at the end of word to cluster
+				while (CharClasses.isObstruent(last))
+				{
+					cluster = last + cluster;
+					
+					letterIndex--;
+					if (letterIndex >= 0)
+						last = word.charAt(letterIndex);
+					else
+						last = 0;
+				}
+				
+				letterIndex = 0;
+				
+				//Add consonants at the start of next word to cluster
+				while (cluster.length() > 0 && CharClasses.isObstruent(first))
+				{
+					cluster += first;
+					
+					letterIndex++;
+					first = (letterIndex < nextWord.length())? nextWord.charAt(letterIndex) : 0;		//next word may be only obstruents ("с")
+					
+					context.devoice = false;
+				}
+				
+				newCluster = assimilate(cluster);
+				
+				//letterIndex now becomes the index in cluster where the two words are split by a space (assuming cluster doesn't get longer)
+				letterIndex = cluster.length() - letterIndex;
+				
+				//If 'ч' was voiced to "дж" (couldn't find examples of 'ц' --> "дз") and 'ч' was in first word, then index must be increased
+				//to accomodate for extra letter
+				if (newCluster.length() > cluster.length() && cluster.indexOf('ч') <= letterIndex)		
+					letterIndex++;
+				
+				//Replace end of word with beginning of the new cluster
+				if (!context.devoice)
+					word = word.substring(0, word.length() - letterIndex) + newCluster.substring(0, letterIndex);
+			}
 		}
 		
-		return transcriptions;
+		return word;
 	}
 	
-	
-	//Outputs the word(s) with stress marks by parsing the website slovored.com/search/accent
+	//Outputs the word(s) with stress marks found by the stress provider (e.g. by parsing the website slovored.com/search/accent)
 	//unstressed: Bulgarian word(s) without stress marks (written in cyrillic alphabet)
 	public String getStressed(String unstressed)
 	{
-		if (!searchWebsite)
+		if (stressProvider == null)
 		{
 			System.out.println("WARNING: This PhoneticConverter is set to not search websites");
 			return unstressed;
 		}
 		
-		//The website cannot handle these symbols
-		unstressed = unstressed.replace('—', '+');
-		unstressed = unstressed.replace('„', '+');
-		unstressed = unstressed.replace('“', '+');
-		
-		unstressed = unstressed.replace(' ', '+');		//replaces spaces with '+' to put into URL
-		
 		//Make sure there are no stress marks beforehand
 		char mark1 = "а̀".charAt(1), mark2 = "а́".charAt(1);
 		if (!(unstressed.contains("" + mark1) || unstressed.contains("" + mark2)))	//if there are no stress marks
-			return readWebsite(unstressed);
+			return String.join(" ", stressWords(unstressed.split(" ")));
 		
 		return unstressed;
 	}
-		
 	
-	//This method splits up word (written in Cyrillic) into syllables and returns an array 
-	//containing each syllable in order.
-	public String[] getSyllables(String word)
+	/*
+	 * Outputs every word the stress provider knows, mapped to its version with stress marks (words it doesn't know are left out).
+	 * All the words are looked up at once, so e.g. the website is asked in a few requests instead of one per word.
+	 * words: Bulgarian words without stress marks (written in cyrillic alphabet)
+	 */
+	public Map<String, String> getStressed(Collection<String> words)
 	{
-		if (word.contains(" "))
+		Map<String, String> stressed = new HashMap<>();
+		if (stressProvider == null)
 		{
-			System.out.println("WARNING: cannot get syllables for more than one word at a time");
-			return new String[0];
+			System.out.println("WARNING: This PhoneticConverter is set to not search websites");
+			return stressed;
+		}
+		
+		Set<String> lookups = new HashSet<>();
+		for (String word : words)
+			lookups.add(word.toLowerCase());
+		
+		Map<String, int[]> found = stressProvider.getStresses(lookups);
+		for (String word : words)
+		{
+			int[] stresses = found.get(word.toLowerCase());
+			if (stresses != null && areVowels(word, stresses))
+				stressed.put(word, addStresses(word, stresses));
 		}
 		
-		if (word.contains("-"))		//e.g. "по-добре"
+		return stressed;
+	}
+	
+	/*
+	 * Adds stress marks to the words the stress provider knows (all of them are looked up at once).
+	 * Punctuation around a word (e.g. "транскрипция.") isn't part of the lookup.
+	 */
+	private String[] stressWords(String[] words)
+	{
+		return stressWords(words, stressProvider.getStresses(getCores(words)));
+	}
+	
+	//Adds stress marks to the words whose stresses are in found
+	private static String[] stressWords(String[] words, Map<String, int[]> found)
+	{
+		String[] stressed = new String[words.length];
+		for (int i = 0; i < words.length; i++)
 		{
-			//Get the syllables from each part of the word
-			String[] syllables1 = getSyllables(word.substring(0, word.indexOf("-")));
-			String[] syllables2 = getSyllables(word.substring(word.indexOf("-") + 1));
+			stressed[i] = words[i];
 			
-			//Put all the syllables together in a bigger array
-			String[] bigger = new String[syllables1.length + syllables2.length];
-			for (int i = 0; i < syllables1.length; i++)
-			{
-				bigger[i] = syllables1[i];
-			}
-			for (int i = 0; i < syllables2.length; i++)
+			String core = getCore(words[i]);
+			int[] stresses = (core == null)? null : found.get(core);
+			if (stresses != null && stresses.length > 0 && areVowels(core, stresses))
 			{
-				bigger[i + syllables1.length] = syllables2[i];
+				int start = 0;
+				while (!Character.isLetter(words[i].charAt(start)))
+					start++;
+				
+				stressed[i] = words[i].substring(0, start) + addStresses(words[i].substring(start, start + core.length()), stresses) 
+						+ words[i].substring(start + core.length());
 			}
-			
-			return bigger;
 		}
 		
-		word = word.toLowerCase();
-		
-		//This method might be called individually/externally (separately from toPhonetic),
-		//so might need to transcribe "дж" to "j" and then reverse it at the end
-		word = word.replace("дж", "j");
-		
-		//Find where the vowels are in word
-		ArrayList<Integer> vowelIndexes = new ArrayList<>();
-		for (int i = 0; i < word.length(); i++)
+		return stressed;
+	}
+	
+	//Returns the words that stresses can be looked up for (see getCore)
+	private static List<String> getCores(String[] words)
+	{
+		List<String> cores = new ArrayList<>();
+		for (String word : words)
 		{
-			if (isVowel(word.charAt(i)))
-				vowelIndexes.add(i);
+			String core = getCore(word);
+			if (core != null)
+				cores.add(core);
 		}
+		return cores;
+	}
+	
+	//Returns word in lowercase without the punctuation around it, or null if there is no vowel to stress (or it is already stressed)
+	private static String getCore(String word)
+	{
+		int start = 0, end = word.length();
+		while (start < end && !Character.isLetter(word.charAt(start)))
+			start++;
+		while (end > start && !Character.isLetter(word.charAt(end - 1)))
+			end--;
 		
-		//If word starts or ends in a cluster of 2 vowels, they must be in the same syllable (e.g. "уе-ди-не-ния")
-		if (vowelIndexes.size() >= 2 && vowelIndexes.get(1) == 1)
-			vowelIndexes.remove(0);
-			
-		//Remove last vowel index if word ends in two vowels
-		if (isVowel(word.charAt(word.length() - 2)) && isVowel(word.charAt(word.length() - 1)))
-			vowelIndexes.remove(vowelIndexes.size() - 1);
+		String core = word.substring(start, end).toLowerCase();
+		boolean vowel = false;
+		for (int i = 0; i < core.length(); i++)
+		{
+			if (isStressMark(core.charAt(i)))
+				return null;
+			if (CharClasses.isVowel(core.charAt(i)))
+				vowel = true;
+		}
 		
-		String[] syllables = new String[vowelIndexes.size()];
+		return vowel? core : null;
+	}
+	
+	//Returns true if every index in stresses points to a vowel of word
+	private static boolean areVowels(String word, int[] stresses)
+	{
+		for (int stress : stresses)
+		{
+			if (stress < 0 || stress >= word.length() || !CharClasses.isVowel(Character.toLowerCase(word.charAt(stress))))
+				return false;
+		}
 		
-		//Consonant clusters (or simply consonant, if any) between vowels (as well as start and end of word)
-		String[] clusters = new String[vowelIndexes.size() + 1];
+		return true;
+	}
 		
-		clusters[0] = word.substring(0, vowelIndexes.get(0));	//first "cluster"
-		for (int i = 1; i < vowelIndexes.size(); i++)	//middle "clusters"
+	
+	//This method splits up word (written in Cyrillic) into syllables and returns an array 
+	//containing each syllable in order.
+	public String[] getSyllables(String word)
+	{
+		if (word.contains(" "))
 		{
-			clusters[i] = word.substring(vowelIndexes.get(i - 1) + 1, vowelIndexes.get(i));
+			System.out.println("WARNING: cannot get syllables for more than one word at a time");
+			return new String[0];
 		}
 		
-		//Last cluster
-		clusters[vowelIndexes.size()] = "";
-		if (vowelIndexes.get(vowelIndexes.size() - 1) != word.length() - 1)		//if last letter isn't a vowel
-			clusters[vowelIndexes.size()] = word.substring(vowelIndexes.get(vowelIndexes.size() - 1) + 1);
-		
-		//Piece together syllables
-		String syllable;
-		int length, splitIndex;		//length of cluster to be split up
+		word = word.toLowerCase();
+		int[] bounds = new int[2 * word.length()];
+		String[] syllables = new String[Syllables.split(word, 0, word.length(), bounds)];
 		for (int i = 0; i < syllables.length; i++)
 		{
-			syllable = clusters[i];		//consonants before vowel
-			syllable += word.charAt(vowelIndexes.get(i)); 	//appends vowel
+			syllables[i] = word.substring(bounds[2 * i], bounds[2 * i + 1]);
 			
-			length = clusters[i + 1].length();
-			if (length > 0 && clusters[i + 1].charAt(length - 1) == 'ь')
-				length--;	//ensures that 'ь' is always before 'o' and that "ьо" is considered a vowel
-			
-			//Split up following cluster
-			splitIndex = length / 2;
-			if (i == syllables.length - 1)		//if this is the end of the word
-				splitIndex = length;
-			syllable += clusters[i + 1].substring(0, splitIndex);	//appends consonants after vowel
-			clusters[i + 1] = clusters[i + 1].substring(splitIndex);
-			
-			syllable = syllable.replace("j", "дж");
-			
-			syllables[i] = syllable;
+			//"дж" is already spelled out, but a 'j' written in the word is read as "дж" too
+			if (syllables[i].indexOf('j') >= 0)
+				syllables[i] = syllables[i].replace("j", "дж");
 		}
 		
 		return syllables;
 	}
 	
+	/*
+	 * Splits word into syllables the same way as getSyllables, but without making a String for every syllable:
+	 * syllable i is word.subSequence(bounds[2 * i], bounds[2 * i + 1]). Returns the number of syllables.
+	 * The '-' of a hyphenated word isn't part of any syllable.
+	 * bounds needs two indexes per syllable (2 * word.length() is always enough), so one array can be reused for many words.
+	 */
+	public int getSyllableBounds(CharSequence word, int[] bounds)
+	{
+		return getSyllableBounds(word, 0, word.length(), bounds);
+	}
+	
+	//Same as getSyllableBounds(word, bounds) for the word text[offset..offset + length); the bounds are indexes in text
+	public int getSyllableBounds(CharSequence text, int offset, int length, int[] bounds)
+	{
+		Objects.checkFromIndexSize(offset, length, text.length());
+		for (int i = offset; i < offset + length; i++)
+		{
+			if (text.charAt(i) == ' ')
+			{
+				System.out.println("WARNING: cannot get syllables for more than one word at a time");
+				return 0;
+			}
+		}
+		
+		return Syllables.split(text, offset, offset + length, bounds);
+	}
+	
+	//Same as getSyllableBounds(word, bounds), in an array that is exactly as long as it needs to be
+	public int[] getSyllableBounds(CharSequence word)
+	{
+		int[] bounds = new int[2 * word.length()];
+		return Arrays.copyOf(bounds, 2 * getSyllableBounds(word, bounds));
+	}
+	
 	/* 
 	 * Converts a Cyrillic letter into its IPA equivalent
 	 * 
@@ -724,131 +1085,147 @@ public class PhoneticConverter {
 	 */
 	public String convertLetter(char letter, boolean stressed)
 	{
-		switch (letter) {
-			case 'а':
-				if (stressed)
-					return "a";
-				return "ɐ";
-				
-			case 'б':
-				return "b";
-				
-			case 'в':
-				return "v";
-				
-			case 'г':
-				return "g";
-				
-			case 'д':		//"дж" and "дз" are already transcribed to "d͡ʒ" and "d͡z"
-				return "d";
-				
-			case 'е':
-				return "ɛ";
-				
-			case 'ж':
-				return "ʒ";
-				
-			case 'з':
-				return "z";
-				
-			case 'и':
-				return "i";
-				
-			case 'й':
-				return "j";
-				
-			case 'к':
-				return "k";
-				
-			case 'л':		//'л' --> "l" (stressed = true) or "ɫ" (stressed = false)
-				if (stressed)
-					return "l";
-				return "ɫ";
-				
-			case 'м':
-				return "m";
-				
-			case 'н':		//'н' --> "ŋ" (stressed = true) or "n" (stressed = false)
-				if (stressed)
-					return "ŋ";
-				return "n";
-				
-			case 'о':
-				if (stressed)
-					return "ɔ";
-				return "o";
-				
-			case 'п':
-				return "p";
-				
-			case 'р':
-				return "r";
-				
-			case 'с':
-				return "s";
-				
-			case 'т':
-				return "t";
-				
-			case 'у':		//'у' is already transcribed to 'w' in English loan words
-				if (stressed)
-					return "u";
-				return "o";
-				
-			case 'ф':
-				return "f";
-				
-			case 'х':
-				return "x";
-				
-			case 'ц':
-				if (links)
-					return "t͡s";
-				return "ts";
-				
-			case 'ч':
-				if (links)
-					return "t͡ʃ";
-				return "tʃ";
-				
-			case 'ш':
-				return "ʃ";
-				
-			case 'щ':
-				return "ʃt";
-				
-			case 'ъ':
-				if (stressed)
-					return "ɤ";
-				return "ɐ";
-				
-			case 'ь':
-				return "j";
-				
-			case 'ю':
-				if (stressed)
-					return "ju";
-				return "jo";
-				
-			case 'я':
-				if (stressed)
-					return "ja";
-				return "jɐ";
-			
-			case 'j':		//Previously transcribed "дж" to 'j'
-				if (links)
-					return "d͡ʒ";
-				return "dʒ";
+		return ipa.get(letter, stressed);
+	}
+	
+	//Same as convertLetter, but appends the IPA equivalent of letter to output instead of returning a new String
+	public void appendLetter(char letter, boolean stressed, StringBuilder output)
+	{
+		ipa.append(letter, stressed, output);
+	}
+	
+	public void appendLetter(char letter, boolean stressed, Appendable output) throws IOException
+	{
+		ipa.append(letter, stressed, output);
+	}
+	
+	/*
+	 * Writes the transcription toPhonetic(word, stressedIndex) returns into ids from start, as phoneme IDs of PhonemeInventory
+	 * instead of IPA, and returns how many were written. An affricate is one ID (with or without links), a stress mark is
+	 * PRIMARY_STRESS and the '-' of a hyphenated word is HYPHEN. 2 * word.length() + 1 IDs are always enough.
+	 * Nothing is looked up: stressedIndex has to be -1 or the index of a vowel, or IllegalArgumentException is thrown.
+	 */
+	public int toPhonemes(CharSequence word, int stressedIndex, short[] ids, int start)
+	{
+		return toPhonemes(word, stressedIndex, ids, null, start, engine.get(), newContext());
+	}
+	
+	/*
+	 * The bulk form of toPhonemes: writes the IDs of words[i] (stressed at stresses[i]) right after those of words[i - 1],
+	 * from ids[0], and the index in ids where they end to ends[i]. Returns the number of IDs written, i.e. ends[words.length - 1].
+	 * One array of 2 * (total length of the words) + words.length IDs can be reused for every batch.
+	 */
+	public int toPhonemes(CharSequence[] words, int[] stresses, short[] ids, int[] ends)
+	{
+		if (stresses.length < words.length || ends.length < words.length)
+			throw new IllegalArgumentException("stresses and ends need one index per word");
+		
+		TranscriptionEngine engine = this.engine.get();
+		TranscriptionContext context = newContext();
+		int written = 0;
+		for (int i = 0; i < words.length; i++)
+		{
+			written += toPhonemes(words[i], stresses[i], ids, null, written, engine, context);
+			ends[i] = written;
+		}
+		return written;
+	}
+	
+	/*
+	 * Writes the articulatory features of the phonemes toPhonemes(word, stressedIndex, ...) would write into features
+	 * from start (one long per phoneme; see ArticulatoryFeatures), and returns how many were written.
+	 * Only phonemes are written, so there is nothing for a stress mark or a '-': the stressed vowel has STRESSED set.
+	 * 2 * word.length() + 1 longs are always enough.
+	 */
+	public int toFeatures(CharSequence word, int stressedIndex, long[] features, int start)
+	{
+		return toPhonemes(word, stressedIndex, null, features, start, engine.get(), newContext());
+	}
+	
+	//The bulk form of toFeatures, the same as the bulk form of toPhonemes: the features of words[i] end at ends[i]
+	public int toFeatures(CharSequence[] words, int[] stresses, long[] features, int[] ends)
+	{
+		if (stresses.length < words.length || ends.length < words.length)
+			throw new IllegalArgumentException("stresses and ends need one index per word");
+		
+		TranscriptionEngine engine = this.engine.get();
+		TranscriptionContext context = newContext();
+		int written = 0;
+		for (int i = 0; i < words.length; i++)
+		{
+			written += toPhonemes(words[i], stresses[i], null, features, written, engine, context);
+			ends[i] = written;
 		}
+		return written;
+	}
+	
+	//Writes the phoneme IDs of word into ids, or (if features isn't null) their features into features
+	private int toPhonemes(CharSequence word, int stressedIndex, short[] ids, long[] features, int start, TranscriptionEngine engine,
+			TranscriptionContext context)
+	{
+		int length = word.length(), dash = -1;
+		for (int i = 0; i < length; i++)
+		{
+			if (word.charAt(i) == ' ')
+				throw new IllegalArgumentException("not a single word: " + word);
+			if (word.charAt(i) == '-' && dash == -1)
+				dash = i;
+		}
+		if (stressedIndex != -1 && (stressedIndex < 0 || stressedIndex >= length || !CharClasses.isVowel(word.charAt(stressedIndex))))
+			throw new IllegalArgumentException(stressedIndex + " is not an index of a vowel in word " + word);
+		
+		if (dash == -1)
+			return toPhonemes(word, 0, length, stressedIndex, ids, features, start, engine, context);
 		
-		//If letter was already transcribed
-		return "" + letter;		//makes letter a String
+		//The parts before and after '-', as toPhonetic splits them: only one of them has the stress
+		int end = word.toString().indexOf('-', dash + 1);
+		if (end == -1)
+			end = length;
+		int written = start;
+		written += toPhonemes(word, 0, dash, (stressedIndex < dash)? stressedIndex : -1, ids, features, written, engine, context);
+		if (features == null)
+			ids[written++] = PhonemeInventory.HYPHEN;
+		written += toPhonemes(word, dash + 1, end - dash - 1, (stressedIndex > dash)? stressedIndex - dash - 1 : -1, ids, features,
+				written, engine, context);
+		return written - start;
+	}
+	
+	private static int toPhonemes(CharSequence text, int offset, int length, int stressedIndex, short[] ids, long[] features,
+			int start, TranscriptionEngine engine, TranscriptionContext context)
+	{
+		if (features == null)
+			return engine.phonemes(text, offset, length, stressedIndex, context.loanWords, context.devoice, context.dashed, ids, start);
+		return engine.features(text, offset, length, stressedIndex, context.loanWords, context.devoice, context.dashed, features, start);
+	}
+	
+	
+	//Returns where the stresses of words are found (a StressChain, unless the builder was given another provider)
+	public StressProvider getStressProvider()
+	{
+		return stressProvider;
+	}
+	
+	//Returns true if word (in lowercase) is one of the clitics, which are pronounced together with the words next to them
+	boolean isClitic(String word)
+	{
+		return Arrays.binarySearch(clitics, word) >= 0;
 	}
 	
+	//Returns where transcriptions of single words are remembered (null if they aren't)
+	public TranscriptionCache getTranscriptionCache()
+	{
+		return transcriptionCache;
+	}
 	
-	//If user wants to update the array of English loan words/prefixes, they may do so with this method
+	/*
+	 * If user wants to update the array of English loan words/prefixes, they may do so with this method
+	 * 
+	 * Deprecated: a converter shared between threads should be built with Builder.loanWords instead.
+	 * Calls that are already running keep using the old loan words.
+	 */
+	@Deprecated
 	public void setLoanWords(String[] newWords) {
-		loanWords = newWords;
+		loanWords = newWords.clone();
 	}
 	
 	/*
@@ -856,86 +1233,258 @@ public class PhoneticConverter {
 	 * 
 	 * If user doesn't want program to take into account clitics and sandhi for passages, they may set argument
 	 * to empty array.
+	 * 
+	 * Deprecated: a converter shared between threads should be built with Builder.clitics instead.
+	 * Calls that are already running keep using the old clitics.
 	 */
+	@Deprecated
 	public void setClitics(String[] clitics)
 	{
-		Arrays.parallelSort(clitics);
+		String[] sorted = clitics.clone();
+		Arrays.sort(sorted);
 		
-		this.clitics = clitics;
+		this.clitics = sorted;
 	}
 	
+	
 	/*
-	  The website slovored.com/search/accent finds the stresses of words, taking as input 1 or multiple words.
-	  This method uses the library Jsoup to parse websites.
-	  If the website can't find the stresses of the word(s), this method returns the argument word.
+	 * The transcriptions of a word whose stress isn't known, one per vowel, made as they are asked for.
+	 * Each one is the same as toPhonetic(word, vowel, context), but the word is only prepared by the engine once.
 	 */
-	private String readWebsite(String word)
-	{
-		try {
-			//Load the website (this takes a while)
-			org.jsoup.nodes.Document doc = Jsoup.connect("https://slovored.com/search/accent/" + word).get();
-			Elements elements = doc.getAllElements();
+	private class Variants implements Iterator<String> {
+		
+		private final String word;		//lowercase
+		private final int[] vowelIndexes;
+		private final TranscriptionContext context;
+		private TranscriptionEngine.Prepared prepared = null;
+		private int next = 0;
+		
+		Variants(String word, int[] vowelIndexes, TranscriptionContext context)
+		{
+			this.word = word;
+			this.vowelIndexes = vowelIndexes;
+			this.context = context;
+		}
 		
-			//Line 143 contains the stressed word
-			String line = elements.get(143).text();
-			return line;
+		@Override
+		public boolean hasNext()
+		{
+			return next < vowelIndexes.length;
+		}
+		
+		@Override
+		public String next()
+		{
+			if (!hasNext())
+				throw new NoSuchElementException();
 			
-		} catch (IOException e) {
-			System.out.println("Couldn't load website for word " + word);
-			return word;
+			int stressedIndex = vowelIndexes[next++];
+			if (word.contains("-"))
+				return toPhonetic(word, stressedIndex, context);		//every part is transcribed on its own
+			
+			TranscriptionCache.Key key = null;
+			String transcribed = null;
+			if (transcriptionCache != null)
+			{
+				key = new TranscriptionCache.Key(word, stressedIndex, -1, false, links, context.devoice, context.dashed, context.loanWords);
+				transcribed = transcriptionCache.get(key);
+			}
+			
+			if (transcribed == null)
+			{
+				if (prepared == null)
+					prepared = engine.get().prepare(word, context.loanWords, context.devoice);
+				transcribed = prepared.render(stressedIndex, context.dashed);
+				if (key != null)
+					transcriptionCache.put(key, transcribed);
+			}
+			
+			context.dashed = false;
+			return transcribed;
 		}
 	}
 	
-	/* 
-	 * Some letters in Bulgarian words are pronounced differently:
-	 * - Word-final devoicing of obstruents (e.g. град --> 'grat, where д is pronounced like т)
-	 * - Regressive assimilation in consonant clusters (e.g. изток --> 'istok, where з is pronounced like с)
-	 * - т and д are usually not pronounced when inside of a consonant cluster (e.g. вестник --> 'vɛsnik)
+	
+	/*
+	 * Builds a PhoneticConverter. Everything set here is copied, so changing the arrays afterwards
+	 * doesn't affect the converter.
+	 * 
+	 * links: if true, "links" are included for affricates (default false)
+	 * clitics: words that don't have a stress in a passage; an empty array turns off clitics and sandhi
+	 * loanWords: English loan word prefixes, in which 'у' is transcribed as 'w'
+	 * 
+	 * Stresses are found by a StressChain made of (in this order):
+	 * stressCache: where found stresses are remembered; several converters may share one
+	 *   (by default, every converter gets its own StressCache with the default limits)
+	 * stressLexicon: stresses kept on disk; words found by the website are added to it (the converter doesn't close it)
+	 * searchWebsite: if true, allows program to search the website slovored.com/search/accent (default false)
 	 * 
-	 * word: Bulgarian word written in Cyrillic
-	 * Returns word spelled as it would be pronounced (also in Cyrillic)
+	 * stressProvider: replaces that StressChain with any other StressProvider (or StressChain), 
+	 *   e.g. one that never searches websites for latency-sensitive code
+	 * 
+	 * transcriptionCache: where transcriptions of single words are remembered, so repeated words aren't transcribed again;
+	 *   several converters may share one (by default, transcriptions aren't remembered)
 	 */
-	private String phonotation(String word)
-	{		
-		//If word ends in a voiced consonant(s), that letter gets devoiced (replaced by its voiceless equivalent)
-		if (word.endsWith("дж") && devoice)		//it's never "дз"
-			word = word.substring(0, word.length() - 2) + 'ч';
-		else if (devoice)
+	public static class Builder {
+		
+		private boolean links = false;
+		private boolean searchWebsite = false;
+		private String[] clitics = DEFAULT_CLITICS;
+		private String[] loanWords = DEFAULT_LOAN_WORDS;
+		private StressCache stressCache = null;
+		private StressLexicon stressLexicon = null;
+		private StressProvider stressProvider = null;
+		private TranscriptionCache transcriptionCache = null;
+		
+		public Builder links(boolean links)
 		{
-			String last = word.substring(word.length() - 1);		//last letter
-			int index = getObstruentIndex(voiced, last);
-			if (index >= 0)		//if last letter is in voiced
-				word = word.substring(0, word.length() - 1) + voiceless[index];
+			this.links = links;
+			return this;
 		}
 		
-		String cluster = "";	//current consonant cluster
-		String output = "";
-		char letter;
-		for (int i = 0; i < word.length(); i++)		//loops through word
+		public Builder searchWebsite(boolean searchWebsite)
+		{
+			this.searchWebsite = searchWebsite;
+			return this;
+		}
+		
+		public Builder clitics(String... clitics)
+		{
+			this.clitics = clitics.clone();
+			return this;
+		}
+		
+		public Builder loanWords(String... loanWords)
+		{
+			this.loanWords = loanWords.clone();
+			return this;
+		}
+		
+		public Builder stressCache(StressCache stressCache)
+		{
+			this.stressCache = stressCache;
+			return this;
+		}
+		
+		public Builder stressLexicon(StressLexicon stressLexicon)
+		{
+			this.stressLexicon = stressLexicon;
+			return this;
+		}
+		
+		public Builder stressProvider(StressProvider stressProvider)
+		{
+			this.stressProvider = stressProvider;
+			return this;
+		}
+		
+		public Builder transcriptionCache(TranscriptionCache transcriptionCache)
+		{
+			this.transcriptionCache = transcriptionCache;
+			return this;
+		}
+		
+		public PhoneticConverter build()
+		{
+			return new PhoneticConverter(this);
+		}
+		
+		//Returns the StressProvider described by this builder (null if stresses aren't looked up at all)
+		private StressProvider getStressProvider()
+		{
+			if (stressProvider != null)
+				return stressProvider;
+			
+			List<StressProvider> providers = new ArrayList<>();
+			providers.add((stressCache != null)? stressCache : new StressCache());
+			if (stressLexicon != null)
+				providers.add(stressLexicon);
+			if (searchWebsite)
+				providers.add(new AsyncStressProvider(new SlovoredStressProvider()));		//threads share lookups of the same word
+			
+			//A cache on its own is only useful if it was given (and may be filled by someone else)
+			if (providers.size() == 1 && stressCache == null)
+				return null;
+			
+			return new StressChain(providers);
+		}
+	}
+	
+	//Returns the indexes of the stressed vowels of stressed, counted as if its stress marks were removed
+	static int[] getStresses(String stressed)
+	{
+		int count = 0;
+		for (int i = 0; i < stressed.length(); i++)
+		{
+			if (isStressMark(stressed.charAt(i)))
+				count++;
+		}
+		
+		int[] stresses = new int[count];
+		int found = 0;
+		for (int i = 0; i < stressed.length(); i++)
 		{
-			letter = word.charAt(i);
-			if (isVowel(letter))
+			if (isStressMark(stressed.charAt(i)))
 			{
-				//Cluster ends; need to analyze it and possibly alter it
-				cluster = analyzeCluster(cluster);
-				
-				output += cluster + letter;
-				cluster = "";	//starts a new cluster
+				stresses[found] = i - found - 1;	//the vowel is before the mark, and earlier marks are removed
+				found++;
 			}
-			else	//if letter is a consonant
-				cluster += letter;
 		}
 		
-		//Last cluster
-		if (cluster.length() > 0)
-			output += analyzeCluster(cluster);
+		return stresses;
+	}
+	
+	//Returns text[offset..offset + length) in lowercase, the same as text.toString().toLowerCase() would (see CharClasses.toLowerCase)
+	private static String toLowerCase(CharSequence text, int offset, int length)
+	{
+		char[] letters = new char[length];
+		for (int i = 0; i < length; i++)
+		{
+			letters[i] = CharClasses.toLowerCase(text.charAt(offset + i));
+			if (letters[i] == CharClasses.UNFOLDED)
+				return text.subSequence(offset, offset + length).toString().toLowerCase();
+		}
+		return new String(letters);
+	}
+	
+	//Returns word with a stress mark after every index in stresses
+	static String addStresses(String word, int[] stresses)
+	{
+		if (stresses.length == 0)
+			return word;
+		
+		StringBuilder stressed = new StringBuilder(word.length() + stresses.length);
+		int previous = 0;
+		for (int stress : stresses)
+		{
+			stressed.append(word, previous, stress + 1).append(STRESS_MARK);
+			previous = stress + 1;
+		}
+		stressed.append(word, previous, word.length());
 		
-		return output;
+		return stressed.toString();
 	}
 	
+	static String removeStresses(String stressed)
+	{
+		StringBuilder unstressed = new StringBuilder(stressed.length());
+		for (int i = 0; i < stressed.length(); i++)
+		{
+			if (!isStressMark(stressed.charAt(i)))
+				unstressed.append(stressed.charAt(i));
+		}
+		
+		return unstressed.toString();
+	}
+	
+	private static boolean isStressMark(char letter)
+	{
+		return letter == STRESS_MARK || letter == "а́".charAt(1);
+	}
 	
 	//Performs assimilation and removes 'т' and 'д' from inside clusters
-	private String analyzeCluster(String cluster)
+	//(TranscriptionEngine.phonotation looks the result up in ClusterTable, which is made from this method)
+	static String analyzeCluster(String cluster)
 	{		
 		//Replace 'щ' with "шт" (if present); will replace back to 'щ' at the end
 		cluster = cluster.replace("щ", "шт");
@@ -962,7 +1511,7 @@ public class PhoneticConverter {
 	
 	
 	//Changes a consonant cluster, replacing an obstruent with its voiced/voiceless alternative
-	private String assimilate(String cluster)
+	private static String assimilate(String cluster)
 	{
 		//Progressive assimilation (rare): св --> сф, and possibly other examples
 		cluster = cluster.replace("св", "сф");		
@@ -977,12 +1526,12 @@ public class PhoneticConverter {
 			letter = cluster.charAt(i);
 			
 			//Get the current consonant's type
-			int index = getObstruentIndex(voiced, "" + letter);	//makes letter a String
+			int index = CharClasses.voicedIndex(letter);
 			if (index >= 0)
 				type = "voiced";
 			else
 			{
-				index = getObstruentIndex(voiceless, "" + letter);
+				index = CharClasses.voicelessIndex(letter);
 				if (index >= 0)
 					type = "voiceless";
 				else
@@ -1012,35 +1561,6 @@ public class PhoneticConverter {
 	}
 	
 	
-	//Replacement for Arrays.binarySearch, since I can't sort the arrays voiced and voiceless 
-	//beforehand (obstruents form pairs that share indexes in each array)
-	private int getObstruentIndex(String[] obstruents, String letter)
-	{
-		for (int i = 0; i < obstruents.length; i++)
-		{
-			if (obstruents[i].equals(letter))
-				return i;
-		}
-		
-		return -1;
-	}
-	
-	
-	//Returns true if argument vowel is in array vowels, false otherwise (i.e. consonant)
-	private boolean isVowel(char vowel)
-	{
-		//'ю' and 'я' are included for the purpose of splitting into syllables and for stresses
-		char[] vowels = {'а', 'и', 'е', 'о', 'я', 'ъ', 'у', 'ю'};	//ordered by frequency
-
-		for (int j = 0; j < 8; j++)		//loops through vowels
-		{
-			if (vowel == vowels[j])
-				return true;
-		}
-		return false;
-	}
-	
-	
 	//This method returns an array containing the indexes of the stress marks in a word
 	private int[] getStressIndex(String word)
 	{
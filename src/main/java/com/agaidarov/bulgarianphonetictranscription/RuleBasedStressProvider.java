@@ -0,0 +1,76 @@
+/**
+ * 10/18/2026
+ * 
+ * A StressProvider that guesses the stress of a word from its ending, without looking anything up.
+ * 
+ * Bulgarian stress is free, so this only works for endings that (almost) always have the stress in the same place,
+ * such as "-ция" (информа̀ция), "-изъм" (реалѝзъм) or "-ение" (решѐние). Words with any other ending are left
+ * to the next provider. Since these are guesses, a StressChain doesn't store them in its caches.
+ * 
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+import java.util.Arrays;
+
+public class RuleBasedStressProvider implements StressProvider {
+	
+	//Endings with a stress mark after the stressed vowel (which may be the vowel right before the ending)
+	public static final String[] DEFAULT_ENDINGS = {
+			"а̀ция", "ѝция", "о̀ция", "ѐция", "у̀ция", "ю̀ция", "ъ̀ция",
+			"ѝзъм", "ѝзма", "ѝст", "ѝстка", "ѝстът", "ѝсти",
+			"ѝчески", "ѝческа", "ѝческо", "ѝчен", "ѝчна", "ѝчно", "ѝчни",
+			"ѐние", "ѐния", "ѐнието",
+			"оло̀гия", "оло̀гии", "ло̀гия", "ло̀гии"};
+	
+	private final String[] endings;		//without stress marks, longest first
+	private final int[] stresses;		//index of the stressed vowel in each ending
+	
+	
+	public RuleBasedStressProvider()
+	{
+		this(DEFAULT_ENDINGS);
+	}
+	
+	/*
+	 * endings: word endings with a stress mark after the stressed vowel, e.g. "ѐние"
+	 * If the stressed vowel comes right before the ending, the ending starts with that vowel, e.g. "а̀ция"
+	 */
+	public RuleBasedStressProvider(String... endings)
+	{
+		String[] sorted = endings.clone();
+		Arrays.sort(sorted, (a, b) -> b.length() - a.length());
+		
+		this.endings = new String[sorted.length];
+		this.stresses = new int[sorted.length];
+		for (int i = 0; i < sorted.length; i++)
+		{
+			int[] found = PhoneticConverter.getStresses(sorted[i]);
+			if (found.length != 1)
+				throw new IllegalArgumentException("ending must have exactly one stress mark: " + sorted[i]);
+			
+			this.endings[i] = PhoneticConverter.removeStresses(sorted[i]);
+			this.stresses[i] = found[0];
+		}
+	}
+	
+	@Override
+	public int[] getStresses(String word)
+	{
+		for (int i = 0; i < endings.length; i++)
+		{
+			//The word must be longer than the ending, so that it isn't just the ending
+			if (word.length() > endings[i].length() && word.endsWith(endings[i]))
+				return new int[] {word.length() - endings[i].length() + stresses[i]};
+		}
+		
+		return null;
+	}
+	
+	@Override
+	public boolean isExact()
+	{
+		return false;
+	}
+
+}
@@ -0,0 +1,243 @@
+/**
+ * 10/18/2026
+ * 
+ * A StressProvider that loads the stresses of words from the website slovored.com/search/accent.
+ * 
+ * This is by far the slowest provider (every lookup is a request to the website), so it should be the last one
+ * in a StressChain. Many words can be looked up at once with getStresses(Collection): they are packed into as few
+ * requests as the maximum URL length allows, and up to parallelism requests are sent at the same time.
+ * This class uses the library Jsoup to parse websites.
+ * 
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jsoup.Jsoup;
+import org.jsoup.select.Elements;
+
+public class SlovoredStressProvider implements StressProvider {
+	
+	private static final String URL = "https://slovored.com/search/accent/";
+	
+	//Browsers and servers commonly accept URLs of about 2000 characters
+	public static final int DEFAULT_MAX_URL_LENGTH = 2000;
+	public static final int DEFAULT_PARALLELISM = 4;
+	
+	//Shared by all providers; every batch uses at most parallelism of its threads
+	private static final ExecutorService EXECUTOR = AsyncStressProvider.newExecutor("slovored-lookup");
+	
+	private final int maxUrlLength;
+	private final int parallelism;
+	
+	
+	public SlovoredStressProvider()
+	{
+		this(DEFAULT_MAX_URL_LENGTH, DEFAULT_PARALLELISM);
+	}
+	
+	/*
+	 * maxUrlLength: the longest URL sent to the website (a single word that is longer is still sent on its own)
+	 * parallelism: the maximum number of requests sent to the website at the same time
+	 */
+	public SlovoredStressProvider(int maxUrlLength, int parallelism)
+	{
+		if (maxUrlLength <= URL.length() || parallelism < 1)
+			throw new IllegalArgumentException("maxUrlLength must be longer than " + URL + " and parallelism at least 1");
+		
+		this.maxUrlLength = maxUrlLength;
+		this.parallelism = parallelism;
+	}
+	
+	@Override
+	public int[] getStresses(String word)
+	{
+		String line = readWebsite(clean(word));
+		if (line == null)
+			return null;
+		
+		//Only trusted if the website answered with the same word (apart from stress marks)
+		if (!PhoneticConverter.removeStresses(line).equalsIgnoreCase(word))
+			return null;
+		
+		return PhoneticConverter.getStresses(line);		//empty if the website couldn't stress the word
+	}
+	
+	//The words are split into requests that fit into a URL, and the stressed words in each answer are matched up with them.
+	//Up to parallelism workers take the requests one after another, so no more requests than that are sent at once.
+	@Override
+	public Map<String, int[]> getStresses(Collection<String> words)
+	{
+		Map<String, int[]> found = new ConcurrentHashMap<>();
+		List<List<String>> requests = split(new ArrayList<>(new LinkedHashSet<>(words)));
+		
+		if (requests.size() == 1 || parallelism == 1)
+		{
+			for (List<String> request : requests)
+				lookUp(request, found);
+			return found;
+		}
+		
+		AtomicInteger next = new AtomicInteger();
+		Callable<Void> worker = () -> {
+			for (int i = next.getAndIncrement(); i < requests.size(); i = next.getAndIncrement())
+				lookUp(requests.get(i), found);
+			return null;
+		};
+		
+		try {
+			for (Future<Void> future : EXECUTOR.invokeAll(Collections.nCopies(Math.min(parallelism, requests.size()), worker)))
+				future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();		//the words found so far are still returned
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		}
+		
+		return found;
+	}
+	
+	/*
+	 * Looks up all the words of request at once and puts the ones the website stressed into found.
+	 * If the answer has a different number of words (e.g. the website split a word in two), it can't be matched up,
+	 * so both halves of request are looked up separately.
+	 */
+	private void lookUp(List<String> request, Map<String, int[]> found)
+	{
+		if (request.size() == 1)
+		{
+			int[] stresses = getStresses(request.get(0));
+			if (stresses != null)
+				found.put(request.get(0), stresses);
+			return;
+		}
+		
+		StringBuilder query = new StringBuilder();
+		for (String word : request)
+		{
+			if (query.length() > 0)
+				query.append('+');		//the URL has '+' instead of ' '
+			query.append(clean(word));
+		}
+		
+		String line = readWebsite(query.toString());
+		if (line == null)
+			return;
+		
+		String[] answered = line.split(" ");
+		if (answered.length != request.size())		//can't tell which answer belongs to which word
+		{
+			int half = request.size() / 2;
+			lookUp(request.subList(0, half), found);
+			lookUp(request.subList(half, request.size()), found);
+			return;
+		}
+		
+		for (int i = 0; i < answered.length; i++)
+		{
+			if (PhoneticConverter.removeStresses(answered[i]).equalsIgnoreCase(request.get(i)))
+				found.put(request.get(i), PhoneticConverter.getStresses(answered[i]));
+		}
+	}
+	
+	//Splits words into requests whose URLs are at most maxUrlLength characters long
+	private List<List<String>> split(List<String> words)
+	{
+		List<List<String>> requests = new ArrayList<>();
+		List<String> request = new ArrayList<>();
+		int length = URL.length();
+		
+		for (String word : words)
+		{
+			int added = urlLength(clean(word)) + (request.isEmpty()? 0 : 1);		//1 for the '+' between words
+			if (!request.isEmpty() && length + added > maxUrlLength)
+			{
+				requests.add(request);
+				request = new ArrayList<>();
+				length = URL.length();
+				added--;
+			}
+			
+			request.add(word);
+			length += added;
+		}
+		
+		if (!request.isEmpty())
+			requests.add(request);
+		
+		return requests;
+	}
+	
+	//Length of word in a URL, where every byte of a non-ASCII character is written as "%XX" (e.g. 'а' is "%D0%B0")
+	private static int urlLength(String word)
+	{
+		int length = 0;
+		for (int i = 0; i < word.length(); i++)
+		{
+			char letter = word.charAt(i);
+			if (letter < 0x80)
+				length++;
+			else if (letter < 0x800)
+				length += 6;
+			else
+				length += 9;
+		}
+		return length;
+	}
+	
+	@Override
+	public StressSource getSource()
+	{
+		return StressSource.WEB;
+	}
+	
+	@Override
+	public String getName()
+	{
+		return "slovored.com";
+	}
+	
+	
+	/*
+	  The website slovored.com/search/accent finds the stresses of words, taking as input 1 or multiple words.
+	  If the website can't be loaded, this method returns null.
+	 */
+	static String readWebsite(String word)
+	{
+		try {
+			//Load the website (this takes a while)
+			org.jsoup.nodes.Document doc = Jsoup.connect(URL + word).get();
+			Elements elements = doc.getAllElements();
+			
+			//Line 143 contains the stressed word
+			String line = elements.get(143).text();
+			return line;
+		
+		} catch (IOException e) {
+			System.out.println("Couldn't load website for word " + word);
+			return null;
+		}
+	}
+	
+	//The website cannot handle these symbols
+	private static String clean(String word)
+	{
+		return word.replace('—', '+').replace('„', '+').replace('“', '+');
+	}
+
+}
@@ -0,0 +1,105 @@
+/**
+ * 10/18/2026
+ *
+ * This class remembers the stresses of words in memory, so that a word only has to be looked up
+ * (e.g. on slovored.com/search/accent) once. It is the first StressProvider in a converter's StressChain.
+ *
+ * Words are stored in lowercase. Words that can't be stressed are remembered too (negative caching),
+ * with an empty array of stresses, because asking again gives the same answer.
+ * Failed lookups are not remembered.
+ *
+ * The cache is bounded by the number of entries and by their estimated size in bytes; when it is full,
+ * the entries that haven't been used for the longest time (approximately) are removed.
+ * One cache can be shared by several converters and threads.
+ *
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+import java.util.Locale;
+
+public class StressCache implements StressProvider {
+	
+	public static final int DEFAULT_MAX_ENTRIES = 100_000;
+	public static final long DEFAULT_MAX_BYTES = 32L * 1024 * 1024;
+	
+	private final BoundedCache<String, int[]> cache;
+	
+	
+	public StressCache()
+	{
+		this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BYTES);
+	}
+	
+	/*
+	 * maxEntries: the maximum number of words kept (0 turns the cache off)
+	 * maxBytes: the maximum estimated memory used by the words and their stresses
+	 */
+	public StressCache(int maxEntries, long maxBytes)
+	{
+		//A String costs about 40 bytes plus 2 bytes per character (Cyrillic can't be stored in 1 byte),
+		//an int[] 16 bytes plus 4 per stress, and the entry itself about 40 bytes
+		cache = new BoundedCache<>(maxEntries, maxBytes, (word, stresses) -> 96 + 2 * word.length() + 4 * stresses.length);
+	}
+	
+	//Returns the stresses of word (empty if it can't be stressed), or null if word hasn't been looked up yet.
+	//Callers get a copy, so changing it doesn't change what other converters and threads are given.
+	@Override
+	public int[] getStresses(String word)
+	{
+		int[] stresses = cache.get(normalize(word));
+		return (stresses == null)? null : stresses.clone();
+	}
+	
+	//Remembers the stresses of word (an empty array if it can't be stressed)
+	@Override
+	public void remember(String word, int[] stresses)
+	{
+		cache.put(normalize(word), stresses.clone());
+	}
+	
+	public void clear()
+	{
+		cache.clear();
+	}
+	
+	public int size()
+	{
+		return cache.size();
+	}
+	
+	//Estimated memory used by the cached words, in bytes
+	public long bytes()
+	{
+		return cache.bytes();
+	}
+	
+	public long hits()
+	{
+		return cache.hits();
+	}
+	
+	public long misses()
+	{
+		return cache.misses();
+	}
+	
+	public long evictions()
+	{
+		return cache.evictions();
+	}
+	
+	@Override
+	public String toString()
+	{
+		return "StressCache[size=" + size() + ", bytes=" + bytes() + ", hits=" + hits() + ", misses=" + misses() +
+				", evictions=" + evictions() + "]";
+	}
+	
+	//Words differing only in case (or surrounding spaces) are the same entry
+	static String normalize(String word)
+	{
+		return word.trim().toLowerCase(Locale.ROOT);
+	}
+
+}
@@ -0,0 +1,193 @@
+/**
+ * 10/18/2026
+ * 
+ * A StressProvider that asks several other providers in order, until one of them knows the word.
+ * 
+ * The providers should go from fastest to slowest, e.g.:
+ *   new StressChain(new StressCache(), StressLexicon.open(directory), new RuleBasedStressProvider(), new SlovoredStressProvider())
+ * When a provider finds a word, the providers before it are told to remember it (unless it was only a guess),
+ * so the next lookup of that word stops earlier.
+ * 
+ * For every provider, the chain counts how many words it was asked for, how many it knew, and how long it took.
+ * 
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+public class StressChain implements StressProvider {
+	
+	private final Tier[] tiers;
+	
+	
+	public StressChain(StressProvider... providers)
+	{
+		tiers = new Tier[providers.length];
+		for (int i = 0; i < providers.length; i++)
+			tiers[i] = new Tier(providers[i]);
+	}
+	
+	public StressChain(List<StressProvider> providers)
+	{
+		this(providers.toArray(new StressProvider[0]));
+	}
+	
+	@Override
+	public int[] getStresses(String word)
+	{
+		for (int i = 0; i < tiers.length; i++)
+		{
+			long start = System.nanoTime();
+			int[] stresses = tiers[i].provider.getStresses(word);
+			tiers[i].count(1, (stresses != null)? 1 : 0, System.nanoTime() - start);
+			
+			if (stresses != null)
+			{
+				rememberBefore(i, word, stresses);
+				return stresses;
+			}
+		}
+		
+		return null;
+	}
+	
+	//Every provider only gets the words that the providers before it didn't know
+	@Override
+	public Map<String, int[]> getStresses(Collection<String> words)
+	{
+		return getStresses(words, null);
+	}
+	
+	@Override
+	public Map<String, int[]> getStresses(Collection<String> words, Map<String, StressSource> sources)
+	{
+		Map<String, int[]> found = new HashMap<>();
+		Set<String> missing = new LinkedHashSet<>(words);		//also removes duplicates
+		
+		for (int i = 0; i < tiers.length && !missing.isEmpty(); i++)
+		{
+			long start = System.nanoTime();
+			Map<String, int[]> known = tiers[i].provider.getStresses(Collections.unmodifiableSet(missing));
+			tiers[i].count(missing.size(), known.size(), System.nanoTime() - start);
+			
+			for (Map.Entry<String, int[]> entry : known.entrySet())
+			{
+				if (missing.remove(entry.getKey()))
+				{
+					found.put(entry.getKey(), entry.getValue());
+					rememberBefore(i, entry.getKey(), entry.getValue());
+					if (sources != null)
+						sources.put(entry.getKey(), tiers[i].provider.getSource());
+				}
+			}
+		}
+		
+		return found;
+	}
+	
+	@Override
+	public void remember(String word, int[] stresses)
+	{
+		for (Tier tier : tiers)
+			tier.provider.remember(word, stresses);
+	}
+	
+	//Returns the statistics of every provider, in the order they are asked
+	public List<Tier> getTiers()
+	{
+		List<Tier> list = new ArrayList<>();
+		Collections.addAll(list, tiers);
+		return list;
+	}
+	
+	@Override
+	public String toString()
+	{
+		StringBuilder text = new StringBuilder("StressChain[");
+		for (int i = 0; i < tiers.length; i++)
+		{
+			if (i > 0)
+				text.append(", ");
+			text.append(tiers[i]);
+		}
+		return text.append(']').toString();
+	}
+	
+	//Tells the providers before tiers[index] to remember word, unless tiers[index] only guessed it
+	private void rememberBefore(int index, String word, int[] stresses)
+	{
+		if (!tiers[index].provider.isExact())
+			return;
+		
+		for (int i = 0; i < index; i++)
+			tiers[i].provider.remember(word, stresses);
+	}
+	
+	
+	//One provider in the chain, with its statistics
+	public static class Tier {
+		
+		private final StressProvider provider;
+		private final LongAdder lookups = new LongAdder();
+		private final LongAdder hits = new LongAdder();
+		private final LongAdder nanos = new LongAdder();
+		
+		private Tier(StressProvider provider)
+		{
+			this.provider = provider;
+		}
+		
+		private void count(int words, int known, long time)
+		{
+			lookups.add(words);
+			hits.add(known);
+			nanos.add(time);
+		}
+		
+		public StressProvider getProvider()
+		{
+			return provider;
+		}
+		
+		//Number of words this provider was asked for
+		public long getLookups()
+		{
+			return lookups.sum();
+		}
+		
+		//Number of words this provider knew
+		public long getHits()
+		{
+			return hits.sum();
+		}
+		
+		public long getMisses()
+		{
+			return getLookups() - getHits();
+		}
+		
+		//Total time spent in this provider, in nanoseconds
+		public long getNanos()
+		{
+			return nanos.sum();
+		}
+		
+		@Override
+		public String toString()
+		{
+			long lookups = getLookups();
+			long average = (lookups == 0)? 0 : getNanos() / lookups;
+			return provider.getName() + ": " + getHits() + "/" + lookups + " hits, " + average + " ns/word";
+		}
+	}
+
+}
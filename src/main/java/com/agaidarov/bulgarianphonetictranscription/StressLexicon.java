@@ -0,0 +1,360 @@
+/**
+ * 10/18/2026
+ *
+ * This class keeps the stresses of words on disk, so that they survive a restart of the program
+ * and don't have to be loaded from slovored.com again.
+ *
+ * A lexicon is a directory with two files:
+ * - lexicon.bin: every word with its stresses, sorted, in a binary format that is memory-mapped and
+ *   binary-searched in place (so opening even a very large lexicon doesn't read it into memory)
+ * - lexicon.log: words added since the last compaction, appended one after another as they arrive
+ *
+ * compact() merges the log into lexicon.bin; it also happens when the lexicon is closed.
+ *
+ * Entries are (word, stresses), where the word is in lowercase and the stresses are the indexes of its stressed
+ * vowels. An entry with no stresses means the word can't be stressed (e.g. the website didn't know it).
+ * As a StressProvider, the lexicon records every word that a provider after it in a StressChain finds.
+ * All methods can be called from several threads at once.
+ *
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class StressLexicon implements StressProvider, Closeable {
+	
+	//Format of lexicon.bin: MAGIC, VERSION, number of entries, offset of every entry (from the start of the entries), entries
+	//Every entry (also in lexicon.log): length of word in bytes (short), word in UTF-8, number of stresses (byte), stresses (shorts)
+	private static final int MAGIC = 0x42475358;	//"BGSX"
+	private static final int VERSION = 1;
+	private static final int HEADER = 12;
+	
+	private static final int[] NO_STRESS = new int[0];
+	
+	private final Path directory;
+	private final Path dataFile;
+	private final Path logFile;
+	
+	private volatile MappedByteBuffer data;		//null if there is no lexicon.bin yet
+	
+	//Entries in the log, which aren't in data yet
+	private final ConcurrentHashMap<String, int[]> recent = new ConcurrentHashMap<>();
+	private DataOutputStream log;
+	
+	
+	private StressLexicon(Path directory) throws IOException
+	{
+		this.directory = directory;
+		dataFile = directory.resolve("lexicon.bin");
+		logFile = directory.resolve("lexicon.log");
+		
+		Files.createDirectories(directory);
+		if (Files.exists(dataFile))
+			map();
+		
+		replayLog();
+		log = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(logFile,
+				StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+	}
+	
+	//Opens the lexicon in directory, creating it if it doesn't exist
+	public static StressLexicon open(Path directory) throws IOException
+	{
+		return new StressLexicon(directory);
+	}
+	
+	/*
+	 * Returns the indexes of the stressed vowels of word (an empty array if word can't be stressed),
+	 * or null if word isn't in the lexicon. The array is the caller's: changing it doesn't change the lexicon.
+	 */
+	@Override
+	public int[] getStresses(String word)
+	{
+		word = StressCache.normalize(word);
+		
+		int[] stresses = recent.get(word);
+		if (stresses != null)
+			return stresses.clone();		//compact() writes the array in recent to lexicon.bin
+		
+		MappedByteBuffer data = this.data;
+		if (data == null)
+			return null;
+		
+		byte[] key = word.getBytes(StandardCharsets.UTF_8);
+		int count = data.getInt(8);
+		int low = 0, high = count - 1, middle, comparison;
+		while (low <= high)
+		{
+			middle = (low + high) >>> 1;
+			int entry = entry(data, count, middle);
+			
+			comparison = compare(data, entry, key);
+			if (comparison < 0)
+				low = middle + 1;
+			else if (comparison > 0)
+				high = middle - 1;
+			else
+				return readStresses(data, entry + 2 + key.length);
+		}
+		
+		return null;
+	}
+	
+	/*
+	 * Adds word to the lexicon (or replaces it)
+	 * stresses: indexes of the stressed vowels of word; empty if word can't be stressed
+	 */
+	public void record(String word, int[] stresses) throws IOException
+	{
+		word = StressCache.normalize(word);
+		byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+		if (bytes.length > Short.MAX_VALUE || stresses.length > Byte.MAX_VALUE)
+			throw new IllegalArgumentException("word is too long for the lexicon: " + word);
+		
+		stresses = stresses.clone();
+		synchronized (this)
+		{
+			if (log == null)
+				throw new IOException("lexicon is closed");
+			
+			writeEntry(log, bytes, stresses);
+			log.flush();
+			
+			recent.put(word, stresses);
+		}
+	}
+	
+	//Same as record, but a failure to write is only reported (lookups still work without the log)
+	@Override
+	public void remember(String word, int[] stresses)
+	{
+		try {
+			record(word, stresses);
+		} catch (IOException e) {
+			System.out.println("WARNING: couldn't add word " + word + " to the lexicon (" + e.getMessage() + ")");
+		}
+	}
+	
+	//Number of words in the lexicon (words in the log that replace words in lexicon.bin are counted twice)
+	public int size()
+	{
+		MappedByteBuffer data = this.data;
+		return ((data == null)? 0 : data.getInt(8)) + recent.size();
+	}
+	
+	/*
+	 * Merges the log into lexicon.bin. The new file is written next to the old one and then moved over it,
+	 * so lookups can continue during compaction, and a crash can't leave a half-written lexicon.bin.
+	 * Only the words from the log are held in memory; the old entries are copied straight from the mapped file.
+	 */
+	public synchronized void compact() throws IOException
+	{
+		if (recent.isEmpty())
+			return;
+		
+		//Words from the log, sorted by UTF-8 bytes (the order of lexicon.bin)
+		TreeMap<byte[], int[]> added = new TreeMap<>(Arrays::compareUnsigned);
+		for (Map.Entry<String, int[]> entry : recent.entrySet())
+			added.put(entry.getKey().getBytes(StandardCharsets.UTF_8), entry.getValue());
+		
+		byte[][] words = added.keySet().toArray(new byte[0][]);
+		int[][] stresses = added.values().toArray(new int[0][]);
+		
+		MappedByteBuffer data = this.data;
+		int count = (data == null)? 0 : data.getInt(8);
+		
+		Path temporary = directory.resolve("lexicon.bin.tmp");
+		try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary))))
+		{
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.writeInt(merge(data, count, words, stresses, null, false));
+			merge(data, count, words, stresses, output, true);		//offsets
+			merge(data, count, words, stresses, output, false);		//entries
+		}
+		try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE))
+		{
+			channel.force(true);
+		}
+		
+		Files.move(temporary, dataFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		map();
+		
+		//Everything in the log is in lexicon.bin now
+		log.close();
+		log = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(logFile,
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)));
+		recent.clear();
+	}
+	
+	/*
+	 * Goes through the entries of data and the words from the log in sorted order (a word from the log replaces
+	 * the same word in data) and returns how many there are.
+	 * If output isn't null, writes either the offset of every entry (offsets = true) or the entries themselves.
+	 */
+	private static int merge(MappedByteBuffer data, int count, byte[][] words, int[][] stresses,
+			DataOutputStream output, boolean offsets) throws IOException
+	{
+		int i = 0, j = 0, merged = 0, offset = 0, comparison, entry, length;
+		while (i < count || j < words.length)
+		{
+			if (i == count)
+				comparison = 1;
+			else if (j == words.length)
+				comparison = -1;
+			else
+				comparison = compare(data, entry(data, count, i), words[j]);
+			
+			if (comparison < 0)		//entry from data
+			{
+				entry = entry(data, count, i++);
+				length = 2 + data.getShort(entry) + 1;
+				length += 2 * data.get(entry + length - 1);
+				
+				if (output != null && !offsets)
+				{
+					for (int k = 0; k < length; k++)
+						output.write(data.get(entry + k));
+				}
+			}
+			else		//word from the log
+			{
+				if (comparison == 0)
+					i++;
+				
+				length = 2 + words[j].length + 1 + 2 * stresses[j].length;
+				if (output != null && !offsets)
+					writeEntry(output, words[j], stresses[j]);
+				j++;
+			}
+			
+			if (output != null && offsets)
+				output.writeInt(offset);
+			offset += length;
+			merged++;
+		}
+		
+		return merged;
+	}
+	
+	//Compacts the lexicon and closes the log
+	@Override
+	public synchronized void close() throws IOException
+	{
+		if (log == null)
+			return;
+		
+		compact();
+		log.close();
+		log = null;
+	}
+	
+	
+	//Maps lexicon.bin into memory (the mapping stays valid after the channel is closed)
+	private void map() throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(dataFile, StandardOpenOption.READ))
+		{
+			MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (mapped.limit() < HEADER || mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION)
+				throw new IOException(dataFile + " is not a stress lexicon");
+			
+			data = mapped;
+		}
+	}
+	
+	//Reads the entries in lexicon.log into recent; a record cut off by a crash is dropped from the log
+	private void replayLog() throws IOException
+	{
+		if (!Files.exists(logFile))
+			return;
+		
+		long complete = 0;
+		try (InputStream stream = new BufferedInputStream(Files.newInputStream(logFile)))
+		{
+			DataInputStream input = new DataInputStream(stream);
+			while (true)
+			{
+				byte[] word = new byte[input.readUnsignedShort()];
+				input.readFully(word);
+				int[] stresses = new int[input.readUnsignedByte()];
+				for (int i = 0; i < stresses.length; i++)
+					stresses[i] = input.readShort();
+				
+				recent.put(new String(word, StandardCharsets.UTF_8), stresses);
+				complete += 2 + word.length + 1 + 2 * stresses.length;
+			}
+		} catch (EOFException e) {
+			//End of the log
+		}
+		
+		if (complete < Files.size(logFile))
+		{
+			try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.WRITE))
+			{
+				channel.truncate(complete);
+			}
+		}
+	}
+	
+	private static void writeEntry(DataOutputStream output, byte[] word, int[] stresses) throws IOException
+	{
+		output.writeShort(word.length);
+		output.write(word);
+		output.writeByte(stresses.length);
+		for (int stress : stresses)
+			output.writeShort(stress);
+	}
+	
+	//Position of the index-th entry in data
+	private static int entry(MappedByteBuffer data, int count, int index)
+	{
+		return HEADER + 4 * count + data.getInt(HEADER + 4 * index);
+	}
+	
+	private static int[] readStresses(MappedByteBuffer data, int position)
+	{
+		int length = data.get(position);
+		if (length == 0)
+			return NO_STRESS;
+		
+		int[] stresses = new int[length];
+		for (int i = 0; i < length; i++)
+			stresses[i] = data.getShort(position + 1 + 2 * i);
+		return stresses;
+	}
+	
+	//Compares the word of the entry at position with key, byte by byte (unsigned)
+	private static int compare(MappedByteBuffer data, int position, byte[] key)
+	{
+		int length = data.getShort(position);
+		int shorter = Math.min(length, key.length);
+		for (int i = 0; i < shorter; i++)
+		{
+			int comparison = Byte.toUnsignedInt(data.get(position + 2 + i)) - Byte.toUnsignedInt(key[i]);
+			if (comparison != 0)
+				return comparison;
+		}
+		return length - key.length;
+	}
+
+}
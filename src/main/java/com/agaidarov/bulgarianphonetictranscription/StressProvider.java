@@ -0,0 +1,83 @@
+/**
+ * 10/18/2026
+ * 
+ * A source of the stresses of Bulgarian words (e.g. a cache, a file on disk, a set of rules or a website).
+ * 
+ * PhoneticConverter asks its StressProvider whenever the stress of a word isn't marked. Several providers can be
+ * put one after another in a StressChain, so that the fast ones are asked first and the slow ones only when needed.
+ * 
+ * Words are always given in lowercase and without stress marks. Stresses are the indexes of the stressed vowels
+ * in the word, in increasing order.
+ * 
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+public interface StressProvider {
+	
+	/*
+	 * Returns the indexes of the stressed vowels of word,
+	 * an empty array if this provider knows that word can't be stressed,
+	 * or null if this provider doesn't know the word
+	 */
+	int[] getStresses(String word);
+	
+	/*
+	 * Returns the stresses of all the words this provider knows (words it doesn't know are left out of the map).
+	 * Providers that can look up many words more cheaply than one by one (e.g. in a single request) override this.
+	 */
+	default Map<String, int[]> getStresses(Collection<String> words)
+	{
+		Map<String, int[]> found = new HashMap<>();
+		for (String word : words)
+		{
+			int[] stresses = getStresses(word);
+			if (stresses != null)
+				found.put(word, stresses);
+		}
+		return found;
+	}
+	
+	/*
+	 * Same as getStresses(words), and also puts into sources where the stresses of every word found came from.
+	 * A StressChain gives the source of the provider in it that knew the word.
+	 */
+	default Map<String, int[]> getStresses(Collection<String> words, Map<String, StressSource> sources)
+	{
+		Map<String, int[]> found = getStresses(words);
+		for (String word : found.keySet())
+			sources.put(word, getSource());
+		return found;
+	}
+	
+	/*
+	 * Called by StressChain when a provider after this one found the stresses of word,
+	 * so that providers that can store words (caches) will know them next time
+	 */
+	default void remember(String word, int[] stresses)
+	{
+	}
+	
+	//False for providers that only guess; their answers aren't remembered by the other providers
+	default boolean isExact()
+	{
+		return true;
+	}
+	
+	//Where the stresses of this provider come from (see TranscriptionResult)
+	default StressSource getSource()
+	{
+		return isExact()? StressSource.CACHE : StressSource.GUESS;
+	}
+	
+	//Name used in statistics
+	default String getName()
+	{
+		return getClass().getSimpleName();
+	}
+
+}
@@ -0,0 +1,18 @@
+/**
+ * 10/18/2026
+ * 
+ * Where the stress of a word in a TranscriptionResult came from.
+ * 
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+public enum StressSource {
+	
+	MARK,		//the word had stress marks in the text
+	CACHE,		//a provider that keeps stresses it already knows (StressCache, StressLexicon, or any other exact provider)
+	WEB,		//a provider that asks a website (SlovoredStressProvider)
+	GUESS,		//a provider that only guesses (RuleBasedStressProvider), or nobody knew and the first vowel was stressed
+	NONE		//the word wasn't stressed (a clitic in a passage, a word without vowels, or before a sandhi)
+
+}
@@ -0,0 +1,124 @@
+/**
+ * 10/18/2026
+ *
+ * This class splits words into syllables by index, without making a String (or boxing an Integer) along the way,
+ * so that whole books can be hyphenated without the garbage of PhoneticConverter.getSyllables.
+ *
+ * The rules are exactly those of getSyllables: "дж" counts as one letter, two vowels at the start or at the end
+ * of a word stay in one syllable, the consonants between two vowels are split in half (a 'ь' before 'о' stays
+ * with the 'о'), and the last syllable takes all the consonants after its vowel. The parts of a hyphenated word
+ * are split on their own, and the '-' isn't part of any syllable. Letters are lowercased as they are read.
+ *
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+final class Syllables {
+	
+	private Syllables()
+	{
+	}
+	
+	/*
+	 * Splits word[start..end) into syllables and writes the start and end (indexes in word) of syllable i
+	 * to bounds[2 * i] and bounds[2 * i + 1]. Returns the number of syllables.
+	 * Throws IndexOutOfBoundsException where getSyllables does (e.g. a part with fewer than 2 letters or without vowels),
+	 * and IllegalArgumentException if bounds is too short.
+	 */
+	static int split(CharSequence word, int start, int end, int[] bounds)
+	{
+		int count = 0, partStart = start;
+		for (int i = start; i <= end; i++)
+		{
+			if (i == end || word.charAt(i) == '-')
+			{
+				count = splitPart(word, partStart, i, bounds, count);
+				partStart = i + 1;
+			}
+		}
+		return count;
+	}
+	
+	//Splits one part of a word (without '-') into syllables, written after the first count syllables of bounds
+	private static int splitPart(CharSequence word, int start, int end, int[] bounds, int count)
+	{
+		//Count the letters ("дж" as one) and the vowels
+		int letters = 0, vowels = 0;
+		for (int i = start; i < end; i = next(word, i, end))
+		{
+			letters++;
+			if (CharClasses.isVowel(lower(word, i)))
+				vowels++;
+		}
+		if (letters < 2)
+			throw new StringIndexOutOfBoundsException("index " + (letters - 2) + ", length " + letters);
+		
+		//Vowels are single letters, so "the first two letters are vowels" can be checked on the chars themselves
+		boolean skipFirst = CharClasses.isVowel(lower(word, start)) && CharClasses.isVowel(lower(word, start + 1));
+		boolean skipLast = CharClasses.isVowel(lower(word, end - 2)) && CharClasses.isVowel(lower(word, end - 1));
+		int syllables = vowels - (skipFirst? 1 : 0) - (skipLast? 1 : 0);
+		if (syllables <= 0)
+			throw new IndexOutOfBoundsException("no syllables in " + word.subSequence(start, end));
+		if (bounds.length < 2 * (count + syllables))
+			throw new IllegalArgumentException("bounds needs room for " + 2 * (count + syllables) + " indexes");
+		
+		//Move to the vowel of the first syllable
+		int vowel = start;
+		while (!CharClasses.isVowel(lower(word, vowel)))
+			vowel = next(word, vowel, end);
+		if (skipFirst)
+		{
+			vowel++;
+			while (!CharClasses.isVowel(lower(word, vowel)))
+				vowel = next(word, vowel, end);
+		}
+		
+		int syllableStart = start, clusterEnd, length, split, syllableEnd;
+		for (int s = 0; s < syllables; s++)
+		{
+			//The consonants after the vowel run to the next vowel (for the last syllable, to the end of the word)
+			clusterEnd = end;
+			length = 0;
+			for (int i = vowel + 1; i < end; i = next(word, i, end))
+			{
+				if (s < syllables - 1 && CharClasses.isVowel(lower(word, i)))
+				{
+					clusterEnd = i;
+					break;
+				}
+				length++;
+			}
+			
+			if (length > 0 && lower(word, clusterEnd - 1) == 'ь')
+				length--;	//ensures that 'ь' is always before 'o' and that "ьо" is considered a vowel
+			split = (s == syllables - 1)? length : length / 2;
+			
+			syllableEnd = vowel + 1;
+			for (int i = 0; i < split; i++)
+				syllableEnd = next(word, syllableEnd, end);
+			
+			bounds[2 * count] = syllableStart;
+			bounds[2 * count + 1] = syllableEnd;
+			count++;
+			
+			syllableStart = syllableEnd;
+			vowel = clusterEnd;
+		}
+		
+		return count;
+	}
+	
+	//Index of the letter after the one at i ("дж" is one letter)
+	private static int next(CharSequence word, int i, int end)
+	{
+		if (i + 1 < end && lower(word, i) == 'д' && lower(word, i + 1) == 'ж')
+			return i + 2;
+		return i + 1;
+	}
+	
+	private static char lower(CharSequence word, int i)
+	{
+		return CharClasses.toLowerCase(word.charAt(i));		//UNFOLDED isn't a vowel or any letter looked for here
+	}
+
+}
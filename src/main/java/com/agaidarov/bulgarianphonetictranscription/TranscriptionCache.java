@@ -0,0 +1,144 @@
+/**
+ * 10/18/2026
+ *
+ * This class remembers the transcriptions of single words, so that a word that comes up again with the same stresses
+ * is a hash lookup instead of another run of phonotation, syllable splitting and IPA emission.
+ *
+ * An entry is keyed by everything the transcription depends on: the lowercase word, its stress indexes,
+ * whether the second stress is primary, word-final devoicing, dashes and links. Loan words only matter for words
+ * that start with 'у', so only those keys include them. One cache can therefore be shared by several converters
+ * (with or without links) and threads.
+ *
+ * Like StressCache, the cache is bounded by the number of entries and by their estimated size in bytes.
+ * Warnings about bad stress indexes are still printed on every call, since they come before the cache is consulted.
+ *
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+import java.util.Arrays;
+
+public class TranscriptionCache {
+	
+	public static final int DEFAULT_MAX_ENTRIES = 50_000;
+	public static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+	
+	private final BoundedCache<Key, String> cache;
+	
+	
+	public TranscriptionCache()
+	{
+		this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BYTES);
+	}
+	
+	/*
+	 * maxEntries: the maximum number of transcriptions kept (0 turns the cache off)
+	 * maxBytes: the maximum estimated memory used by the words and their transcriptions
+	 */
+	public TranscriptionCache(int maxEntries, long maxBytes)
+	{
+		//Two Strings (about 40 bytes plus 2 per character each), the key and the entry itself (about 40 bytes each)
+		cache = new BoundedCache<>(maxEntries, maxBytes, (key, transcribed) -> 160 + 2 * (key.word.length() + transcribed.length()));
+	}
+	
+	//Returns the transcription stored for key, or null if there isn't one
+	String get(Key key)
+	{
+		return cache.get(key);
+	}
+	
+	void put(Key key, String transcribed)
+	{
+		cache.put(key, transcribed);
+	}
+	
+	public void clear()
+	{
+		cache.clear();
+	}
+	
+	public int size()
+	{
+		return cache.size();
+	}
+	
+	//Estimated memory used by the cached transcriptions, in bytes
+	public long bytes()
+	{
+		return cache.bytes();
+	}
+	
+	public long hits()
+	{
+		return cache.hits();
+	}
+	
+	public long misses()
+	{
+		return cache.misses();
+	}
+	
+	public long evictions()
+	{
+		return cache.evictions();
+	}
+	
+	@Override
+	public String toString()
+	{
+		return "TranscriptionCache[size=" + size() + ", bytes=" + bytes() + ", hits=" + hits() + ", misses=" + misses() +
+				", evictions=" + evictions() + "]";
+	}
+	
+	
+	//What a transcription depends on
+	static final class Key {
+		
+		private static final int DEVOICE = 1, DASHED = 2, LINKS = 4, PRIMARY = 8;
+		
+		private final String word;		//lowercase
+		private final int stressedIndex, secondStress;		//secondStress is -1 for words with one stress
+		private final int flags;
+		private final String[] loanWords;		//null unless word starts with 'у'
+		private final int hash;
+		
+		/*
+		 * word: a non-empty word, already lowercased
+		 * primary: only matters if the word has a second stress
+		 */
+		Key(String word, int stressedIndex, int secondStress, boolean primary, boolean links, boolean devoice, boolean dashed,
+				String[] loanWords)
+		{
+			this.word = word;
+			this.stressedIndex = stressedIndex;
+			this.secondStress = secondStress;
+			flags = (devoice? DEVOICE : 0) | (dashed? DASHED : 0) | (links? LINKS : 0) | (primary && secondStress != -1? PRIMARY : 0);
+			this.loanWords = (word.charAt(0) == 'у')? loanWords : null;
+			
+			int hash = word.hashCode();
+			hash = 31 * hash + stressedIndex;
+			hash = 31 * hash + secondStress;
+			this.hash = 31 * hash + flags;
+		}
+		
+		@Override
+		public boolean equals(Object other)
+		{
+			if (this == other)
+				return true;
+			if (!(other instanceof Key))
+				return false;
+			
+			Key key = (Key) other;
+			return hash == key.hash && stressedIndex == key.stressedIndex && secondStress == key.secondStress &&
+					flags == key.flags && word.equals(key.word) && Arrays.equals(loanWords, key.loanWords);
+		}
+		
+		@Override
+		public int hashCode()
+		{
+			return hash;
+		}
+	}
+
+}
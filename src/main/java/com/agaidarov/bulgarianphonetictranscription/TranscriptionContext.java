@@ -0,0 +1,57 @@
+/**
+ * 10/18/2026
+ * 
+ * This class holds the state of a single call to one of PhoneticConverter's public methods.
+ * 
+ * It used to live in instance fields of PhoneticConverter, which meant a converter couldn't be shared between threads.
+ * A new context is made at the start of every public call and handed down through the recursive calls,
+ * so the converter itself never changes while transcribing.
+ * 
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+import java.util.Map;
+
+class TranscriptionContext {
+
+	//If true, then multiple words are being transcribed at once and must take into account clitics and sandhi
+	boolean passage = false;
+	
+	boolean devoice = true;		//if true, word-final devoicing of obstruents occurs; if false, then sandhi is overriding that
+	boolean dashed = false;		//if true, the word being transcribed has a '-' 
+	boolean lookUp = true;		//if false, the stresses of unmarked words aren't looked up (e.g. they already were)
+	
+	//The converter's clitics and loan words when the call started (they can be replaced by the deprecated setters)
+	final String[] clitics;
+	final String[] loanWords;
+	
+	//Only while a TranscriptionResult is made: where the stresses of looked up words came from,
+	//and the source and stresses (without stress marks) that the last word was transcribed with
+	Map<String, StressSource> sources = null;
+	StressSource source;
+	int[] stresses;
+	
+	
+	TranscriptionContext(String[] clitics, String[] loanWords)
+	{
+		this.clitics = clitics;
+		this.loanWords = loanWords;
+	}
+	
+	//Keeps the stresses (-1 for none) a word is transcribed with, if a TranscriptionResult is being made
+	void record(StressSource source, int stressedIndex, int secondStress)
+	{
+		if (sources == null)
+			return;
+		
+		this.source = source;
+		if (stressedIndex == -1)
+			stresses = new int[0];
+		else if (secondStress == -1)
+			stresses = new int[] {stressedIndex};
+		else
+			stresses = new int[] {stressedIndex, secondStress};
+	}
+	
+}
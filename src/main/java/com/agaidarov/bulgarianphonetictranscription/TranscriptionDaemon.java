@@ -0,0 +1,353 @@
+/**
+ * 10/18/2026
+ *
+ * The resident mode of the command line (Cli --daemon and --connect): one process keeps a warmed up converter
+ * (with its stress and transcription caches) and transcribes what clients send to a Unix domain socket,
+ * so a short text doesn't have to wait for a new JVM to start and compile the transcription code.
+ *
+ * A connection is one request. The client sends the text and shuts down its side of the connection;
+ * the daemon sends back the transcription and closes the connection. The text may start with a header line,
+ *
+ *   #bgipa1<tab>option<tab>option ...
+ *
+ * whose options (--format, --field and --jsonl, with their values as separate options) apply to this request only,
+ * and --status, which asks for a status line after the transcription: '\0' followed by "OK" or "ERROR <message>".
+ * Without a header the text is transcribed with the daemon's own options, so any client that can write to a socket
+ * (e.g. nc -U or socat) can be used. The other options (stress, lexicon, links, threads, cache) are the daemon's.
+ *
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+class TranscriptionDaemon {
+	
+	static final String HEADER = "#bgipa1";
+	static final char END = '\u0000';		//starts the status line
+	
+	private static final int BUFFER = 1 << 16;
+	private static final long WARM_UP_NANOS = 2_000_000_000L;
+	
+	//Text the converter is warmed up with before the socket is opened
+	private static final String[] SAMPLES = {
+			"Тази програма прави фонетична транскрипция.",
+			"От град до град пътят минава през гората и край реката.",
+			"Джамията, бозата и дзифтът са думи от турски произход.",
+			"Най-красивата ябълка в градината е узряла през юли.",
+			"Ще се видим утре вечерта в седем часа пред театъра."
+	};
+	
+	private final Cli cli;
+	
+	
+	//cli: the options of the daemon, with the converter already built
+	TranscriptionDaemon(Cli cli)
+	{
+		this.cli = cli;
+	}
+	
+	/*
+	 * Listens on socket until the process is stopped (the socket file is then removed).
+	 * Fails if socket is a file or directory, or another daemon is already listening on it.
+	 */
+	void serve(Path socket) throws IOException
+	{
+		warmUp();
+		
+		ServerSocketChannel server = open(socket);
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			try {
+				Files.deleteIfExists(socket);
+			} catch (IOException e) {
+				//the process is stopping anyway
+			}
+		}));
+		
+		ExecutorService connections = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "connection");
+			thread.setDaemon(true);
+			return thread;
+		});
+		Cli.errors.println("Cli: listening on " + socket);
+		
+		while (true)
+		{
+			SocketChannel channel = server.accept();
+			connections.execute(() -> handle(channel));
+		}
+	}
+	
+	/*
+	 * Sends the inputs (files, or "-" for standard input) to the daemon at socket, with options for this request,
+	 * and writes the transcription to output (standard output if null). Returns the exit status, as Cli.run does.
+	 */
+	int connect(Path socket, List<String> options, List<String> inputs, Path output)
+	{
+		try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socket));
+				OutputStream out = openOutput(output))
+		{
+			StringBuilder header = new StringBuilder(HEADER);
+			for (String option : options)
+				header.append('\t').append(option);
+			header.append("\t--status\n");
+			write(channel, ByteBuffer.wrap(header.toString().getBytes(StandardCharsets.UTF_8)));
+			
+			//The input is sent while the transcription comes back, so neither side waits for the other to read
+			IOException[] sendFailure = new IOException[1];
+			Thread sender = new Thread(() -> {
+				try {
+					send(inputs, channel);
+				} catch (IOException e) {
+					sendFailure[0] = e;
+				} finally {
+					try {
+						channel.shutdownOutput();
+					} catch (IOException e) {
+						//the daemon is gone; receive will notice
+					}
+				}
+			}, "sender");
+			sender.setDaemon(true);
+			sender.start();
+			
+			String status = receive(channel, out);
+			out.flush();
+			sender.join();
+			
+			if (sendFailure[0] != null)
+			{
+				Cli.errors.println("Cli: " + sendFailure[0].getMessage());
+				return 1;
+			}
+			if (status == null)
+			{
+				Cli.errors.println("Cli: the daemon closed the connection before it finished");
+				return 1;
+			}
+			if (!status.equals("OK"))
+			{
+				Cli.errors.println("Cli: " + (status.startsWith("ERROR ")? status.substring(6) : status));
+				return 1;
+			}
+			return 0;
+		} catch (IOException e) {
+			Cli.errors.println("Cli: couldn't transcribe with the daemon at " + socket + ": " + e.getMessage());
+			return 1;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return 1;
+		}
+	}
+	
+	
+	//Transcribes a few passages for a while, so the transcription code is compiled before the first request
+	private void warmUp()
+	{
+		PhoneticConverter converter = PhoneticConverter.builder().links(cli.isLinks()).build();		//doesn't fill the daemon's caches
+		long end = System.nanoTime() + WARM_UP_NANOS;
+		while (System.nanoTime() < end)
+		{
+			for (String sample : SAMPLES)
+				converter.toPhonetic(sample);
+		}
+	}
+	
+	private static ServerSocketChannel open(Path socket) throws IOException
+	{
+		if (Files.isRegularFile(socket) || Files.isDirectory(socket))
+			throw new IOException(socket + " exists and isn't a socket");
+		
+		if (Files.exists(socket))
+		{
+			if (isListening(socket))
+				throw new IOException("a daemon is already listening on " + socket);
+			Files.delete(socket);		//left behind by a daemon that was killed
+		}
+		
+		/*
+		 * A socket file is made with the umask's permissions and is listened on as soon as it is bound, so it is bound
+		 * in a directory only this user can enter, made private (rw-------) and only then moved to where it belongs.
+		 * Nobody else can connect in between.
+		 */
+		Path directory;
+		try {
+			directory = Files.createTempDirectory(socket.toAbsolutePath().getParent(), ".bgipa",
+					PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+		} catch (UnsupportedOperationException e) {		//not a POSIX file system; the directory's permissions still apply
+			ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+			server.bind(UnixDomainSocketAddress.of(socket));
+			return server;
+		}
+		
+		Path bound = directory.resolve("socket");
+		ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+		try {
+			server.bind(UnixDomainSocketAddress.of(bound));
+			Files.setPosixFilePermissions(bound, PosixFilePermissions.fromString("rw-------"));		//only this user can connect
+			Files.move(bound, socket, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException | RuntimeException e) {
+			server.close();
+			Files.deleteIfExists(bound);
+			throw e;
+		} finally {
+			Files.deleteIfExists(directory);
+		}
+		return server;
+	}
+	
+	private static boolean isListening(Path socket)
+	{
+		try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socket))) {
+			return channel.isConnected();
+		} catch (IOException e) {
+			return false;
+		}
+	}
+	
+	//Reads a request from channel, transcribes it and sends back the transcription (and the status, if asked for)
+	private void handle(SocketChannel channel)
+	{
+		try (channel)
+		{
+			BufferedReader input = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8), BUFFER);
+			Writer output = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), BUFFER);
+			
+			List<String> options = readHeader(input);
+			boolean status = options.remove("--status");
+			
+			String error = null;
+			try {
+				cli.forRequest(options).transcribe(input, output);
+			} catch (IOException | UncheckedIOException | IllegalArgumentException e) {
+				error = e.getMessage();
+				Cli.errors.println("Cli: " + error);
+			} catch (RuntimeException e) {		//the daemon keeps running, and the client is told what went wrong
+				error = "couldn't transcribe the request: " + e;
+				Cli.errors.println("Cli: " + error);
+			}
+			
+			if (status)
+				output.write(END + ((error == null)? "OK" : "ERROR " + error.replace('\n', ' ')) + "\n");
+			output.flush();
+		} catch (IOException e) {
+			Cli.errors.println("Cli: " + e.getMessage());		//the client went away
+		}
+	}
+	
+	//Returns the options in the header of a request, or none if it doesn't have one (then nothing is read)
+	private static List<String> readHeader(BufferedReader input) throws IOException
+	{
+		input.mark(HEADER.length());
+		char[] start = new char[HEADER.length()];
+		int read = 0, count;
+		while (read < start.length && (count = input.read(start, read, start.length - read)) > 0)
+			read += count;
+		
+		if (read < start.length || !new String(start).equals(HEADER))
+		{
+			input.reset();
+			return new ArrayList<>();
+		}
+		
+		String line = input.readLine();
+		List<String> options = new ArrayList<>();
+		if (line != null)
+		{
+			for (String option : line.split("\t"))
+			{
+				if (!option.isEmpty())
+					options.add(option);
+			}
+		}
+		return options;
+	}
+	
+	//Copies the inputs to channel
+	private static void send(List<String> inputs, SocketChannel channel) throws IOException
+	{
+		byte[] bytes = new byte[BUFFER];
+		for (String input : inputs)
+		{
+			try (InputStream stream = input.equals("-")? new FileInputStream(FileDescriptor.in) : Files.newInputStream(Paths.get(input)))
+			{
+				int read;
+				while ((read = stream.read(bytes)) > 0)
+					write(channel, ByteBuffer.wrap(bytes, 0, read));
+			}
+		}
+	}
+	
+	//Copies the transcription from channel to output; returns the status line, or null if there wasn't one
+	private static String receive(SocketChannel channel, OutputStream output) throws IOException
+	{
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER);
+		ByteArrayOutputStream status = null;
+		while (channel.read(buffer) >= 0)
+		{
+			buffer.flip();
+			byte[] bytes = Arrays.copyOf(buffer.array(), buffer.limit());
+			buffer.clear();
+			
+			if (status != null)
+			{
+				status.write(bytes);
+				continue;
+			}
+			
+			int end = 0;
+			while (end < bytes.length && bytes[end] != END)		//'\0' is never part of another character in UTF-8
+				end++;
+			output.write(bytes, 0, end);
+			if (end < bytes.length)
+			{
+				status = new ByteArrayOutputStream();
+				status.write(bytes, end + 1, bytes.length - end - 1);
+			}
+		}
+		
+		return (status == null)? null : status.toString(StandardCharsets.UTF_8).strip();
+	}
+	
+	private static void write(SocketChannel channel, ByteBuffer bytes) throws IOException
+	{
+		while (bytes.hasRemaining())
+			channel.write(bytes);
+	}
+	
+	private static OutputStream openOutput(Path output) throws IOException
+	{
+		if (output == null)
+			return new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), BUFFER);
+		return new BufferedOutputStream(Files.newOutputStream(output), BUFFER);
+	}
+
+}
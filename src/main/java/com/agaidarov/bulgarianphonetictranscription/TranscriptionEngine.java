@@ -0,0 +1,766 @@
+/**
+ * 10/18/2026
+ *
+ * This class is the single-word transcription engine behind PhoneticConverter.toPhonetic(String, int).
+ *
+ * It performs the same steps as the original String-based code (lowercasing, phonotation, "дж"/"дз" folding,
+ * stress mark insertion and IPA emission), but works on reusable char arrays and a single StringBuilder,
+ * so a word no longer costs a new String per letter and per cluster.
+ * 
+ * Most words are run through a Transducer, which does phonotation, folding and emission in one pass
+ * (the stress mark is inserted afterwards). Words it doesn't cover take the step-by-step way.
+ * A word whose stress isn't known can be prepared once and then rendered with every stress (see prepare).
+ *
+ * An engine keeps scratch buffers between calls, so one instance must not be used by two threads at once.
+ *
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+class TranscriptionEngine {
+	
+	private final boolean links;
+	private final IpaTable ipa;
+	private final Transducer transducer;
+	
+	private char[] word = new char[32];		//lowercased input, later the word spelled as it is pronounced
+	private char[] spelled = new char[64];	//output of phonotation
+	private int[] offsets = new int[64];	//where the IPA of every letter in spelled starts in transcribed
+	private int spelledLength;				//length of spelled after transduce
+	private int[] folds = new int[8];		//where every "дж" was folded into 'j' by spell (indexes in word before the fold)
+	private int foldCount;
+	private boolean shifted;				//if true, spell made room for "d͡z" at the start of word
+	private char[] letters;					//what the last word was transcribed from: spelled or word
+	private int letterCount, stressedLetter, markLetter;	//its length, stressed letter and the letter after the stress mark (or -1)
+	private int stressedStart, stressedEnd;		//where the IDs of the stressed letter are in the IDs phonemes wrote last
+	private short[] phonemeIds = new short[64];		//what features gets the IDs in
+	private int[] bounds = new int[32];				//syllables of a word with two stresses
+	private final StringBuilder transcribed = new StringBuilder(64);
+	
+	
+	TranscriptionEngine(boolean links)
+	{
+		this.links = links;
+		ipa = IpaTable.of(links);
+		transducer = Transducer.of(links);
+	}
+	
+	/*
+	 * cyrillic: a single Bulgarian word without spaces or '-'
+	 * stressedIndex: index of the stressed vowel in cyrillic (-1 if the word doesn't have a stress)
+	 * loanWords: English loan word prefixes, in which 'у' is transcribed to 'w'
+	 * devoice: if true, word-final devoicing of obstruents occurs
+	 * dashed: if true, the word is part of a word with a '-' (forces a stress mark on one-syllable words)
+	 *
+	 * Returns exactly what PhoneticConverter.toPhonetic(cyrillic, stressedIndex) returned before this engine existed
+	 */
+	String transcribe(String cyrillic, int stressedIndex, String[] loanWords, boolean devoice, boolean dashed)
+	{
+		return transcribe(cyrillic, 0, cyrillic.length(), stressedIndex, loanWords, devoice, dashed);
+	}
+	
+	//Same as transcribe(String, ...) for the word text[offset..offset + count), which is read without copying it into a String
+	String transcribe(CharSequence text, int offset, int count, int stressedIndex, String[] loanWords, boolean devoice, boolean dashed)
+	{
+		build(text, offset, count, stressedIndex, loanWords, devoice, dashed);
+		return transcribed.toString();
+	}
+	
+	//Appends the same transcription to output without making a String of it; returns its length
+	int transcribe(CharSequence text, int offset, int count, int stressedIndex, String[] loanWords, boolean devoice, boolean dashed,
+			Appendable output) throws IOException
+	{
+		build(text, offset, count, stressedIndex, loanWords, devoice, dashed);
+		output.append(transcribed);
+		return transcribed.length();
+	}
+	
+	/*
+	 * Same as transcribe for a word with two stresses (see PhoneticConverter.toPhonetic(String, int, int, boolean)).
+	 * secondStress gets 'ˈ' if primary, otherwise 'ˌ'. Both stressed syllables are marked even if the word has one vowel,
+	 * and the marks are placed the way getSyllables measures syllables, as the original String-based code did.
+	 * Words with two stresses are rare, so they always take the step-by-step way.
+	 */
+	String transcribe(String cyrillic, int stressedIndex, int secondStress, boolean primary, String[] loanWords, boolean devoice)
+	{
+		int length = lowercase(cyrillic, 0, cyrillic.length());
+		if (length == 0)
+			throw new StringIndexOutOfBoundsException("cannot transcribe an empty word");
+		
+		length = spell(length, loanWords, devoice);
+		stressedIndex = adjust(stressedIndex, folds, foldCount, shifted);
+		secondStress = adjust(secondStress, folds, foldCount, shifted);
+		
+		//Stress marks go before the syllables that contain the stressed vowels, with every 'j' measured as "дж"
+		if (bounds.length < 2 * length)
+			bounds = new int[2 * length];
+		int syllables = Syllables.split(CharBuffer.wrap(word, 0, length), 0, length, bounds);
+		
+		int measured = 0, firstMark = -1, secondMark = -1, syllableLength;
+		for (int i = 0; i < syllables; i++)
+		{
+			syllableLength = bounds[2 * i + 1] - bounds[2 * i];
+			for (int j = bounds[2 * i]; j < bounds[2 * i + 1]; j++)
+			{
+				if (word[j] == 'j')
+					syllableLength++;
+			}
+			measured += syllableLength;
+			
+			if (firstMark == -1 && measured > stressedIndex)
+				firstMark = measured - syllableLength;
+			else if (secondMark == -1 && measured > secondStress)
+				secondMark = measured - syllableLength;
+		}
+		
+		transcribed.setLength(0);
+		char letter, nextLetter;
+		boolean stressed;
+		for (int i = 0; i < length; i++)
+		{
+			if (i == firstMark)
+				transcribed.append('ˈ');
+			else if (i == secondMark)
+				transcribed.append(primary? 'ˈ' : 'ˌ');
+			
+			letter = word[i];
+			stressed = (i == stressedIndex) || (i == secondStress);
+			
+			//'л' --> 'l' before 'и' or 'е'; 'н' --> 'ŋ' before 'к' or 'г'
+			if (letter == 'л' || letter == 'н')
+			{
+				nextLetter = (i < length - 1)? word[i + 1] : 0;
+				if (letter == 'л')
+					stressed = (nextLetter == 'и' || nextLetter == 'е');
+				else
+					stressed = (nextLetter == 'к' || nextLetter == 'г');
+			}
+			
+			ipa.append(letter, stressed, transcribed);
+		}
+		
+		return transcribed.toString();
+	}
+	
+	/*
+	 * Writes the phoneme IDs (see PhonemeInventory) of the same transcription into ids from start; returns how many were written.
+	 * They are made from the letters the IPA was made from, one letter at a time, so an affricate is one ID with or without links.
+	 * "дз" at the start of a word is the affricate "d͡z" (as links draw it), so it is one ID too; anywhere else it is 'd' and 'z'.
+	 */
+	int phonemes(CharSequence text, int offset, int count, int stressedIndex, String[] loanWords, boolean devoice, boolean dashed,
+			short[] ids, int start)
+	{
+		build(text, offset, count, stressedIndex, loanWords, devoice, dashed);
+		
+		int written = start, first = 0;
+		stressedStart = stressedEnd = -1;
+		if (letters == word && shifted)		//"d͡z" is three letters in word
+			first = 3;
+		else if (!links && letterCount > 1 && letters[0] == 'д' && letters[1] == 'з')		//without links it is still two
+			first = 2;
+		if (first > 0)
+		{
+			if (markLetter >= 0 && markLetter < first)
+				ids[written++] = PhonemeInventory.PRIMARY_STRESS;
+			ids[written++] = PhonemeInventory.getId("d͡z");
+		}
+		
+		char letter, nextLetter;
+		boolean stressed;
+		for (int i = first; i < letterCount; i++)
+		{
+			if (i == markLetter)
+				ids[written++] = PhonemeInventory.PRIMARY_STRESS;
+			
+			letter = letters[i];
+			stressed = (i == stressedLetter);
+			if (letter == 'л' || letter == 'н')
+			{
+				nextLetter = (i < letterCount - 1)? letters[i + 1] : 0;
+				if (letter == 'л')
+					stressed = (nextLetter == 'и' || nextLetter == 'е');
+				else
+					stressed = (nextLetter == 'к' || nextLetter == 'г');
+			}
+			
+			if (i == stressedLetter)
+				stressedStart = written;
+			written += ipa.appendPhonemes(letter, stressed, ids, written);
+			if (i == stressedLetter)
+				stressedEnd = written;
+		}
+		
+		return written - start;
+	}
+	
+	/*
+	 * Writes the ArticulatoryFeatures of the phonemes of the same transcription into features from start; returns how many
+	 * were written. Markers (the stress mark) aren't phonemes, so they aren't written: the vowel of the stressed letter is STRESSED.
+	 * Anything that isn't in the inventory is still written (as 0), so nothing is dropped without a trace.
+	 */
+	int features(CharSequence text, int offset, int count, int stressedIndex, String[] loanWords, boolean devoice, boolean dashed,
+			long[] features, int start)
+	{
+		if (phonemeIds.length < 2 * count + 4)		//"d͡z" may add a letter
+			phonemeIds = new short[Math.max(2 * phonemeIds.length, 2 * count + 4)];
+		int idCount = phonemes(text, offset, count, stressedIndex, loanWords, devoice, dashed, phonemeIds, 0);
+		
+		int written = start;
+		long phoneme;
+		for (int i = 0; i < idCount; i++)
+		{
+			if (phonemeIds[i] != PhonemeInventory.UNKNOWN && phonemeIds[i] <= PhonemeInventory.HYPHEN)
+				continue;
+			
+			phoneme = ArticulatoryFeatures.of(phonemeIds[i]);
+			
+			if (i >= stressedStart && i < stressedEnd && (phoneme & ArticulatoryFeatures.VOWEL) != 0)
+				phoneme |= ArticulatoryFeatures.STRESSED;
+			features[written++] = phoneme;
+		}
+		return written - start;
+	}
+	
+	//Leaves the transcription of text[offset..offset + count) in transcribed
+	private void build(CharSequence text, int offset, int count, int stressedIndex, String[] loanWords, boolean devoice, boolean dashed)
+	{
+		int length = lowercase(text, offset, count);
+		if (length == 0)
+			throw new StringIndexOutOfBoundsException("cannot transcribe an empty word");
+		
+		if (transduce(length, stressedIndex, devoice, dashed))
+			return;
+		
+		length = spell(length, loanWords, devoice);
+		stressedIndex = adjust(stressedIndex, folds, foldCount, shifted);
+		
+		int insertionIndex = -1;
+		if (stressedIndex != -1)
+		{
+			//No stress mark is needed if the word has only 1 vowel, unless it is dashed ("по", "най")
+			int vowelCount = 0;
+			for (int i = 0; i < length; i++)
+			{
+				if (CharClasses.isVowel(word[i]))
+					vowelCount++;
+			}
+			
+			if (vowelCount > 1 || dashed)
+				insertionIndex = getInsertionIndex(word, length, stressedIndex);
+		}
+		
+		letters = word;
+		letterCount = length;
+		stressedLetter = stressedIndex;
+		markLetter = insertionIndex;
+		
+		//Transcribe the word into IPA
+		transcribed.setLength(0);
+		char letter, nextLetter;
+		boolean stressed;
+		for (int i = 0; i < length; i++)
+		{
+			if (i == insertionIndex)
+				transcribed.append('ˈ');
+			
+			letter = word[i];
+			stressed = (i == stressedIndex);
+			
+			if (letter == 'л' || letter == 'н')
+			{
+				nextLetter = (i < length - 1)? word[i + 1] : 0;
+				
+				//'л' --> 'l' before 'и' or 'е'; 'н' --> 'ŋ' before 'к' or 'г'
+				if (letter == 'л')
+					stressed = (nextLetter == 'и' || nextLetter == 'е');
+				else
+					stressed = (nextLetter == 'к' || nextLetter == 'г');
+			}
+			
+			ipa.append(letter, stressed, transcribed);
+		}
+	}
+	
+	
+	/*
+	 * Does the part of transcribe that doesn't depend on the stress (phonotation, folding, the IPA of the consonants)
+	 * once, so that the transcriptions of the word with different stresses only re-render one letter and the stress mark.
+	 * prepare(cyrillic, loanWords, devoice).render(stressedIndex, dashed) equals transcribe with the same arguments.
+	 * The result doesn't share anything with this engine, so it can be kept and rendered later (or on another thread).
+	 */
+	Prepared prepare(String cyrillic, String[] loanWords, boolean devoice)
+	{
+		int length = lowercase(cyrillic, 0, cyrillic.length());
+		if (length == 0)
+			throw new StringIndexOutOfBoundsException("cannot transcribe an empty word");
+		
+		//The transducer only re-renders vowels; its consonants are whole clusters that don't depend on the stress
+		if (transduce(length, -1, devoice, false))
+		{
+			length = spelledLength;
+			boolean[] stressable = new boolean[length];
+			int[] jFolds = new int[length];
+			int jCount = 0;
+			for (int i = 0; i < length; i++)
+			{
+				stressable[i] = CharClasses.isVowel(spelled[i]);
+				if (spelled[i] == 'j')
+					jFolds[jCount++] = i;
+			}
+			
+			int[] starts = Arrays.copyOf(offsets, length + 1);
+			starts[length] = transcribed.length();
+			return new Prepared(ipa, Arrays.copyOf(spelled, length), transcribed.toString(), starts, stressable,
+					Arrays.copyOf(jFolds, jCount), false);
+		}
+		
+		length = spell(length, loanWords, devoice);
+		
+		//Every letter but 'л' and 'н' (which only depend on the next letter) is rendered by ipa with its stress
+		transcribed.setLength(0);
+		int[] starts = new int[length + 1];
+		boolean[] stressable = new boolean[length];
+		char letter, nextLetter;
+		for (int i = 0; i < length; i++)
+		{
+			starts[i] = transcribed.length();
+			letter = word[i];
+			
+			if (letter == 'л' || letter == 'н')
+			{
+				nextLetter = (i < length - 1)? word[i + 1] : 0;
+				if (letter == 'л')
+					ipa.append(letter, nextLetter == 'и' || nextLetter == 'е', transcribed);
+				else
+					ipa.append(letter, nextLetter == 'к' || nextLetter == 'г', transcribed);
+			}
+			else
+			{
+				stressable[i] = true;
+				ipa.append(letter, false, transcribed);
+			}
+		}
+		starts[length] = transcribed.length();
+		
+		return new Prepared(ipa, Arrays.copyOf(word, length), transcribed.toString(), starts, stressable,
+				Arrays.copyOf(folds, foldCount), shifted);
+	}
+	
+	
+	/*
+	 * The step-by-step way of spelling word[0..length) as it is pronounced: phonotation, loan words, folding "дж"
+	 * into 'j' and "дз" into "d͡z" (with links). The word ends up in word; returns its new length.
+	 * Where the folds happened is kept in folds and shifted, so adjust can move a stress index the same way.
+	 */
+	private int spell(int length, String[] loanWords, boolean devoice)
+	{
+		length = phonotation(length, devoice);		//the word is now in spelled
+		
+		//For English loan words, replace 'у' with 'w'
+		if (spelled[0] == 'у')
+		{
+			for (String loanWord : loanWords)
+			{
+				if (startsWith(spelled, length, loanWord))
+				{
+					spelled[0] = 'w';
+					break;
+				}
+			}
+		}
+		
+		//Fold "дж" into 'j' in the same pass that moves the word back into word
+		if (word.length < length + 2)
+			word = new char[spelled.length + 2];
+		
+		int folded = 0;
+		foldCount = 0;
+		int offset = 0;		//room for "d͡z", which is one letter longer than "дз"
+		if (links && length > 1 && spelled[0] == 'д' && spelled[1] == 'з')
+			offset = 1;
+		
+		for (int i = 0; i < length; i++)
+		{
+			if (spelled[i] == 'д' && i < length - 1 && spelled[i + 1] == 'ж')
+			{
+				if (foldCount == folds.length)
+					folds = Arrays.copyOf(folds, 2 * foldCount);
+				folds[foldCount++] = folded;
+				
+				word[offset + folded++] = 'j';
+				i++;
+			}
+			else
+				word[offset + folded++] = spelled[i];
+		}
+		length = folded;
+		
+		//The "d͡z" sound occurs only at the start of borrowed words
+		if (offset == 1)
+		{
+			word[0] = 'd';
+			word[1] = '͡';
+			word[2] = 'z';
+			length++;
+		}
+		shifted = (offset == 1);
+		
+		return length;
+	}
+	
+	/*
+	 * Moves stressedIndex the way folding moved the letters: back by one for every fold before it, then forward by one
+	 * for "d͡z". The stress index is positional, so this is done even when it doesn't point at the same vowel any more
+	 * (and -1 becomes 0 with "d͡z"), exactly as the original code did.
+	 */
+	private static int adjust(int stressedIndex, int[] folds, int foldCount, boolean shifted)
+	{
+		for (int i = 0; i < foldCount; i++)
+		{
+			if (stressedIndex > folds[i])
+				stressedIndex--;
+		}
+		return shifted? stressedIndex + 1 : stressedIndex;
+	}
+	
+	
+	//Copies the lowercase version of text[offset..offset + length) into word and returns its length
+	private int lowercase(CharSequence text, int offset, int length)
+	{
+		if (word.length < length + 2)
+			word = new char[length + 16];
+		
+		char letter;
+		for (int i = 0; i < length; i++)
+		{
+			letter = CharClasses.toLowerCase(text.charAt(offset + i));
+			
+			//Letters outside the Cyrillic block may have locale-specific lowercase forms of a different length
+			if (letter == CharClasses.UNFOLDED)
+				return copy(text.subSequence(offset, offset + length).toString().toLowerCase());
+			
+			word[i] = letter;
+		}
+		
+		return length;
+	}
+	
+	private int copy(String lowercase)
+	{
+		int length = lowercase.length();
+		if (word.length < length + 2)
+			word = new char[length + 16];
+		
+		lowercase.getChars(0, length, word, 0);
+		return length;
+	}
+	
+	
+	/*
+	 * Transcribes word[0..length) with the transducer into transcribed, or returns false if the word needs the step-by-step way:
+	 * it has a letter or a cluster that no state covers, or its start may change ('у' of a loan word, "дз" with links).
+	 * Writes the word spelled as it is pronounced to spelled, like the step-by-step way, to find the stress mark.
+	 */
+	private boolean transduce(int length, int stressedIndex, boolean devoice, boolean dashed)
+	{
+		if (word[0] == 'у')
+			return false;
+		
+		if (spelled.length < 2 * length + 2)
+			spelled = new char[2 * length + 16];
+		if (offsets.length < spelled.length)
+			offsets = new int[spelled.length];
+		transcribed.setLength(0);
+		
+		int state = 0, clusterLength = 0, folded = 0, vowelCount = 0, start;
+		char letter = 0;
+		Transducer.Output cluster;
+		for (int i = 0; i <= length; i++)
+		{
+			if (i < length)
+			{
+				letter = word[i];
+				if (!CharClasses.isVowel(letter))
+				{
+					state = Transducer.next(state, clusterLength++, letter);
+					if (state < 0)
+						return false;
+					continue;
+				}
+				cluster = transducer.beforeVowel(state, letter);
+			}
+			else
+				cluster = transducer.atEnd(state, devoice);
+			
+			if (folded == 0 && links && cluster.letters.startsWith("дз"))
+				return false;
+			
+			//Emit the cluster that ends here
+			start = transcribed.length();
+			for (int j = 0; j < cluster.letters.length(); j++)
+			{
+				spelled[folded] = cluster.letters.charAt(j);
+				offsets[folded] = start + cluster.starts[j];
+				if (spelled[folded] == 'j' && stressedIndex > folded)
+					stressedIndex--;
+				folded++;
+			}
+			transcribed.append(cluster.ipa);
+			
+			//and the vowel after it (a later 'j' can only move stressedIndex if it is past this vowel)
+			if (i < length)
+			{
+				spelled[folded] = letter;
+				offsets[folded] = transcribed.length();
+				ipa.append(letter, folded == stressedIndex, transcribed);
+				folded++;
+				vowelCount++;
+				state = 0;
+				clusterLength = 0;
+			}
+		}
+		
+		//No stress mark is needed if the word has only 1 vowel, unless it is dashed ("по", "най")
+		markLetter = -1;
+		if (stressedIndex != -1 && (vowelCount > 1 || dashed))
+		{
+			int insertionIndex = getInsertionIndex(spelled, folded, stressedIndex);
+			if (insertionIndex >= 0 && insertionIndex < folded)
+			{
+				transcribed.insert(offsets[insertionIndex], 'ˈ');
+				markLetter = insertionIndex;
+			}
+		}
+		
+		spelledLength = folded;
+		letters = spelled;
+		letterCount = folded;
+		stressedLetter = stressedIndex;
+		return true;
+	}
+	
+	
+	/*
+	 * Some letters in Bulgarian words are pronounced differently:
+	 * - Word-final devoicing of obstruents (e.g. град --> 'grat, where д is pronounced like т)
+	 * - Regressive assimilation in consonant clusters (e.g. изток --> 'istok, where з is pronounced like с)
+	 * - т and д are usually not pronounced when inside of a consonant cluster (e.g. вестник --> 'vɛsnik)
+	 *
+	 * So the word is devoiced at the end, then every consonant cluster between vowels is passed through
+	 * PhoneticConverter.analyzeCluster. Reads word and writes spelled; returns the new length.
+	 */
+	private int phonotation(int length, boolean devoice)
+	{
+		if (devoice)
+		{
+			if (length > 1 && word[length - 2] == 'д' && word[length - 1] == 'ж')
+			{
+				word[length - 2] = 'ч';
+				length--;
+			}
+			else
+				word[length - 1] = CharClasses.devoice(word[length - 1]);
+		}
+		
+		//Every cluster can grow by at most one letter per obstruent ('ч' --> "дж")
+		if (spelled.length < 2 * length + 2)
+			spelled = new char[2 * length + 16];
+		
+		int output = 0, clusterStart = 0;
+		for (int i = 0; i < length; i++)
+		{
+			if (CharClasses.isVowel(word[i]))
+			{
+				output = analyzeCluster(clusterStart, i, output);
+				spelled[output++] = word[i];
+				clusterStart = i + 1;
+			}
+		}
+		
+		//Last cluster
+		if (clusterStart < length)
+			output = analyzeCluster(clusterStart, length, output);
+		
+		return output;
+	}
+	
+	
+	//Writes the cluster word[start..end) to spelled the way it is pronounced (see ClusterTable)
+	private int analyzeCluster(int start, int end, int output)
+	{
+		String rewritten = ClusterTable.rewrite(word, start, end);
+		rewritten.getChars(0, rewritten.length(), spelled, output);
+		return output + rewritten.length();
+	}
+	
+	
+	/*
+	 * Finds where the stress mark goes in word[0..length): the start of the syllable containing stressedIndex,
+	 * with syllables split the same way as PhoneticConverter.getSyllables. Syllable lengths are counted with each 'j'
+	 * as "дж" (2 letters), because that is the form getSyllables returns them in.
+	 */
+	private static int getInsertionIndex(char[] word, int length, int stressedIndex)
+	{
+		if (length < 2)
+			throw new StringIndexOutOfBoundsException("index -1, length " + length);
+		
+		//Find the vowels that start syllables (same exceptions as getSyllables)
+		int first = -1, second = -1, last = -1, beforeLast = -1, count = 0;
+		for (int i = 0; i < length; i++)
+		{
+			if (CharClasses.isVowel(word[i]))
+			{
+				if (first == -1)
+					first = i;
+				else if (second == -1)
+					second = i;
+				beforeLast = last;
+				last = i;
+				count++;
+			}
+		}
+		
+		int skipFirst = (count >= 2 && second == 1)? 1 : 0;
+		int skipLast = (CharClasses.isVowel(word[length - 2]) && CharClasses.isVowel(word[length - 1]))? 1 : 0;
+		if (count - skipFirst - skipLast <= 0)
+			throw new IndexOutOfBoundsException("word has no syllables: " + new String(word, 0, length));
+		
+		int lastVowel = (skipLast == 1)? beforeLast : last;
+		
+		int syllableStart = 0, counted = 0, vowelNumber = 0;
+		int i = 0, end, clusterEnd, split;
+		while (true)
+		{
+			//Move to the next vowel that starts a syllable
+			while (!CharClasses.isVowel(word[i]))
+				i++;
+			vowelNumber++;
+			if (vowelNumber == 1 && skipFirst == 1)
+			{
+				i++;
+				continue;
+			}
+			
+			//Following cluster runs to the next vowel (or the end of the word)
+			clusterEnd = i + 1;
+			if (i == lastVowel)
+				clusterEnd = length;
+			else
+			{
+				while (!CharClasses.isVowel(word[clusterEnd]))
+					clusterEnd++;
+			}
+			
+			split = clusterEnd - i - 1;
+			if (split > 0 && word[clusterEnd - 1] == 'ь')
+				split--;	//'ь' always stays before 'о'
+			if (i != lastVowel)
+				split /= 2;
+			
+			end = i + 1 + split;
+			
+			int syllableLength = end - syllableStart;
+			for (int j = syllableStart; j < end; j++)
+			{
+				if (word[j] == 'j')
+					syllableLength++;
+			}
+			
+			if (counted + syllableLength >= stressedIndex)
+				return counted;
+			if (i == lastVowel)
+				return -1;
+			
+			counted += syllableLength;
+			syllableStart = end;
+			i++;
+		}
+	}
+	
+	
+	private static boolean startsWith(char[] letters, int length, String prefix)
+	{
+		if (prefix.length() > length)
+			return false;
+		
+		for (int i = 0; i < prefix.length(); i++)
+		{
+			if (letters[i] != prefix.charAt(i))
+				return false;
+		}
+		return true;
+	}
+	
+	
+	//A word prepared by prepare, which can be rendered with any stress
+	static final class Prepared {
+		
+		private final IpaTable ipa;
+		private final char[] letters;		//the word spelled as it is pronounced
+		private final String unstressed;	//its IPA with no letter stressed
+		private final int[] starts;			//where the IPA of every letter starts in unstressed (and where it ends)
+		private final boolean[] stressable;	//letters whose IPA changes if they are stressed
+		private final int[] folds;			//see TranscriptionEngine.adjust
+		private final boolean shifted;
+		private final int vowelCount;
+		
+		
+		private Prepared(IpaTable ipa, char[] letters, String unstressed, int[] starts, boolean[] stressable, int[] folds, boolean shifted)
+		{
+			this.ipa = ipa;
+			this.letters = letters;
+			this.unstressed = unstressed;
+			this.starts = starts;
+			this.stressable = stressable;
+			this.folds = folds;
+			this.shifted = shifted;
+			
+			int vowels = 0;
+			for (char letter : letters)
+			{
+				if (CharClasses.isVowel(letter))
+					vowels++;
+			}
+			vowelCount = vowels;
+		}
+		
+		//Returns the same as TranscriptionEngine.transcribe with stressedIndex and dashed
+		String render(int stressedIndex, boolean dashed)
+		{
+			int length = letters.length;
+			stressedIndex = adjust(stressedIndex, folds, folds.length, shifted);
+			
+			//No stress mark is needed if the word has only 1 vowel, unless it is dashed ("по", "най")
+			int insertionIndex = -1;
+			if (stressedIndex != -1 && (vowelCount > 1 || dashed))
+				insertionIndex = getInsertionIndex(letters, length, stressedIndex);
+			
+			StringBuilder transcribed = new StringBuilder(unstressed.length() + 4);
+			transcribed.append(unstressed);
+			
+			int growth = 0;
+			if (stressedIndex >= 0 && stressedIndex < length && stressable[stressedIndex])
+			{
+				String stressed = ipa.get(letters[stressedIndex], true);
+				transcribed.replace(starts[stressedIndex], starts[stressedIndex + 1], stressed);
+				growth = stressed.length() - (starts[stressedIndex + 1] - starts[stressedIndex]);
+			}
+			
+			if (insertionIndex >= 0 && insertionIndex < length)
+			{
+				//The mark goes before the IPA of its letter, which moved if a letter before it was re-rendered
+				int mark = starts[insertionIndex];
+				if (insertionIndex > stressedIndex && stressedIndex >= 0)
+					mark += growth;
+				transcribed.insert(mark, 'ˈ');
+			}
+			
+			return transcribed.toString();
+		}
+	}
+
+}
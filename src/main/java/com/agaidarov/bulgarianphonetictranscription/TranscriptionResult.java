@@ -0,0 +1,114 @@
+/**
+ * 10/18/2026
+ *
+ * The transcription of a text (see PhoneticConverter.toPhoneticResult), with every token of the text lined up
+ * with its part of the transcription, so the transcription doesn't have to be split up and matched to the text again.
+ *
+ * The tokens are the words of the text as toPhonetic(cyrillic) splits them (at every space, punctuation included).
+ * The transcriptions of all the tokens are in one String, separated by single spaces, which is exactly what
+ * toPhonetic(cyrillic)[0] returns. For every token, the result has its start and end in the text and in the transcription,
+ * the indexes of the vowels it was stressed on (counted in the token without its stress marks) and where they came from.
+ *
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+import java.util.Objects;
+
+public final class TranscriptionResult {
+	
+	private final String text;
+	private final String transcription;
+	private final int[] textBounds;			//start and end of token i in text: textBounds[2 * i], textBounds[2 * i + 1]
+	private final int[] ipaBounds;			//the same in transcription
+	private final int[][] stresses;
+	private final StressSource[] sources;
+	
+	
+	TranscriptionResult(String text, String transcription, int[] textBounds, int[] ipaBounds, int[][] stresses, StressSource[] sources)
+	{
+		this.text = text;
+		this.transcription = transcription;
+		this.textBounds = textBounds;
+		this.ipaBounds = ipaBounds;
+		this.stresses = stresses;
+		this.sources = sources;
+	}
+	
+	//Number of tokens
+	public int size()
+	{
+		return sources.length;
+	}
+	
+	public String getText()
+	{
+		return text;
+	}
+	
+	//The transcriptions of all the tokens, separated by spaces
+	public String getTranscription()
+	{
+		return transcription;
+	}
+	
+	public int getTextStart(int token)
+	{
+		return textBounds[2 * check(token)];
+	}
+	
+	public int getTextEnd(int token)
+	{
+		return textBounds[2 * check(token) + 1];
+	}
+	
+	public int getIpaStart(int token)
+	{
+		return ipaBounds[2 * check(token)];
+	}
+	
+	public int getIpaEnd(int token)
+	{
+		return ipaBounds[2 * check(token) + 1];
+	}
+	
+	public String getToken(int token)
+	{
+		return text.substring(getTextStart(token), getTextEnd(token));
+	}
+	
+	public String getIpa(int token)
+	{
+		return transcription.substring(getIpaStart(token), getIpaEnd(token));
+	}
+	
+	//Indexes of the stressed vowels of a token, counted without stress marks (none if it wasn't stressed)
+	public int[] getStresses(int token)
+	{
+		return stresses[check(token)].clone();
+	}
+	
+	public StressSource getStressSource(int token)
+	{
+		return sources[check(token)];
+	}
+	
+	@Override
+	public String toString()
+	{
+		StringBuilder result = new StringBuilder("TranscriptionResult[");
+		for (int i = 0; i < size(); i++)
+		{
+			if (i > 0)
+				result.append(", ");
+			result.append(getToken(i)).append(" -> ").append(getIpa(i)).append(" (").append(sources[i]).append(')');
+		}
+		return result.append(']').toString();
+	}
+	
+	private int check(int token)
+	{
+		return Objects.checkIndex(token, sources.length);
+	}
+
+}
@@ -0,0 +1,318 @@
+/**
+ * 10/18/2026
+ *
+ * An embedded HTTP server (the JDK's com.sun.net.httpserver, so no other dependency) that lets other services use
+ * a PhoneticConverter. Requests are handled on virtual threads where the JVM has them (Java 21+), otherwise on
+ * a pool of daemon threads. Connections are kept alive between requests (HTTP/1.1).
+ *
+ * Endpoints, each taking Bulgarian text in Cyrillic (stresses can be given as stress marks):
+ *   /word       a word -> its transcriptions (an array: all of them if the stress isn't known)
+ *   /passage    a passage -> its transcription, with clitics and sandhi (a string)
+ *   /syllables  a word -> its syllables (an array)
+ *   /stress     word(s) -> the same with stress marks, if the converter looks up stresses (a string)
+ *
+ * A request is either GET /word?text=..., or a POST of a JSON object: {"text": "..."} gives {"result": ...},
+ * and a batch {"texts": ["...", ...]} gives {"results": [...]} in the same order. The stresses of the words of a batch
+ * are looked up all at once. Errors are {"error": "..."} with status 400 (bad request, e.g. several words for /word
+ * or /syllables), 404, 405, 413 (too large) or 500.
+ *
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public class TranscriptionServer {
+	
+	public static final int MAX_BODY_BYTES = 1 << 20;
+	public static final int MAX_BATCH = 10_000;
+	
+	static {
+		/*
+		 * The JDK server writes the headers and the body of a response separately, so without TCP_NODELAY a short response
+		 * waits about 40 ms for the client's delayed ACK (Nagle's algorithm). The property is read when the first HttpServer
+		 * is created, and isn't changed if it was set on the command line.
+		 */
+		if (System.getProperty("sun.net.httpserver.nodelay") == null)
+			System.setProperty("sun.net.httpserver.nodelay", "true");
+	}
+	
+	private final PhoneticConverter converter;
+	private final HttpServer server;
+	private final ExecutorService executor;
+	
+	
+	//Binds to address (port 0 picks a free port); requests are only handled after start
+	public TranscriptionServer(PhoneticConverter converter, InetSocketAddress address) throws IOException
+	{
+		this.converter = converter;
+		server = HttpServer.create(address, 0);
+		executor = AsyncStressProvider.newExecutor("http");
+		server.setExecutor(executor);
+		
+		server.createContext("/word", exchange -> handle(exchange, "/word", this::words));
+		server.createContext("/passage", exchange -> handle(exchange, "/passage", this::passages));
+		server.createContext("/syllables", exchange -> handle(exchange, "/syllables", this::syllables));
+		server.createContext("/stress", exchange -> handle(exchange, "/stress", this::stresses));
+	}
+	
+	public void start()
+	{
+		server.start();
+	}
+	
+	//Stops accepting requests and waits up to delaySeconds for the ones being handled
+	public void stop(int delaySeconds)
+	{
+		server.stop(delaySeconds);
+		executor.shutdown();
+	}
+	
+	//The address the server is bound to (with the actual port, if it was 0)
+	public InetSocketAddress getAddress()
+	{
+		return server.getAddress();
+	}
+	
+	
+	//The JSON results of an endpoint for texts, in the same order
+	@FunctionalInterface
+	private interface Endpoint {
+		String[] apply(List<String> texts);
+	}
+	
+	private String[] words(List<String> texts)
+	{
+		lookUpStresses(texts);
+		String[] results = new String[texts.size()];
+		for (int i = 0; i < results.length; i++)
+			results[i] = toJson(converter.toPhonetic(getWord(texts.get(i))));
+		return results;
+	}
+	
+	private String[] passages(List<String> texts)
+	{
+		lookUpStresses(texts);
+		String[] results = new String[texts.size()];
+		for (int i = 0; i < results.length; i++)
+		{
+			StringWriter output = new StringWriter(2 * texts.get(i).length());
+			try {
+				converter.toPhonetic(new StringReader(texts.get(i)), output);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);		//doesn't happen with Strings
+			}
+			
+			String transcribed = output.toString();
+			results[i] = toJson(transcribed.endsWith("\n")? transcribed.substring(0, transcribed.length() - 1) : transcribed);
+		}
+		return results;
+	}
+	
+	private String[] syllables(List<String> texts)
+	{
+		String[] results = new String[texts.size()];
+		for (int i = 0; i < results.length; i++)
+			results[i] = toJson(converter.getSyllables(getWord(texts.get(i))));
+		return results;
+	}
+	
+	private String[] stresses(List<String> texts)
+	{
+		Map<String, String> found = lookUpStresses(texts);
+		String[] results = new String[texts.size()];
+		for (int i = 0; i < results.length; i++)
+		{
+			String text = texts.get(i).strip();
+			if (converter.getStressProvider() == null)
+				results[i] = toJson(text);		//getStressed would only print a warning
+			else
+				results[i] = toJson(found.containsKey(text)? found.get(text) : converter.getStressed(text));
+		}
+		return results;
+	}
+	
+	//The word in text for /word and /syllables; several words are a bad request (a passage goes to /passage)
+	private static String getWord(String text)
+	{
+		String word = text.strip();
+		if (word.isEmpty())
+			throw new IllegalArgumentException("empty word");
+		for (int i = 0; i < word.length(); i++)
+		{
+			if (Character.isWhitespace(word.charAt(i)))
+				throw new IllegalArgumentException("not a single word (use /passage): " + word);
+		}
+		return word;
+	}
+	
+	/*
+	 * Looks up the stresses of all the words of a batch at once, so the stress provider (e.g. the website) is asked once
+	 * instead of once per text. The converter then finds them in its stress cache. Returns what was found.
+	 */
+	private Map<String, String> lookUpStresses(List<String> texts)
+	{
+		if (texts.size() < 2 || converter.getStressProvider() == null)
+			return Map.of();
+		
+		Set<String> words = new HashSet<>();
+		for (String text : texts)
+		{
+			for (String word : text.split("\\s+"))
+			{
+				if (!word.isEmpty())
+					words.add(word);
+			}
+		}
+		return converter.getStressed(words);
+	}
+	
+	
+	private void handle(HttpExchange exchange, String path, Endpoint endpoint) throws IOException
+	{
+		try (exchange)
+		{
+			//The request body is always read to its end, so the connection can be used for the next request
+			byte[] body;
+			try (InputStream input = exchange.getRequestBody())
+			{
+				body = input.readNBytes(MAX_BODY_BYTES + 1);
+				input.transferTo(OutputStream.nullOutputStream());
+			}
+			
+			if (!exchange.getRequestURI().getPath().equals(path))
+			{
+				respond(exchange, 404, error("no such endpoint: " + exchange.getRequestURI().getPath()));
+				return;
+			}
+			if (body.length > MAX_BODY_BYTES)
+			{
+				respond(exchange, 413, error("the request is larger than " + MAX_BODY_BYTES + " bytes"));
+				return;
+			}
+			
+			String response;
+			try {
+				switch (exchange.getRequestMethod()) {
+					case "GET":
+						String text = getParameter(exchange.getRequestURI().getRawQuery(), "text");
+						if (text == null)
+							throw new IllegalArgumentException("missing parameter: text");
+						response = "{\"result\":" + endpoint.apply(List.of(text))[0] + "}";
+						break;
+					case "POST":
+						response = post(new String(body, StandardCharsets.UTF_8), endpoint);
+						break;
+					default:
+						exchange.getResponseHeaders().set("Allow", "GET, POST");
+						respond(exchange, 405, error("use GET or POST"));
+						return;
+				}
+			} catch (IllegalArgumentException e) {
+				respond(exchange, 400, error(e.getMessage()));
+				return;
+			} catch (RuntimeException e) {		//the server keeps running for the other requests
+				respond(exchange, 500, error("couldn't transcribe the request: " + e));
+				return;
+			}
+			
+			respond(exchange, 200, response);
+		}
+	}
+	
+	//The response to a POST of record (a JSON object with "text" or "texts")
+	private static String post(String record, Endpoint endpoint)
+	{
+		List<String> texts = Json.getStrings(record, "texts");
+		if (texts != null)
+		{
+			if (texts.size() > MAX_BATCH)
+				throw new IllegalArgumentException("a batch can have at most " + MAX_BATCH + " texts");
+			
+			StringBuilder response = new StringBuilder("{\"results\":[");
+			String[] results = texts.isEmpty()? new String[0] : endpoint.apply(texts);
+			for (int i = 0; i < results.length; i++)
+			{
+				if (i > 0)
+					response.append(',');
+				response.append(results[i]);
+			}
+			return response.append("]}").toString();
+		}
+		
+		String text = Json.getString(record, "text");
+		if (text == null)
+			throw new IllegalArgumentException("the request needs a \"text\" string or a \"texts\" array");
+		return "{\"result\":" + endpoint.apply(List.of(text))[0] + "}";
+	}
+	
+	private static void respond(HttpExchange exchange, int status, String json) throws IOException
+	{
+		byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+		exchange.sendResponseHeaders(status, bytes.length);		//a known length keeps the connection alive
+		try (OutputStream output = exchange.getResponseBody())
+		{
+			output.write(bytes);
+		}
+	}
+	
+	//Returns the value of name in query (URL encoded), or null if it isn't there
+	private static String getParameter(String query, String name)
+	{
+		if (query == null)
+			return null;
+		
+		for (String parameter : query.split("&"))
+		{
+			int equals = parameter.indexOf('=');
+			String key = (equals < 0)? parameter : parameter.substring(0, equals);
+			if (URLDecoder.decode(key, StandardCharsets.UTF_8).equals(name))
+				return (equals < 0)? "" : URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8);
+		}
+		return null;
+	}
+	
+	private static String error(String message)
+	{
+		StringBuilder json = new StringBuilder("{\"error\":");
+		Json.appendString(json, message);
+		return json.append('}').toString();
+	}
+	
+	private static String toJson(String text)
+	{
+		StringBuilder json = new StringBuilder(text.length() + 2);
+		Json.appendString(json, text);
+		return json.toString();
+	}
+	
+	private static String toJson(String[] texts)
+	{
+		StringBuilder json = new StringBuilder("[");
+		for (int i = 0; i < texts.length; i++)
+		{
+			if (i > 0)
+				json.append(',');
+			Json.appendString(json, texts[i]);
+		}
+		return json.append(']').toString();
+	}
+
+}
@@ -0,0 +1,359 @@
+/**
+ * 10/18/2026
+ *
+ * This class is the transcription rules compiled into a deterministic finite-state transducer, for one setting of links.
+ *
+ * The states are the consonant clusters of up to ClusterTable.EAGER letters (numbered the same way as in ClusterTable).
+ * A consonant moves to the state of the longer cluster, and a vowel or the end of the word emits the whole cluster:
+ * the letters as they are pronounced (phonotation, word-final devoicing, "дж" folded into 'j') and their IPA
+ * (with the lookahead of 'л' and 'н' already applied). So TranscriptionEngine can transcribe a word in one pass
+ * and only has to place the stress mark afterwards.
+ *
+ * The tables are written to transducer-links.bin / transducer-plain.bin next to this class by main (the build does it
+ * after compiling) and loaded from there the first time a setting of links is used. The header of a file has
+ * a SHA-256 hash of the classes the rules are in (analyzeCluster, ClusterTable, IpaTable, ...), so a file written
+ * before the rules changed is never loaded: the tables are compiled from the rules instead, as they are when there is no file.
+ * Setting the system property com.agaidarov.bulgarianphonetictranscription.transducer.load to "false" always compiles them.
+ *
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+final class Transducer {
+
+	private static final int MAGIC = 0x42475446;	//"BGTF"
+	private static final int VERSION = 2;
+	private static final int NONE = 0xFFFF;		//number of the output of a state that isn't used
+	private static final String LOAD_PROPERTY = Transducer.class.getPackageName() + ".transducer.load";
+
+	//The classes the tables are compiled from (analyzeCluster is in PhoneticConverter)
+	private static final String[] RULE_CLASSES = {"PhoneticConverter", "ClusterTable", "IpaTable", "CharClasses", "Transducer",
+			"Transducer$Output"};
+	private static final byte[] RULES = fingerprint();		//null if they can't be read
+
+	private final boolean links;
+
+	//Outputs of every state, indexed by state: before a vowel, before 'и' or 'е', and at the end of a word
+	private final Output[] beforeVowel;
+	private final Output[] beforeFront;
+	private final Output[] atEnd;
+	private final Output[] atEndDevoiced;
+
+
+	private Transducer(boolean links, int states)
+	{
+		this.links = links;
+		beforeVowel = new Output[states];
+		beforeFront = new Output[states];
+		atEnd = new Output[states];
+		atEndDevoiced = new Output[states];
+	}
+
+	static Transducer of(boolean links)
+	{
+		return links? Links.TABLES : NoLinks.TABLES;
+	}
+
+	//Returns the state after letter is read in state (a cluster of clusterLength letters), or -1 if no state covers it
+	static int next(int state, int clusterLength, char letter)
+	{
+		return ClusterTable.next(state, clusterLength, letter);
+	}
+
+	//Output of the cluster of state, which is followed by vowel
+	Output beforeVowel(int state, char vowel)
+	{
+		return (vowel == 'и' || vowel == 'е')? beforeFront[state] : beforeVowel[state];
+	}
+
+	//Output of the cluster of state at the end of a word
+	Output atEnd(int state, boolean devoice)
+	{
+		return devoice? atEndDevoiced[state] : atEnd[state];
+	}
+
+
+	//Compiles the tables from the rules in ClusterTable and IpaTable
+	static Transducer compile(boolean links)
+	{
+		Transducer transducer = new Transducer(links, ClusterTable.STATES);
+		IpaTable ipa = IpaTable.of(links);
+		Map<String, Output> outputs = new HashMap<>();		//many clusters are pronounced the same way
+
+		ClusterTable.forEachCluster((cluster, state) -> {
+			String rewritten = ClusterTable.rewrite(cluster);
+			transducer.beforeVowel[state] = output(rewritten, 'а', ipa, outputs);
+			transducer.beforeFront[state] = output(rewritten, 'и', ipa, outputs);
+			transducer.atEnd[state] = output(rewritten, (char) 0, ipa, outputs);
+			transducer.atEndDevoiced[state] = output(ClusterTable.rewrite(devoice(cluster)), (char) 0, ipa, outputs);
+		});
+
+		return transducer;
+	}
+
+	//Word-final devoicing, as at the start of phonotation
+	private static String devoice(String cluster)
+	{
+		if (cluster.isEmpty())
+			return cluster;
+		if (cluster.endsWith("дж"))
+			return cluster.substring(0, cluster.length() - 2) + 'ч';
+
+		int last = cluster.length() - 1;
+		return cluster.substring(0, last) + CharClasses.devoice(cluster.charAt(last));
+	}
+
+	//Folds "дж" in rewritten into 'j' and transcribes it, knowing that next comes after it (0 at the end of the word)
+	private static Output output(String rewritten, char next, IpaTable ipa, Map<String, Output> outputs)
+	{
+		StringBuilder letters = new StringBuilder();
+		for (int i = 0; i < rewritten.length(); i++)
+		{
+			if (rewritten.charAt(i) == 'д' && i < rewritten.length() - 1 && rewritten.charAt(i + 1) == 'ж')
+			{
+				letters.append('j');
+				i++;
+			}
+			else
+				letters.append(rewritten.charAt(i));
+		}
+
+		StringBuilder transcribed = new StringBuilder();
+		byte[] starts = new byte[letters.length()];
+		char letter, nextLetter;
+		boolean stressed;
+		for (int i = 0; i < letters.length(); i++)
+		{
+			starts[i] = (byte) transcribed.length();
+			letter = letters.charAt(i);
+			nextLetter = (i < letters.length() - 1)? letters.charAt(i + 1) : next;
+
+			//Same lookahead as TranscriptionEngine (consonants are never stressed)
+			stressed = false;
+			if (letter == 'л')
+				stressed = (nextLetter == 'и' || nextLetter == 'е');
+			else if (letter == 'н')
+				stressed = (nextLetter == 'к' || nextLetter == 'г');
+
+			ipa.append(letter, stressed, transcribed);
+		}
+
+		Output output = new Output(letters.toString(), transcribed.toString(), starts);
+		return outputs.computeIfAbsent(output.letters + '\u0000' + output.ipa, key -> output);
+	}
+
+
+	/*
+	 * Writes the tables (outputs are written once and referred to by number):
+	 * MAGIC, VERSION, the hash of the rules (32 bytes), links, ClusterTable.CONSONANTS, ClusterTable.EAGER, number of outputs,
+	 * outputs, number of states, and for every state the numbers of its four outputs as unsigned shorts (NONE for states that aren't used)
+	 */
+	void write(OutputStream stream) throws IOException
+	{
+		if (RULES == null)
+			throw new IOException("the classes of the rules can't be read, so the tables couldn't be checked when loaded");
+		
+		DataOutputStream output = new DataOutputStream(new BufferedOutputStream(stream));
+		output.writeInt(MAGIC);
+		output.writeInt(VERSION);
+		output.write(RULES);
+		output.writeBoolean(links);
+		output.writeUTF(ClusterTable.CONSONANTS);
+		output.writeByte(ClusterTable.EAGER);
+
+		Map<Output, Integer> numbers = new HashMap<>();
+		Output[][] tables = {beforeVowel, beforeFront, atEnd, atEndDevoiced};
+		for (Output[] table : tables)
+		{
+			for (Output out : table)
+			{
+				if (out != null)
+					numbers.putIfAbsent(out, numbers.size());
+			}
+		}
+
+		if (numbers.size() >= NONE)
+			throw new IOException("too many outputs to write: " + numbers.size());
+		
+		Output[] ordered = new Output[numbers.size()];
+		for (Map.Entry<Output, Integer> entry : numbers.entrySet())
+			ordered[entry.getValue()] = entry.getKey();
+
+		output.writeInt(ordered.length);
+		for (Output out : ordered)
+		{
+			output.writeUTF(out.letters);
+			output.writeUTF(out.ipa);
+			output.write(out.starts);
+		}
+
+		output.writeInt(beforeVowel.length);
+		for (int state = 0; state < beforeVowel.length; state++)
+		{
+			for (Output[] table : tables)
+				output.writeShort((table[state] == null)? NONE : numbers.get(table[state]));
+		}
+		output.flush();
+	}
+
+	//Reads tables written by write; throws IOException if they were written for different rules
+	static Transducer read(InputStream stream) throws IOException
+	{
+		DataInputStream input = new DataInputStream(new BufferedInputStream(stream));
+		if (input.readInt() != MAGIC || input.readInt() != VERSION)
+			throw new IOException("not a transducer table");
+		
+		byte[] rules = new byte[32];
+		input.readFully(rules);
+		if (RULES == null || !Arrays.equals(rules, RULES))
+			throw new IOException("transducer table was compiled from different rules");
+
+		boolean links = input.readBoolean();
+		if (!input.readUTF().equals(ClusterTable.CONSONANTS) || input.readByte() != ClusterTable.EAGER)
+			throw new IOException("transducer table was compiled for different clusters");
+
+		Output[] outputs = new Output[input.readInt()];
+		for (int i = 0; i < outputs.length; i++)
+		{
+			String letters = input.readUTF();
+			String ipa = input.readUTF();
+			byte[] starts = new byte[letters.length()];
+			input.readFully(starts);
+			outputs[i] = new Output(letters, ipa, starts);
+		}
+
+		int states = input.readInt();
+		if (states != ClusterTable.STATES)
+			throw new IOException("transducer table has " + states + " states instead of " + ClusterTable.STATES);
+
+		Transducer transducer = new Transducer(links, states);
+		Output[][] tables = {transducer.beforeVowel, transducer.beforeFront, transducer.atEnd, transducer.atEndDevoiced};
+		for (int state = 0; state < states; state++)
+		{
+			for (Output[] table : tables)
+			{
+				int number = input.readUnsignedShort();
+				table[state] = (number == NONE)? null : outputs[number];
+			}
+		}
+		return transducer;
+	}
+
+	//Loads the tables from next to this class if they were written from the same rules (see above), or compiles them
+	private static Transducer load(boolean links)
+	{
+		if (RULES == null || System.getProperty(LOAD_PROPERTY, "true").equals("false"))
+			return compile(links);
+		
+		try (InputStream stream = Transducer.class.getResourceAsStream(fileName(links)))
+		{
+			if (stream != null)
+			{
+				Transducer transducer = read(stream);
+				if (transducer.links == links)
+					return transducer;
+			}
+		} catch (IOException e) {
+			System.out.println("WARNING: couldn't load " + fileName(links) + " (" + e.getMessage() + "), compiling it instead");
+		}
+
+		return compile(links);
+	}
+
+	private static String fileName(boolean links)
+	{
+		return links? "transducer-links.bin" : "transducer-plain.bin";
+	}
+	
+	//SHA-256 of the class files in RULE_CLASSES, or null if one of them can't be read (e.g. the classes aren't on a class path)
+	private static byte[] fingerprint()
+	{
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			for (String name : RULE_CLASSES)
+			{
+				try (InputStream stream = Transducer.class.getResourceAsStream(name + ".class"))
+				{
+					if (stream == null)
+						return null;
+					digest.update(stream.readAllBytes());
+				}
+			}
+			return digest.digest();
+		} catch (IOException | NoSuchAlgorithmException e) {
+			return null;
+		}
+	}
+
+	/*
+	 * Compiles both tables and writes them into the directory given, which has to be the package directory of
+	 * the classes they are compiled from (e.g. target/classes/<this package>; the build does this after compiling).
+	 * Tables written from other classes are never loaded.
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		if (args.length != 1)
+		{
+			System.out.println("Usage: Transducer <directory>  (e.g. target/classes/" +
+					Transducer.class.getPackageName().replace('.', '/') + ")");
+			System.exit(1);
+		}
+		
+		Path directory = Paths.get(args[0]);
+		Files.createDirectories(directory);
+
+		for (boolean links : new boolean[] {false, true})
+		{
+			Path file = directory.resolve(fileName(links));
+			try (OutputStream stream = Files.newOutputStream(file))
+			{
+				compile(links).write(stream);
+			}
+			System.out.println("Wrote " + file + " (" + Files.size(file) + " bytes)");
+		}
+	}
+
+
+	//The tables of each setting of links, loaded or compiled the first time the setting is used
+	private static final class Links {
+		
+		static final Transducer TABLES = load(true);
+	}
+	
+	private static final class NoLinks {
+		
+		static final Transducer TABLES = load(false);
+	}
+
+	//What a cluster is pronounced as
+	static final class Output {
+
+		final String letters;		//the cluster spelled as it is pronounced, with "дж" as 'j'
+		final String ipa;
+		final byte[] starts;		//where the IPA of every letter starts in ipa
+
+		Output(String letters, String ipa, byte[] starts)
+		{
+			this.letters = letters;
+			this.ipa = ipa;
+			this.starts = starts;
+		}
+	}
+
+}
@@ -0,0 +1,79 @@
+/**
+ * 10/18/2026
+ *
+ * This class splits text read from a Reader into words, a few thousand characters at a time,
+ * so that text of any length can be transcribed without holding it in memory.
+ *
+ * Words are separated by whitespace. Line breaks ('\n') are counted, so that the lines of the transcription
+ * can match the lines of the text; every other kind of whitespace (including '\r') only separates words.
+ *
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+import java.io.IOException;
+import java.io.Reader;
+
+class WordReader {
+	
+	private final Reader input;
+	private final char[] buffer = new char[8192];
+	private int position = 0, end = 0;
+	
+	private final StringBuilder word = new StringBuilder();
+	private int lineBreaks = 0;
+	
+	
+	WordReader(Reader input)
+	{
+		this.input = input;
+	}
+	
+	//Returns the next word, or null at the end of the text
+	String next() throws IOException
+	{
+		word.setLength(0);
+		lineBreaks = 0;
+		
+		char letter;
+		while (fill())
+		{
+			letter = buffer[position];
+			if (Character.isWhitespace(letter))
+			{
+				if (word.length() > 0)
+					return word.toString();		//the whitespace after it is read with the next word
+				if (letter == '\n')
+					lineBreaks++;
+			}
+			else
+				word.append(letter);
+			position++;
+		}
+		
+		return (word.length() > 0)? word.toString() : null;
+	}
+	
+	//Number of line breaks before the word last returned by next (or before the end of the text, if it returned null)
+	int lineBreaks()
+	{
+		return lineBreaks;
+	}
+	
+	//Makes sure there is something in buffer; returns false at the end of the text
+	private boolean fill() throws IOException
+	{
+		while (position == end)
+		{
+			end = input.read(buffer);
+			position = 0;
+			if (end < 0)
+			{
+				end = 0;
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,156 @@
+/**
+ * 10/18/2026
+ *
+ * Tests of the command line: every --format, with and without --jsonl, on one thread and on several,
+ * against what the converter writes for the same lines.
+ *
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+public class CliTest {
+	
+	private static final List<String> LINES = Arrays.asList("Черѐшата е узря̀ла.", "", "Ба̀ба, „дя̀до“ и \"вну̀ци\" — по-къ̀сно.",
+			"  Тя\tня̀ма да до̀йде.  ", "Те са от Ва̀рна.");
+	
+	private final PhoneticConverter converter = PhoneticConverter.builder().build();
+	
+	
+	@Test
+	public void writesText() throws IOException
+	{
+		StringWriter expected = new StringWriter();
+		converter.toPhonetic(new StringReader(String.join("\n", LINES) + "\n"), expected);
+		
+		for (String threads : new String[] {"1", "2"})
+			assertEquals(expected.toString(), run(String.join("\n", LINES) + "\n", "--threads", threads), "threads " + threads);
+	}
+	
+	@Test
+	public void writesTsvAndJsonl() throws IOException
+	{
+		StringBuilder tsv = new StringBuilder(), jsonl = new StringBuilder();
+		for (String line : LINES)
+		{
+			tsv.append(line).append('\t').append(ipa(line)).append('\n');
+			
+			jsonl.append("{\"text\":");
+			Json.appendString(jsonl, line);
+			jsonl.append(",\"ipa\":");
+			Json.appendString(jsonl, ipa(line));
+			jsonl.append("}\n");
+		}
+		
+		String input = String.join("\n", LINES) + "\n";
+		for (String threads : new String[] {"1", "2"})
+		{
+			assertEquals(tsv.toString(), run(input, "--format", "tsv", "--threads", threads), "threads " + threads);
+			assertEquals(jsonl.toString(), run(input, "--format", "jsonl", "--threads", threads), "threads " + threads);
+		}
+	}
+	
+	@Test
+	public void addsIpaToRecords() throws IOException
+	{
+		String input = "{\"id\":1,\"text\":\"Ба̀ба и дя̀до.\"}\n" +
+				"\n" +
+				"{\"id\":2,\"meta\":{\"text\":\"x\"}}\n" +
+				"{\"text\":\"Те са от Ва̀рна.\", \"ipa\":\"old\"}\n" +
+				"{\"line\":\"узря̀ла\",\"text\":\"не\"}\n";
+		
+		String expected = "{\"id\":1,\"text\":\"Ба̀ба и дя̀до.\",\"ipa\":" + quoted(ipa("Ба̀ба и дя̀до.")) + "}\n" +
+				"\n" +
+				"{\"id\":2,\"meta\":{\"text\":\"x\"}}\n" +
+				"{\"text\":\"Те са от Ва̀рна.\", \"ipa\":" + quoted(ipa("Те са от Ва̀рна.")) + "}\n" +
+				"{\"line\":\"узря̀ла\",\"text\":\"не\",\"ipa\":" + quoted(ipa("не")) + "}\n";
+		for (String threads : new String[] {"1", "2"})
+		{
+			assertEquals(expected, run(input, "--jsonl", "--threads", threads), "threads " + threads);
+			assertEquals(expected, run(input, "--jsonl", "--format", "jsonl", "--threads", threads), "threads " + threads);
+		}
+		
+		assertEquals("{\"line\":\"узря̀ла\",\"text\":\"не\",\"ipa\":" + quoted(ipa("узря̀ла")) + "}\n",
+				run("{\"line\":\"узря̀ла\",\"text\":\"не\"}\n", "--jsonl", "--field", "line"));
+		assertEquals("узря̀ла\t" + ipa("узря̀ла") + "\n", run("{\"line\":\"узря̀ла\"}\n", "--jsonl", "--field", "line", "--format", "tsv"));
+		assertEquals(ipa("узря̀ла") + "\n", run("{\"line\":\"узря̀ла\"}\n", "--jsonl", "--field", "line", "--format", "text"));
+	}
+	
+	@Test
+	public void reportsErrors() throws IOException
+	{
+		Path directory = Files.createTempDirectory("cli");
+		try {
+			Path input = Files.writeString(directory.resolve("input.jsonl"), "{\"text\":\"да\"}\n{\"text\":\n");
+			Path output = directory.resolve("output.jsonl");
+			
+			assertEquals(1, new Cli().run(new String[] {"--jsonl", "--threads", "1", "-o", output.toString(), input.toString()}), "bad record");
+			assertEquals(1, new Cli().run(new String[] {"-o", output.toString(), directory.resolve("missing.txt").toString()}), "no input");
+			assertEquals(2, new Cli().run(new String[] {"--format", "xml", input.toString()}), "unknown format");
+			assertEquals(2, new Cli().run(new String[] {"--threads", "0", input.toString()}), "no threads");
+			assertEquals(2, new Cli().run(new String[] {"--field"}), "no field");
+		} finally {
+			delete(directory);
+		}
+	}
+	
+	
+	//Runs the command line on input (as a file), with -o, and returns what it wrote
+	private static String run(String input, String... options) throws IOException
+	{
+		Path directory = Files.createTempDirectory("cli");
+		try {
+			Path inputFile = Files.writeString(directory.resolve("input"), input);
+			Path outputFile = directory.resolve("output");
+			
+			String[] args = Arrays.copyOf(options, options.length + 3);
+			args[options.length] = "-o";
+			args[options.length + 1] = outputFile.toString();
+			args[options.length + 2] = inputFile.toString();
+			assertEquals(0, new Cli().run(args), String.join(" ", options));
+			
+			return Files.readString(outputFile, StandardCharsets.UTF_8);
+		} finally {
+			delete(directory);
+		}
+	}
+	
+	//The IPA of one line, as the converter writes it
+	private String ipa(String line) throws IOException
+	{
+		StringWriter output = new StringWriter();
+		converter.toPhonetic(new StringReader(line), output);
+		return output.toString();
+	}
+	
+	private static String quoted(String text)
+	{
+		StringBuilder output = new StringBuilder();
+		Json.appendString(output, text);
+		return output.toString();
+	}
+	
+	private static void delete(Path directory) throws IOException
+	{
+		try (Stream<Path> paths = Files.walk(directory))
+		{
+			for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator)
+				Files.delete(path);
+		}
+	}
+
+}
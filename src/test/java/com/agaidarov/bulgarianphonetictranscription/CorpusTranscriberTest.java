@@ -0,0 +1,68 @@
+/**
+ * 10/18/2026
+ *
+ * Tests of CorpusTranscriber: whatever the chunk size, its output has to be the same as toPhonetic(Reader, Writer),
+ * also where a chunk ends in the middle of a line just before a clitic.
+ *
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+
+public class CorpusTranscriberTest {
+	
+	private static final String TEXT = "а, ако\n" +
+			"Дойде, но не го видях, ако си спомням.\n" +
+			"от град\n" +
+			"на̀\n" +
+			"Ще дойда, да, и ще донеса хляб, мляко и сирене.\n" +
+			"първи ред\n" +
+			"\n" +
+			"думи - думи, по-добре от, за, на, в\n" +
+			"Тя каза, че ще дойде утре сутринта, ако не вали.\n";
+	
+	private final PhoneticConverter converter = PhoneticConverter.builder().build();
+	
+	
+	@Test
+	public void continuesLinesBetweenChunks() throws IOException
+	{
+		assertEquals("a, ɐko", stream("а, ако"));
+		assertEquals(stream("а, ако"), transcribe("а, ако", 1));
+	}
+	
+	@Test
+	public void matchesStreamForEveryChunkSize() throws IOException
+	{
+		String expected = stream(TEXT);
+		for (int chunkWords = 1; chunkWords <= 12; chunkWords++)
+			assertEquals(expected, transcribe(TEXT, chunkWords), "chunkWords = " + chunkWords);
+	}
+	
+	private String transcribe(String text, int chunkWords)
+	{
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		try {
+			return new CorpusTranscriber(converter, pool, 2, chunkWords).transcribe(text);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+	
+	private String stream(String text) throws IOException
+	{
+		StringWriter output = new StringWriter();
+		converter.toPhonetic(new StringReader(text), output);
+		return output.toString();
+	}
+
+}
@@ -0,0 +1,211 @@
+/**
+ * 10/18/2026
+ *
+ * Pins the output of PhoneticConverter to golden.tsv, which was written by main below with the implementation
+ * from before TranscriptionEngine (the "baseline" commit). It has words with every stress index, words with
+ * two stresses (dashed and not), every variant of words without a stress and passages, with and without links.
+ *
+ * Every line of golden.tsv is links, method, input, arguments and the expected output, separated by tabs.
+ * Cases on which the baseline threw an exception aren't in it. To change what is pinned, change the cases here
+ * and run main against the baseline; to pin a deliberate change of the output, run it against the new code.
+ *
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class GoldenOutputTest {
+	
+	private static final String[] WORDS = ("череша красива светлосин апартамент тази програма прави фонетична транскрипция от град " +
+			"хладилник оптимистичен вестник изток подземен джудже дзвер дзифт уиски уебсайт уест уолстрийт сватба отговор безсмислен " +
+			"радостни местност гроздобер здравей щастие пощенски нощни честност ученически сделка бяхме вкъщи въглища дъжд гвоздей " +
+			"кисело мляко безплатен разказ сладко ябълка юнак ягода чорап цвете хляб хубав знам мисля вдън всред във въз над под пред " +
+			"през при със чрез ако ала ама ами дето или като нито пък изследване отсега подкрепа обществено рождество празник бъдещ " +
+			"мъдрец пръсти последствие английски гражданство ъгъл юлски лицензия жизнен дзен джаз бридж кафе мениджър ауспух аеробика " +
+			"ауди еуфория сьомга шофьор синьо павилион агнешко конгрес банка длъжност вдовица твърд глобус бокс кръгла пролет мед лед " +
+			"нож боб сняг вкус свят свобода квас сватбен бизнесмен Череша ПРОГРАМА Джаз").split(" ");
+	private static final String[] DASHED = {"по-добре", "най-хубав", "северо-запад", "по-малко", "най-вече", "хей-хоп", "ало-ало"};
+	private static final String LETTERS = "абвгдежзийклмнопрстуфхцчшщъьюя";
+	private static final String VOWELS = "аиеояъую";
+	private static final char STRESS_MARK = '̀';
+	
+	
+	@Test
+	public void matchesBaseline() throws IOException
+	{
+		List<String> mismatches = new ArrayList<>();
+		int checked = 0;
+		PhoneticConverter[] converters = {new PhoneticConverter(false, false), new PhoneticConverter(true, false)};
+		
+		PrintStream out = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));		//the warnings about stress indexes that aren't vowels
+		try (InputStream stream = GoldenOutputTest.class.getResourceAsStream("golden.tsv");
+				BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8)))
+		{
+			String line;
+			while ((line = reader.readLine()) != null)
+			{
+				String[] fields = line.split("\t", -1);
+				String actual = transcribe(converters[Boolean.parseBoolean(fields[0])? 1 : 0], fields[1], fields[2], fields[3]);
+				checked++;
+				if (!actual.equals(fields[4]) && mismatches.size() < 20)
+					mismatches.add(line + "\tgot " + actual);
+			}
+		} finally {
+			System.setOut(out);
+		}
+		
+		assertTrue(checked > 5_000, "golden.tsv has only " + checked + " cases");
+		assertEquals(List.of(), mismatches);
+	}
+	
+	//What converter gives for a case of golden.tsv
+	private static String transcribe(PhoneticConverter converter, String method, String input, String arguments)
+	{
+		switch (method) {
+			case "word":
+				return converter.toPhonetic(input, Integer.parseInt(arguments));
+			case "stresses":
+				String[] stresses = arguments.split(" ");
+				return converter.toPhonetic(input, Integer.parseInt(stresses[0]), Integer.parseInt(stresses[1]),
+						Boolean.parseBoolean(stresses[2]));
+			case "text":
+				return String.join(" | ", converter.toPhonetic(input));
+			default:
+				throw new IllegalArgumentException("unknown method in golden.tsv: " + method);
+		}
+	}
+	
+	
+	//Writes golden.tsv (by default into src/test/resources/<this package>) with whatever PhoneticConverter is on the classpath
+	public static void main(String[] args) throws IOException
+	{
+		Path file = Paths.get((args.length > 0)? args[0] :
+			"src/test/resources/" + GoldenOutputTest.class.getPackageName().replace('.', '/') + "/golden.tsv");
+		Files.createDirectories(file.getParent());
+		
+		List<String> words = new ArrayList<>(List.of(WORDS));
+		words.addAll(List.of(DASHED));
+		Random random = new Random(2026);
+		for (int i = 0; i < 200; i++)
+			words.add(randomWord(random));
+		
+		List<String> passages = new ArrayList<>();
+		for (int i = 0; i < 200; i++)
+		{
+			StringBuilder passage = new StringBuilder();
+			int count = 2 + random.nextInt(8);
+			for (int j = 0; j < count; j++)
+			{
+				String word = words.get(random.nextInt(words.size()));
+				if (i % 2 == 0)
+					word = addStressMark(word, random);
+				passage.append((j > 0)? " " : "").append(word);
+			}
+			passages.add(passage.toString());
+		}
+		
+		PrintStream out = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		int written = 0;
+		try (Writer output = Files.newBufferedWriter(file, StandardCharsets.UTF_8))
+		{
+			for (boolean links : new boolean[] {false, true})
+			{
+				PhoneticConverter converter = new PhoneticConverter(links, false);
+				for (String word : words)
+				{
+					for (int stressedIndex = -1; stressedIndex < word.length(); stressedIndex++)
+						written += write(output, converter, links, "word", word, String.valueOf(stressedIndex));
+					
+					List<Integer> vowels = new ArrayList<>();
+					for (int i = 0; i < word.length(); i++)
+					{
+						if (VOWELS.indexOf(word.charAt(i)) >= 0)
+							vowels.add(i);
+					}
+					if (vowels.size() > 1)
+					{
+						written += write(output, converter, links, "stresses", word, vowels.get(0) + " " + vowels.get(vowels.size() - 1) + " true");
+						written += write(output, converter, links, "stresses", word, vowels.get(vowels.size() - 1) + " " + vowels.get(0) + " false");
+					}
+					written += write(output, converter, links, "text", word, "");
+				}
+				
+				for (String passage : passages)
+					written += write(output, converter, links, "text", passage, "");
+			}
+		} finally {
+			System.setOut(out);
+		}
+		System.out.println("Wrote " + file + " (" + written + " cases)");
+	}
+	
+	//Writes a case unless the converter throws on it; returns the number of cases written
+	private static int write(Writer output, PhoneticConverter converter, boolean links, String method, String input, String arguments)
+			throws IOException
+	{
+		String expected;
+		try {
+			expected = transcribe(converter, method, input, arguments);
+		} catch (RuntimeException e) {
+			return 0;
+		}
+		
+		output.write(links + "\t" + method + "\t" + input + "\t" + arguments + "\t" + expected + "\n");
+		return 1;
+	}
+	
+	private static String randomWord(Random random)
+	{
+		StringBuilder word = new StringBuilder();
+		if (random.nextInt(10) == 0)
+			word.append(new String[] {"дз", "дж", "уе", "уи", "уо", "ув"}[random.nextInt(6)]);
+		
+		int length = 1 + random.nextInt(10);
+		for (int i = 0; i < length; i++)
+		{
+			if (random.nextInt(100) < 40)
+				word.append(VOWELS.charAt(random.nextInt(VOWELS.length())));
+			else
+				word.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+		}
+		return word.toString();
+	}
+	
+	//word with a stress mark after one of its vowels (if it has any)
+	private static String addStressMark(String word, Random random)
+	{
+		List<Integer> vowels = new ArrayList<>();
+		for (int i = 0; i < word.length(); i++)
+		{
+			if (VOWELS.indexOf(Character.toLowerCase(word.charAt(i))) >= 0)
+				vowels.add(i);
+		}
+		if (vowels.isEmpty())
+			return word;
+		
+		int vowel = vowels.get(random.nextInt(vowels.size()));
+		return word.substring(0, vowel + 1) + STRESS_MARK + word.substring(vowel + 1);
+	}
+
+}
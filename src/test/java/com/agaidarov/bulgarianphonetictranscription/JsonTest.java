@@ -0,0 +1,90 @@
+/**
+ * 10/18/2026
+ *
+ * Tests of the little JSON reader/writer: escapes (including surrogate pairs), values that have to be skipped,
+ * adding a field the record already has, and records that aren't JSON objects.
+ *
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+public class JsonTest {
+	
+	@Test
+	public void readsEscapes()
+	{
+		assertEquals("a\"b\\c/d\be\ff\ng\rh\ti", Json.getString("{\"text\":\"a\\\"b\\\\c\\/d\\be\\ff\\ng\\rh\\ti\"}", "text"));
+		assertEquals("дума", Json.getString("{\"text\":\"\\u0434\\u0443\\u043C\\u0430\"}", "text"));
+		assertEquals("\uD83D\uDE00", Json.getString("{\"text\":\"\\ud83d\\ude00\"}", "text"));
+		assertEquals("\uD83D\uDE00", Json.getString("{\"text\":\"\uD83D\uDE00\"}", "text"));
+		assertEquals(" a ", Json.getString(" { \"text\" : \" a \" } ", "text"));
+	}
+	
+	@Test
+	public void writesEscapes()
+	{
+		String text = "a\"b\\c\nd\re\tf\u0001g\uD83D\uDE00 ʃ";
+		StringBuilder output = new StringBuilder();
+		Json.appendString(output, text);
+		assertEquals("\"a\\\"b\\\\c\\nd\\re\\tf\\u0001g\uD83D\uDE00 ʃ\"", output.toString());
+		
+		assertEquals(text, Json.getString("{\"text\":" + output + "}", "text"));
+	}
+	
+	@Test
+	public void skipsOtherValues()
+	{
+		String record = "{\"id\":12.5e3, \"ok\":true, \"none\":null, \"meta\":{\"text\":\"no\",\"list\":[1,{\"a\":\"}]\"}]},"
+				+ " \"tags\":[\"a\",[\"b\"]], \"quote\":\"]},{\", \"text\":\"да\", \"words\":[\"x\", \"y\"]}";
+		assertEquals("да", Json.getString(record, "text"));
+		assertEquals(Arrays.asList("x", "y"), Json.getStrings(record, "words"));
+		assertNull(Json.getString(record, "missing"));
+		assertNull(Json.getString(record, "id"), "not a string");
+		assertNull(Json.getStrings(record, "text"), "not an array");
+		assertEquals(Arrays.asList(), Json.getStrings("{\"words\":[]}", "words"));
+		assertNull(Json.getString("{}", "text"));
+	}
+	
+	@Test
+	public void addsFields()
+	{
+		assertEquals("{\"ipa\":\"da\"}", Json.addString("{}", "ipa", "da"));
+		assertEquals("{\"text\":\"да\",\"ipa\":\"da\"}", Json.addString("{\"text\":\"да\"}", "ipa", "da"));
+		assertEquals("{\"text\":\"да\" ,\"ipa\":\"da\"}\n", Json.addString("{\"text\":\"да\" }\n", "ipa", "da"));
+	}
+	
+	@Test
+	public void replacesAFieldItAlreadyHas()
+	{
+		String record = "{\"text\":\"да\", \"ipa\":\"old\" , \"n\":1}";
+		String once = Json.addString(record, "ipa", "da");
+		assertEquals("{\"text\":\"да\", \"ipa\":\"da\" , \"n\":1}", once);
+		assertEquals(once, Json.addString(once, "ipa", "da"), "adding it again changes nothing");
+		
+		assertEquals("{\"ipa\":\"da\",\"meta\":{\"ipa\":\"x\"}}", Json.addString("{\"ipa\":[\"a\",\"b\"],\"meta\":{\"ipa\":\"x\"}}", "ipa", "da"));
+		assertEquals("{\"ipa\":\"da\",\"ipa\":\"da\"}", Json.addString("{\"ipa\":\"a\",\"ipa\":\"b\"}", "ipa", "da"));
+	}
+	
+	@Test
+	public void rejectsMalformedRecords()
+	{
+		String[] records = {"", "   ", "[\"text\"]", "\"text\"", "{", "{\"text\"", "{\"text\":", "{\"text\":\"да",
+				"{\"text\":\"да\"", "{text:\"да\"}", "{\"text\" \"да\"}", "{\"text\":\"да\";\"n\":1}", "{\"text\":\"\\u04\"}",
+				"{\"text\":\"\\uzzzz\"}", "{\"text\":\"\\"};
+		for (String record : records)
+		{
+			assertThrows(IllegalArgumentException.class, () -> Json.getString(record, "missing"), record);
+			assertThrows(IllegalArgumentException.class, () -> Json.addString(record, "ipa", "da"), record);
+		}
+		assertThrows(IllegalArgumentException.class, () -> Json.getStrings("{\"words\":[\"a\", 1]}", "words"));
+	}
+
+}
@@ -0,0 +1,82 @@
+/**
+ * 10/18/2026
+ *
+ * Tests of toPhonemes and toFeatures: an affricate has to be one phoneme whether or not links are drawn,
+ * so the IDs and features of a word don't depend on the links setting.
+ *
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+public class PhonemesTest {
+	
+	private static final String[] WORDS = {"дзифт", "дзвер", "дзен", "джудже", "джаз", "цвете", "чорап", "по-дзифт", "подземен",
+			"надзор", "сватба"};
+	
+	private final PhoneticConverter plain = PhoneticConverter.builder().links(false).build();
+	private final PhoneticConverter linked = PhoneticConverter.builder().links(true).build();
+	
+	
+	@Test
+	public void affricatesAreOnePhoneme()
+	{
+		assertEquals("d͡z i f t", symbols(plain, "дзифт", -1));
+		assertEquals("d͡z i f t", symbols(linked, "дзифт", -1));
+		assertEquals("d͡ʒ o d͡ʒ ɛ", symbols(plain, "джудже", -1));
+		assertEquals("t͡s v ɛ t ɛ", symbols(plain, "цвете", -1));
+		assertEquals("t͡ʃ o r ɐ p", symbols(plain, "чорап", -1));
+		
+		//Only the start of a word is the affricate
+		assertEquals("p o d z ɛ m ɛ n", symbols(plain, "подземен", -1));
+		assertEquals("p o d z ɛ m ɛ n", symbols(linked, "подземен", -1));
+	}
+	
+	@Test
+	public void idsDontDependOnLinks()
+	{
+		for (String word : WORDS)
+		{
+			for (int stressedIndex = -1; stressedIndex < word.length(); stressedIndex++)
+			{
+				if (stressedIndex >= 0 && !CharClasses.isVowel(word.charAt(stressedIndex)))
+					continue;
+				
+				String message = word + " stressed at " + stressedIndex;
+				assertEquals(ids(plain, word, stressedIndex), ids(linked, word, stressedIndex), message);
+				assertEquals(features(plain, word, stressedIndex), features(linked, word, stressedIndex), message);
+			}
+		}
+	}
+	
+	private static String symbols(PhoneticConverter converter, String word, int stressedIndex)
+	{
+		short[] ids = new short[2 * word.length() + 1];
+		int count = converter.toPhonemes(word, stressedIndex, ids, 0);
+		
+		StringBuilder symbols = new StringBuilder();
+		for (int i = 0; i < count; i++)
+			symbols.append((i > 0)? " " : "").append(PhonemeInventory.getSymbol(ids[i]));
+		return symbols.toString();
+	}
+	
+	private static String ids(PhoneticConverter converter, String word, int stressedIndex)
+	{
+		short[] ids = new short[2 * word.length() + 1];
+		int count = converter.toPhonemes(word, stressedIndex, ids, 0);
+		return Arrays.toString(Arrays.copyOf(ids, count));
+	}
+	
+	private static String features(PhoneticConverter converter, String word, int stressedIndex)
+	{
+		long[] features = new long[2 * word.length() + 1];
+		int count = converter.toFeatures(word, stressedIndex, features, 0);
+		return Arrays.toString(Arrays.copyOf(features, count));
+	}
+
+}
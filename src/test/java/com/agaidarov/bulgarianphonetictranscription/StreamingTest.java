@@ -0,0 +1,58 @@
+/**
+ * 10/18/2026
+ *
+ * Tests of toPhonetic(Reader, Writer): every line of the output has to be what toPhonetic(line) gives first,
+ * and a token the String way can't transcribe on its own (e.g. a dash between words) mustn't stop the stream.
+ *
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.Test;
+
+public class StreamingTest {
+	
+	private final PhoneticConverter converter = PhoneticConverter.builder().build();
+	
+	
+	@Test
+	public void passesDashesThrough() throws IOException
+	{
+		assertEquals("ˈpɤrvi rɛt\nˈdumi - ˈdumi\npɔ- dɐ\n-\n", transcribe("първи ред\nдуми - думи\nпо- да\n-\n"));
+		assertEquals("ˈdumi - ˈdumi", converter.toPhonetic("думи - думи")[0]);
+	}
+	
+	@Test
+	public void transcribesOneWordLinesAsWords() throws IOException
+	{
+		assertEquals("ɔt\nna\nod grat\n", transcribe("от\nна̀\nот град\n"));
+		assertEquals("ɔt", converter.toPhonetic("от")[0]);
+		assertEquals("na", converter.toPhonetic("на̀")[0]);
+	}
+	
+	@Test
+	public void matchesPassages() throws IOException
+	{
+		String[] lines = {"от", "череша", "красива програма", "прави фонетична транскрипция от град", "на̀ ли", "по-добре",
+				"светлосин хладилник", "сватба"};
+		String[] transcribed = transcribe(String.join("\n", lines)).split("\n");
+		
+		assertEquals(lines.length, transcribed.length);
+		for (int i = 0; i < lines.length; i++)
+			assertEquals(converter.toPhonetic(lines[i])[0], transcribed[i], lines[i]);
+	}
+	
+	private String transcribe(String text) throws IOException
+	{
+		StringWriter output = new StringWriter();
+		converter.toPhonetic(new StringReader(text), output);
+		return output.toString();
+	}
+
+}
@@ -0,0 +1,266 @@
+/**
+ * 10/18/2026
+ *
+ * Tests of StressLexicon: lookups before and after compaction, the binary format of lexicon.bin,
+ * replaying lexicon.log (also when its last record was cut off) and reopening a lexicon.
+ * Every test works in a directory of its own, which is deleted afterwards.
+ *
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+public class StressLexiconTest {
+	
+	private static final String LETTERS = "абвгдежзийклмнопрстуфхцчшщъьюя";
+	
+	
+	@Test
+	public void findsRecordedWords() throws IOException
+	{
+		Path directory = Files.createTempDirectory("lexicon");
+		try (StressLexicon lexicon = StressLexicon.open(directory))
+		{
+			lexicon.record("череша", new int[] {3});
+			lexicon.record("Светлосин", new int[] {2, 6});
+			lexicon.record("ааа", new int[0]);
+			
+			assertArrayEquals(new int[] {3}, lexicon.getStresses("череша"));
+			assertArrayEquals(new int[] {2, 6}, lexicon.getStresses("светлосин"));
+			assertArrayEquals(new int[0], lexicon.getStresses(" ААА "));
+			assertNull(lexicon.getStresses("програма"));
+			
+			lexicon.compact();
+			assertArrayEquals(new int[] {3}, lexicon.getStresses("Череша"));
+			assertArrayEquals(new int[] {2, 6}, lexicon.getStresses("светлосин"));
+			assertArrayEquals(new int[0], lexicon.getStresses("ааа"));
+			assertNull(lexicon.getStresses("програма"));
+			assertEquals(3, lexicon.size());
+		} finally {
+			delete(directory);
+		}
+	}
+	
+	@Test
+	public void returnsCopies() throws IOException
+	{
+		Path directory = Files.createTempDirectory("lexicon");
+		try (StressLexicon lexicon = StressLexicon.open(directory))
+		{
+			int[] recorded = {3};
+			lexicon.record("череша", recorded);
+			recorded[0] = 0;
+			
+			lexicon.getStresses("череша")[0] = 5;
+			assertArrayEquals(new int[] {3}, lexicon.getStresses("череша"));
+			
+			lexicon.compact();		//writes what is in the log, which mustn't have changed
+			lexicon.getStresses("череша")[0] = 5;
+			assertArrayEquals(new int[] {3}, lexicon.getStresses("череша"));
+		} finally {
+			delete(directory);
+		}
+	}
+	
+	@Test
+	public void searchesManyWords() throws IOException
+	{
+		Path directory = Files.createTempDirectory("lexicon");
+		try (StressLexicon lexicon = StressLexicon.open(directory))
+		{
+			Map<String, int[]> words = randomWords(2000, new Random(2026));
+			int i = 0;
+			for (Map.Entry<String, int[]> entry : words.entrySet())
+			{
+				lexicon.record(entry.getKey(), entry.getValue());
+				if (++i % 500 == 0)
+					lexicon.compact();		//merges into an existing lexicon.bin from the second time on
+			}
+			lexicon.compact();
+			
+			assertEquals(words.size(), lexicon.size());
+			for (Map.Entry<String, int[]> entry : words.entrySet())
+				assertArrayEquals(entry.getValue(), lexicon.getStresses(entry.getKey()));
+			
+			//Words that sort before, between and after the words in the lexicon
+			for (String word : new String[] {"", "а", "яяяяяяяяяяяя", "abc", "дума1"})
+			{
+				if (!words.containsKey(word))
+					assertNull(lexicon.getStresses(word), word);
+			}
+		} finally {
+			delete(directory);
+		}
+	}
+	
+	@Test
+	public void writesTheBinaryFormat() throws IOException
+	{
+		Path directory = Files.createTempDirectory("lexicon");
+		try {
+			try (StressLexicon lexicon = StressLexicon.open(directory))
+			{
+				lexicon.record("б", new int[0]);
+				lexicon.record("ад", new int[] {0});
+			}		//closing compacts
+			
+			try (InputStream stream = Files.newInputStream(directory.resolve("lexicon.bin")))
+			{
+				DataInputStream input = new DataInputStream(stream);
+				assertEquals(0x42475358, input.readInt());		//"BGSX"
+				assertEquals(1, input.readInt());
+				assertEquals(2, input.readInt());
+				
+				//Offsets, then the entries sorted by their UTF-8 bytes ("ад" before "б")
+				assertEquals(0, input.readInt());
+				assertEquals(2 + 4 + 1 + 2, input.readInt());
+				assertEntry(input, "ад", new int[] {0});
+				assertEntry(input, "б", new int[0]);
+				assertEquals(-1, input.read());
+			}
+			assertEquals(0, Files.size(directory.resolve("lexicon.log")));
+		} finally {
+			delete(directory);
+		}
+	}
+	
+	@Test
+	public void replaysTheLogAndDropsACutOffRecord() throws IOException
+	{
+		Path directory = Files.createTempDirectory("lexicon");
+		try {
+			Path log = directory.resolve("lexicon.log");
+			long complete;
+			try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(log))))
+			{
+				writeEntry(output, "череша", new int[] {3});
+				writeEntry(output, "череша", new int[] {1});		//a later record replaces an earlier one
+				writeEntry(output, "град", new int[0]);
+				output.flush();
+				complete = output.size();
+				
+				//A record cut off in the middle of its word, as after a crash
+				byte[] word = "програма".getBytes(StandardCharsets.UTF_8);
+				output.writeShort(word.length);
+				output.write(word, 0, 5);
+			}
+			
+			try (StressLexicon lexicon = StressLexicon.open(directory))
+			{
+				assertEquals(complete, Files.size(log));
+				assertArrayEquals(new int[] {1}, lexicon.getStresses("череша"));
+				assertArrayEquals(new int[0], lexicon.getStresses("град"));
+				assertNull(lexicon.getStresses("програма"));
+				
+				lexicon.record("програма", new int[] {5});
+			}
+			
+			try (StressLexicon lexicon = StressLexicon.open(directory))
+			{
+				assertArrayEquals(new int[] {1}, lexicon.getStresses("череша"));
+				assertArrayEquals(new int[0], lexicon.getStresses("град"));
+				assertArrayEquals(new int[] {5}, lexicon.getStresses("програма"));
+				assertEquals(3, lexicon.size());
+			}
+		} finally {
+			delete(directory);
+		}
+	}
+	
+	@Test
+	public void reopensWithoutCompacting() throws IOException
+	{
+		Path directory = Files.createTempDirectory("lexicon");
+		try {
+			try (StressLexicon lexicon = StressLexicon.open(directory))
+			{
+				lexicon.record("череша", new int[] {3});
+				lexicon.compact();
+				lexicon.record("череша", new int[] {1});
+				lexicon.record("град", new int[0]);
+				
+				//A second lexicon on the same directory sees lexicon.bin and what is in the log so far
+				try (StressLexicon reopened = StressLexicon.open(directory))
+				{
+					assertArrayEquals(new int[] {1}, reopened.getStresses("череша"));
+					assertArrayEquals(new int[0], reopened.getStresses("град"));
+				}
+			}
+			assertTrue(Files.exists(directory.resolve("lexicon.bin")));
+		} finally {
+			delete(directory);
+		}
+	}
+	
+	
+	private static Map<String, int[]> randomWords(int count, Random random)
+	{
+		Map<String, int[]> words = new LinkedHashMap<>();
+		while (words.size() < count)
+		{
+			StringBuilder word = new StringBuilder();
+			int length = 1 + random.nextInt(12);
+			for (int i = 0; i < length; i++)
+				word.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+			
+			int[] stresses = new int[random.nextInt(3)];
+			for (int i = 0; i < stresses.length; i++)
+				stresses[i] = random.nextInt(length);
+			words.put(word.toString(), stresses);
+		}
+		return words;
+	}
+	
+	//An entry as StressLexicon writes it: length of the word in bytes, the word in UTF-8, number of stresses, stresses
+	private static void writeEntry(DataOutputStream output, String word, int[] stresses) throws IOException
+	{
+		byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+		output.writeShort(bytes.length);
+		output.write(bytes);
+		output.writeByte(stresses.length);
+		for (int stress : stresses)
+			output.writeShort(stress);
+	}
+	
+	private static void assertEntry(DataInputStream input, String word, int[] stresses) throws IOException
+	{
+		byte[] bytes = new byte[input.readShort()];
+		input.readFully(bytes);
+		assertEquals(word, new String(bytes, StandardCharsets.UTF_8));
+		
+		int[] read = new int[input.readByte()];
+		for (int i = 0; i < read.length; i++)
+			read[i] = input.readShort();
+		assertArrayEquals(stresses, read);
+	}
+	
+	private static void delete(Path directory) throws IOException
+	{
+		try (Stream<Path> paths = Files.walk(directory))
+		{
+			for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator)
+				Files.delete(path);
+		}
+	}
+
+}
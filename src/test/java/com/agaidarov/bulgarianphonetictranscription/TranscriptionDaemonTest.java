@@ -0,0 +1,121 @@
+/**
+ * 10/18/2026
+ *
+ * Tests of the daemon (Cli --daemon) on a socket in a temporary directory: a request with a header (sent by Cli --connect,
+ * which asks for the status line) and requests without one, which have to be transcribed with the daemon's own options.
+ *
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+public class TranscriptionDaemonTest {
+	
+	private static final String TEXT = "Ба̀ба и дя̀до.\nТе са от Ва̀рна.\n";
+	
+	private final PhoneticConverter converter = PhoneticConverter.builder().build();
+	
+	
+	@Test
+	public void answersRequestsWithAndWithoutAHeader() throws IOException, InterruptedException
+	{
+		Path directory = Files.createTempDirectory("daemon");
+		try {
+			Path socket = directory.resolve("socket");
+			Thread daemon = new Thread(() -> new Cli().run(new String[] {"--daemon", socket.toString(), "--threads", "1"}), "daemon");
+			daemon.setDaemon(true);		//the daemon runs until the tests end
+			daemon.start();
+			for (int i = 0; i < 600 && !Files.exists(socket); i++)		//it warms up before it listens
+				Thread.sleep(100);
+			assertTrue(Files.exists(socket), "the daemon didn't start");
+			
+			//No header: the daemon's own options (plain text)
+			assertEquals(text(TEXT), request(socket, TEXT));
+			assertEquals(text("#bgi"), request(socket, "#bgi"), "shorter than a header");
+			assertEquals(text("#bgipa2 дя̀до\n"), request(socket, "#bgipa2 дя̀до\n"), "not the header");
+			assertEquals("", request(socket, ""));
+			
+			//A header with the options of this request, and the status line after the transcription
+			String header = TranscriptionDaemon.HEADER + "\t--format\ttsv\t--status\n";
+			assertEquals("дя̀до\t" + text("дя̀до") + "\n" + TranscriptionDaemon.END + "OK\n", request(socket, header + "дя̀до\n"));
+			String bad = TranscriptionDaemon.HEADER + "\t--jsonl\t--status\n{\"text\":\n";
+			assertTrue(request(socket, bad).startsWith(TranscriptionDaemon.END + "ERROR line 1: "));
+			assertEquals(text("дя̀до"), request(socket, TranscriptionDaemon.HEADER + "\n" + "дя̀до"), "a header without options");
+			
+			//Cli --connect sends the header and checks the status
+			Path input = Files.writeString(directory.resolve("input.jsonl"), "{\"text\":\"дя̀до\"}\n");
+			Path output = directory.resolve("output.jsonl");
+			assertEquals(0, new Cli().run(new String[] {"--connect", socket.toString(), "--jsonl", "-o", output.toString(), input.toString()}));
+			assertEquals("{\"text\":\"дя̀до\",\"ipa\":" + quoted(text("дя̀до")) + "}\n", Files.readString(output, StandardCharsets.UTF_8));
+			
+			Files.writeString(input, "{\"text\":\n");
+			assertEquals(1, new Cli().run(new String[] {"--connect", socket.toString(), "--jsonl", "-o", output.toString(), input.toString()}));
+		} finally {
+			delete(directory);
+		}
+	}
+	
+	
+	//Sends text to the daemon at socket and returns everything it sends back
+	private static String request(Path socket, String text) throws IOException
+	{
+		try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socket)))
+		{
+			ByteBuffer bytes = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+			while (bytes.hasRemaining())
+				channel.write(bytes);
+			channel.shutdownOutput();
+			
+			ByteArrayOutputStream response = new ByteArrayOutputStream();
+			ByteBuffer buffer = ByteBuffer.allocate(1 << 12);
+			while (channel.read(buffer) >= 0)
+			{
+				response.write(buffer.array(), 0, buffer.position());
+				buffer.clear();
+			}
+			return response.toString(StandardCharsets.UTF_8);
+		}
+	}
+	
+	//The transcription of text as plain text, as the converter writes it
+	private String text(String text) throws IOException
+	{
+		StringWriter output = new StringWriter();
+		converter.toPhonetic(new StringReader(text), output);
+		return output.toString();
+	}
+	
+	private static String quoted(String text)
+	{
+		StringBuilder output = new StringBuilder();
+		Json.appendString(output, text);
+		return output.toString();
+	}
+	
+	private static void delete(Path directory) throws IOException
+	{
+		try (Stream<Path> paths = Files.walk(directory))
+		{
+			for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator)
+				Files.delete(path);
+		}
+	}
+
+}
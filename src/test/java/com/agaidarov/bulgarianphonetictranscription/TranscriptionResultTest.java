@@ -0,0 +1,119 @@
+/**
+ * 10/18/2026
+ *
+ * Tests of toPhoneticResult: the tokens and their transcriptions have to put the text and toPhonetic(text)[0]
+ * back together, and every token has to get the stresses it was transcribed with and where they came from.
+ *
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class TranscriptionResultTest {
+	
+	private static final String[] TEXTS = {"черѐша", "Черѐша", "вълк", "череша", "Ба̀ба и дя̀до.", "Те са от Ва̀рна.",
+			"Тя ня̀ма да до̀йде.  ", "да  ", "по-къ̀сно, „дя̀до“!", "кла̀с в гра̀да", "с"};
+	
+	private final PhoneticConverter converter = PhoneticConverter.builder().build();
+	
+	
+	@Test
+	public void putsTheTextAndTranscriptionBackTogether()
+	{
+		for (String text : TEXTS)
+		{
+			TranscriptionResult result = converter.toPhoneticResult(text);
+			assertEquals(text, result.getText());
+			assertEquals(converter.toPhonetic(text)[0], result.getTranscription(), text);
+			
+			String[] tokens = text.split(" ");
+			assertEquals(tokens.length, result.size(), text);
+			
+			String[] ipas = new String[result.size()];
+			int ipaEnd = 0;
+			for (int i = 0; i < result.size(); i++)
+			{
+				assertEquals(tokens[i], result.getToken(i), text);
+				assertEquals(text.substring(result.getTextStart(i), result.getTextEnd(i)), result.getToken(i), text);
+				
+				assertTrue(result.getIpaStart(i) >= ipaEnd && result.getIpaEnd(i) >= result.getIpaStart(i), text);
+				ipaEnd = result.getIpaEnd(i);
+				ipas[i] = result.getIpa(i);
+			}
+			assertEquals(result.getTranscription(), String.join(" ", ipas).trim(), text);
+		}
+	}
+	
+	@Test
+	public void trimsLikeToPhonetic()
+	{
+		TranscriptionResult result = converter.toPhoneticResult("Тя ня̀ма да до̀йде.  ");
+		assertEquals(4, result.size(), "empty tokens at the end are left out, like in split");
+		assertEquals(0, result.getIpaStart(0));
+		assertEquals(result.getTranscription().length(), result.getIpaEnd(3), "the space after the last word is trimmed");
+		assertEquals(12, result.getTextStart(3));
+		assertEquals(19, result.getTextEnd(3));
+		
+		result = converter.toPhoneticResult("да  ");
+		assertEquals(1, result.size());
+		assertEquals(0, result.getTextStart(0));
+		assertEquals(2, result.getTextEnd(0));
+		assertEquals(result.getTranscription(), result.getIpa(0));
+		assertEquals(StressSource.NONE, result.getStressSource(0), "a clitic, as \"да  \" is a passage");
+		
+		assertThrows(IndexOutOfBoundsException.class, () -> converter.toPhoneticResult("да").getIpa(1));
+	}
+	
+	@Test
+	public void keepsTheStresses()
+	{
+		TranscriptionResult result = converter.toPhoneticResult("черѐша");
+		assertArrayEquals(new int[] {3}, result.getStresses(0));
+		assertEquals(StressSource.MARK, result.getStressSource(0));
+		
+		result = converter.toPhoneticResult("Ба̀ба и дя̀до.");
+		assertArrayEquals(new int[] {1}, result.getStresses(0));
+		assertEquals(StressSource.MARK, result.getStressSource(0));
+		assertArrayEquals(new int[0], result.getStresses(1));
+		assertEquals(StressSource.NONE, result.getStressSource(1), "a clitic");
+		assertArrayEquals(new int[] {1}, result.getStresses(2));
+		assertEquals(StressSource.MARK, result.getStressSource(2));
+		
+		result.getStresses(0)[0] = 2;
+		assertArrayEquals(new int[] {1}, result.getStresses(0), "getStresses returns a copy");
+	}
+	
+	@Test
+	public void keepsWhereStressesCameFrom()
+	{
+		StressCache cache = new StressCache();
+		cache.remember("баба", new int[] {1});
+		PhoneticConverter cached = PhoneticConverter.builder().stressCache(cache).build();
+		
+		TranscriptionResult result = cached.toPhoneticResult("баба");
+		assertArrayEquals(new int[] {1}, result.getStresses(0));
+		assertEquals(StressSource.CACHE, result.getStressSource(0));
+		
+		result = cached.toPhoneticResult("баба и дядо");
+		assertEquals(StressSource.CACHE, result.getStressSource(0));
+		assertEquals(StressSource.NONE, result.getStressSource(1));
+		assertArrayEquals(new int[] {1}, result.getStresses(2), "nobody knew the word, so the first vowel was stressed");
+		assertEquals(StressSource.GUESS, result.getStressSource(2));
+		
+		result = converter.toPhoneticResult("дядо");
+		assertArrayEquals(new int[] {1}, result.getStresses(0));
+		assertEquals(StressSource.GUESS, result.getStressSource(0));
+		
+		PhoneticConverter guessing = PhoneticConverter.builder().stressProvider(new RuleBasedStressProvider()).build();
+		result = guessing.toPhoneticResult("дядо");
+		assertEquals(StressSource.GUESS, result.getStressSource(0));
+		assertEquals(1, result.getStresses(0).length);
+	}
+
+}
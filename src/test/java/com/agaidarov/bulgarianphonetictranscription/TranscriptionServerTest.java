@@ -0,0 +1,142 @@
+/**
+ * 10/18/2026
+ *
+ * Tests of the HTTP server on a free port of localhost: every endpoint with GET, POST and a batch,
+ * and the status of the requests it can't answer.
+ *
+ */
+
+package com.agaidarov.bulgarianphonetictranscription;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+public class TranscriptionServerTest {
+	
+	private final PhoneticConverter converter = PhoneticConverter.builder().build();
+	private final HttpClient client = HttpClient.newHttpClient();
+	
+	
+	@Test
+	public void answersEveryEndpoint() throws IOException, InterruptedException
+	{
+		TranscriptionServer server = start();
+		try {
+			HttpResponse<String> response = get(server, "/word", "дядо");
+			assertEquals(200, response.statusCode());
+			assertEquals("{\"result\":" + array(converter.toPhonetic("дядо")) + "}", response.body());
+			
+			response = post(server, "/word", "{\"texts\":[\"дя̀до\", \"ба̀ба\"]}");
+			assertEquals(200, response.statusCode());
+			assertEquals("{\"results\":[" + array(converter.toPhonetic("дя̀до")) + "," + array(converter.toPhonetic("ба̀ба")) + "]}",
+					response.body());
+			
+			response = post(server, "/passage", "{\"text\":\"Ба̀ба и дя̀до.\"}");
+			assertEquals(200, response.statusCode());
+			assertEquals("{\"result\":" + string(passage("Ба̀ба и дя̀до.")) + "}", response.body());
+			
+			response = get(server, "/syllables", " черѐша ");
+			assertEquals(200, response.statusCode());
+			assertEquals("{\"result\":" + array(converter.getSyllables("черѐша")) + "}", response.body());
+			
+			response = post(server, "/stress", "{\"texts\":[]}");
+			assertEquals(200, response.statusCode());
+			assertEquals("{\"results\":[]}", response.body());
+		} finally {
+			server.stop(0);
+		}
+	}
+	
+	@Test
+	public void rejectsBadRequests() throws IOException, InterruptedException
+	{
+		TranscriptionServer server = start();
+		try {
+			assertEquals(400, get(server, "/syllables", "от града").statusCode(), "several words");
+			assertEquals(400, get(server, "/word", "от  града").statusCode(), "several words with a double space");
+			assertEquals(400, post(server, "/word", "{\"texts\":[\"дядо\", \"от\\tграда\"]}").statusCode(), "several words in a batch");
+			assertEquals(400, get(server, "/word", "  ").statusCode(), "no word");
+			assertEquals(400, get(server, "/word", null).statusCode(), "no text");
+			assertEquals(400, post(server, "/passage", "{\"text\":").statusCode(), "not JSON");
+			assertEquals(400, post(server, "/passage", "{\"words\":\"да\"}").statusCode(), "no text field");
+			
+			HttpResponse<String> response = get(server, "/syllables", "от града");
+			assertTrue(response.body().startsWith("{\"error\":"), response.body());
+			
+			assertEquals(404, get(server, "/words", "дядо").statusCode());
+			response = client.send(HttpRequest.newBuilder(uri(server, "/word", "дядо")).PUT(HttpRequest.BodyPublishers.noBody()).build(),
+					HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+			assertEquals(405, response.statusCode());
+			
+			assertEquals(200, get(server, "/word", "дядо").statusCode(), "the server still answers");
+		} finally {
+			server.stop(0);
+		}
+	}
+	
+	
+	private TranscriptionServer start() throws IOException
+	{
+		TranscriptionServer server = new TranscriptionServer(converter, new InetSocketAddress("127.0.0.1", 0));
+		server.start();
+		return server;
+	}
+	
+	private HttpResponse<String> get(TranscriptionServer server, String path, String text) throws IOException, InterruptedException
+	{
+		return client.send(HttpRequest.newBuilder(uri(server, path, text)).GET().build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+	}
+	
+	private HttpResponse<String> post(TranscriptionServer server, String path, String json) throws IOException, InterruptedException
+	{
+		HttpRequest request = HttpRequest.newBuilder(uri(server, path, null))
+				.POST(HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8)).build();
+		return client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+	}
+	
+	private static URI uri(TranscriptionServer server, String path, String text)
+	{
+		String query = (text == null)? "" : "?text=" + URLEncoder.encode(text, StandardCharsets.UTF_8);
+		return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + path + query);
+	}
+	
+	private String passage(String text) throws IOException
+	{
+		StringWriter output = new StringWriter();
+		converter.toPhonetic(new StringReader(text), output);
+		return output.toString().strip();
+	}
+	
+	private static String string(String text)
+	{
+		StringBuilder json = new StringBuilder();
+		Json.appendString(json, text);
+		return json.toString();
+	}
+	
+	private static String array(String[] texts)
+	{
+		StringBuilder json = new StringBuilder("[");
+		for (int i = 0; i < texts.length; i++)
+		{
+			if (i > 0)
+				json.append(',');
+			Json.appendString(json, texts[i]);
+		}
+		return json.append(']').toString();
+	}
+
+}